@@ -1,5 +1,7 @@
 package com.hse.leihsy.config;
 
+import com.hse.leihsy.controller.BookingController;
+import com.hse.leihsy.controller.ProductController;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -132,7 +134,8 @@ public class SecurityConfig {
         configuration.setMaxAge(3600L);
 
         // Welche Headers im Response sichtbar sein duerfen
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "ETag", "Last-Modified",
+                BookingController.NEXT_CURSOR_HEADER, ProductController.NEXT_PAGE_HEADER));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/api/**", configuration);
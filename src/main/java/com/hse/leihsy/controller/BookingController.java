@@ -2,8 +2,11 @@ package com.hse.leihsy.controller;
 
 import com.hse.leihsy.model.dto.BookingDTO;
 import com.hse.leihsy.model.dto.BookingStatusUpdateDTO;
+import com.hse.leihsy.model.dto.CartBookingRequestDTO;
 import com.hse.leihsy.model.entity.User;
+import com.hse.leihsy.service.BookingExportService;
 import com.hse.leihsy.service.BookingService;
+import com.hse.leihsy.service.ChangeVersionService;
 import com.hse.leihsy.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,13 +15,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -30,8 +38,15 @@ import java.util.List;
 
 public class BookingController {
 
+    /**
+     * Response-Header mit dem Cursor der naechsten Seite (fehlt auf der letzten Seite)
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
     private final UserService userService;
+    private final BookingExportService bookingExportService;
+    private final ChangeVersionService changeVersionService;
 
     // ========================================
     // GET ENDPOINTS
@@ -43,7 +58,7 @@ public class BookingController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Erfolgreich abgerufen"),
-            @ApiResponse(responseCode = "400", description = "Ungueltiger Status-Parameter"),
+            @ApiResponse(responseCode = "400", description = "Ungueltiger Status-Parameter oder Status ohne Pagination zusammen mit cursor/limit"),
             @ApiResponse(responseCode = "401", description = "Nicht authentifiziert"),
             @ApiResponse(responseCode = "403", description = "Keine Berechtigung - nur Admins")
     })
@@ -54,12 +69,51 @@ public class BookingController {
                     description = "Optional: Filter by status (overdue, pending, confirmed, picked_up, returned, cancelled, expired, rejected)",
                     example = "overdue"
             )
-            @RequestParam(required = false) String status
+            @RequestParam(required = false) String status,
+
+            @Parameter(description = "Optional: Cursor aus dem Header " + NEXT_CURSOR_HEADER + " der vorherigen Seite")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Optional: Seitengroesse (1-200). Aktiviert Keyset-Pagination nach createdAt absteigend " +
+                    "(ohne status oder mit picked_up, returned, rejected)")
+            @RequestParam(required = false) Integer limit
     ) {
+        if (cursor != null || limit != null) {
+            BookingService.BookingPage page = bookingService.getAllBookingsPage(
+                    status, cursor, limit != null ? limit : BookingService.DEFAULT_PAGE_SIZE);
+            return toPagedResponse(page);
+        }
+
         List<BookingDTO> bookings = bookingService.getAllBookings(status);
         return ResponseEntity.ok(bookings);
     }
 
+    @Operation(
+            summary = "Alle Buchungen exportieren",
+            description = "Streamt alle Buchungen (inkl. stornierter/abgelehnter) als CSV oder NDJSON fuer das Semester-Reporting"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export wird gestreamt"),
+            @ApiResponse(responseCode = "400", description = "Ungueltiges Format"),
+            @ApiResponse(responseCode = "401", description = "Nicht authentifiziert"),
+            @ApiResponse(responseCode = "403", description = "Keine Berechtigung - nur Admins")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @Parameter(description = "Format: csv (Standard) oder ndjson", example = "csv")
+            @RequestParam(required = false) String format
+    ) {
+        BookingExportService.Format exportFormat = BookingExportService.Format.from(format);
+        StreamingResponseBody body = outputStream -> bookingExportService.exportBookings(exportFormat, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"bookings." + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+
     @Operation(
             summary = "Einzelne Buchung abrufen",
             description = "Holt eine spezifische Buchung anhand ihrer ID"
@@ -90,7 +144,13 @@ public class BookingController {
     @PreAuthorize("hasRole('ADMIN') or @studentGroupSecurityService.canView(#groupId, authentication)")
     @GetMapping("/groups/{groupId}")
     public ResponseEntity<List<BookingDTO>> getBookingsByGroupId(
-            @Parameter(description = "ID der Studentengruppe") @PathVariable Long groupId) {
+            @Parameter(description = "ID der Studentengruppe") @PathVariable Long groupId,
+            WebRequest webRequest) {
+        ChangeVersionService.Version version = changeVersionService.forGroup(groupId);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+
         List<BookingDTO> bookings = bookingService.getBookingsByGroupId(groupId);
         return ResponseEntity.ok(bookings);
     }
@@ -131,6 +191,28 @@ public class BookingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(bookings);
     }
 
+    @Operation(
+            summary = "Warenkorb buchen",
+            description = "Bucht mehrere Produkte (z.B. Kamera + Stativ + Mikrofon) fuer denselben Zeitraum in einer Transaktion. Ist eine Position nicht verfuegbar, wird nichts gebucht."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Alle Buchungen erfolgreich erstellt",
+                    content = @Content(schema = @Schema(implementation = BookingDTO.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Ungueltige Anfrage oder User nicht Mitglied der Gruppe"),
+            @ApiResponse(responseCode = "401", description = "Nicht authentifiziert"),
+            @ApiResponse(responseCode = "409", description = "Mindestens eine Position nicht ausreichend verfuegbar")
+    })
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping("/cart")
+    public ResponseEntity<List<BookingDTO>> createCartBooking(@Valid @RequestBody CartBookingRequestDTO request) {
+        User currentUser = userService.getCurrentUser();
+        List<BookingDTO> bookings = bookingService.createCartBooking(currentUser.getId(), request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(bookings);
+    }
+
     // ========================================
     // PATCH ENDPOINT - Status-Updates
     // ========================================
@@ -179,6 +261,17 @@ public class BookingController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Liefert eine Seite als Liste, der Cursor der naechsten Seite steht im Header
+     */
+    static ResponseEntity<List<BookingDTO>> toPagedResponse(BookingService.BookingPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.bookings());
+    }
+
     // ========================================
     // REQUEST DTO (Inner Class)
     // ========================================
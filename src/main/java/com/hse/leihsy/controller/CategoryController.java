@@ -3,9 +3,11 @@ package com.hse.leihsy.controller;
 import com.hse.leihsy.mapper.CategoryMapper;
 import com.hse.leihsy.model.dto.CategoryCreateDTO;
 import com.hse.leihsy.model.dto.CategoryDTO;
+import com.hse.leihsy.model.dto.GroupCount;
 import com.hse.leihsy.model.entity.Category;
 import com.hse.leihsy.repository.CategoryRepository;
 import com.hse.leihsy.repository.ProductRepository;
+import com.hse.leihsy.service.ProductSearchIndex;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -21,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(value = "/api/categories", produces = "application/json")
@@ -31,6 +34,7 @@ public class CategoryController {
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final CategoryMapper categoryMapper;
+    private final ProductSearchIndex productSearchIndex;
 
     @Operation(
             summary = "Get all categories",
@@ -42,9 +46,11 @@ public class CategoryController {
         List<Category> categories = categoryRepository.findAllActive();
         List<CategoryDTO> categoryDTOs = categoryMapper.toDTOList(categories);
 
+        // Anzahl Products aller Kategorien in einer gruppierten Query
+        Map<Long, Long> counts = productRepository.countActiveGroupedByCategory().stream()
+                .collect(Collectors.toMap(GroupCount::id, GroupCount::count));
         for (CategoryDTO dto : categoryDTOs) {
-            Long count = productRepository.countByCategoryId(dto.getId());
-            dto.setDeviceCount(count);
+            dto.setDeviceCount(counts.getOrDefault(dto.getId(), 0L));
         }
 
         return ResponseEntity.ok(categoryDTOs);
@@ -145,6 +151,7 @@ public class CategoryController {
         // Soft-Delete
         category.softDelete();
         categoryRepository.save(category);
+        productSearchIndex.categoryChanged(id);
 
         return ResponseEntity.noContent().build();
     }
@@ -179,6 +186,8 @@ public class CategoryController {
         }
 
         Category updatedCategory = categoryRepository.save(category);
+        // Kategorie-Name ist Teil des Suchindex der zugeordneten Products
+        productSearchIndex.categoryChanged(id);
         return ResponseEntity.ok(categoryMapper.toDTO(updatedCategory));
     }
 }
\ No newline at end of file
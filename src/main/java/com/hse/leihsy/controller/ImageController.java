@@ -10,18 +10,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Map;
-import java.util.Objects;
 
 @Slf4j
 @RestController
@@ -30,11 +37,25 @@ import java.util.Objects;
 @Tag(name = "Image Management", description = "APIs for uploading, retrieving, and deleting product images")
 public class ImageController {
 
+    // Request-Attribute des Tomcat-Connectors fuer Sendfile (org.apache.catalina.Globals)
+    static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private static final Duration IMMUTABLE_MAX_AGE = Duration.ofDays(365);
+
     private final ImageService imageService;
 
+    /**
+     * Ab dieser Groesse werden vollstaendige Antworten per Sendfile gesendet (wie Tomcats DefaultServlet)
+     */
+    @Value("${leihsy.images.sendfile-min-size:48KB}")
+    private DataSize sendfileMinSize = DataSize.ofKilobytes(48);
+
     @Operation(
             summary = "Upload a product image",
-            description = "Uploads an image file for a product. The image will be saved with a sanitized filename based on the product name. Supported formats: JPG, PNG, WebP (max 5MB)."
+            description = "Uploads an image file for a product. The image is stored under the SHA-256 of its content, so identical uploads share one file and a changed image always gets a new URL. Supported formats: JPG, PNG, WebP (max 5MB)."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -42,7 +63,7 @@ public class ImageController {
                     description = "Image uploaded successfully",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(example = "{\"imageUrl\": \"/api/images/meta-quest-pro.jpg\"}")
+                            schema = @Schema(example = "{\"imageUrl\": \"/api/images/9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08.jpg\"}")
                     )
             ),
             @ApiResponse(
@@ -74,23 +95,11 @@ public class ImageController {
                     required = true,
                     content = @Content(mediaType = MediaType.MULTIPART_FORM_DATA_VALUE)
             )
-            @RequestParam("file") MultipartFile file,
-
-            @Parameter(
-                    description = "Product name for generating the filename (e.g., 'Meta Quest Pro' → 'meta-quest-pro.jpg'). If not provided, original filename will be used.",
-                    required = false,
-                    example = "Meta Quest Pro"
-            )
-            @RequestParam(value = "productName", required = false) String productName
+            @RequestParam("file") MultipartFile file
     ) {
         try {
-            // Fallback: Wenn kein productName, dann Original-Filename verwenden
-            String nameToUse = (productName != null && !productName.isBlank())
-                    ? productName
-                    : Objects.requireNonNull(file.getOriginalFilename()).replaceFirst("[.][^.]+$", ""); // Ohne Extension
-
-            String filename = imageService.saveImage(file, nameToUse);
-            String imageUrl = "/api/images/" + filename;
+            String filename = imageService.saveImage(file);
+            String imageUrl = ImageService.URL_PREFIX + filename;
 
             log.info("Image uploaded successfully: {}", filename);
             return ResponseEntity.ok(Map.of("imageUrl", imageUrl));
@@ -109,7 +118,11 @@ public class ImageController {
 
     @Operation(
             summary = "Get a product image",
-            description = "Retrieves an image file by its filename. The image is returned inline for display in browsers."
+            description = "Retrieves an image file by its filename. The image is returned inline for display in browsers. " +
+                    "Content-hash filenames are cacheable forever (immutable); legacy filenames must be revalidated. " +
+                    "Supports If-None-Match / If-Modified-Since (304) and Range requests (206). " +
+                    "With ?w= the smallest downscaled variant at least that wide is served (200, 400 or 800px); " +
+                    "until it has been generated the original is returned and must be revalidated."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -119,6 +132,14 @@ public class ImageController {
                             mediaType = "image/jpeg"
                     )
             ),
+            @ApiResponse(
+                    responseCode = "206",
+                    description = "Requested byte range of the image"
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Image unchanged since the cached version"
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Image not found"
@@ -127,28 +148,74 @@ public class ImageController {
     @GetMapping("/{filename}")
     public ResponseEntity<Resource> getImage(
             @Parameter(
-                    description = "Filename of the image to retrieve (e.g., 'meta-quest-pro.jpg')",
+                    description = "Filename of the image to retrieve (content hash, or a legacy name like 'meta-quest-pro.jpg')",
                     required = true,
                     example = "meta-quest-pro.jpg"
             )
-            @PathVariable String filename
+            @PathVariable String filename,
+
+            @Parameter(description = "Desired display width in pixels; the nearest larger variant is served", example = "200")
+            @RequestParam(name = "w", required = false) Integer width,
+
+            WebRequest webRequest,
+            HttpServletRequest request
     ) {
+        if (width != null && width <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            Resource resource = imageService.loadImage(filename);
+            Resource resource = width != null
+                    ? imageService.loadImage(filename, width)
+                    : imageService.loadImage(filename);
+            String servedName = resource.getFilename();
+            long size = resource.contentLength();
+            long lastModified = resource.lastModified();
+
+            // Mit ?w= darf das Original nicht dauerhaft gecacht werden: spaeter gibt es unter der URL die Variante
+            boolean immutable = ImageService.isImmutable(servedName) && (width == null || !filename.equals(servedName));
+            String etag = ImageService.etagOf(servedName, size, lastModified);
+            CacheControl cacheControl = immutable
+                    ? CacheControl.maxAge(IMMUTABLE_MAX_AGE).cachePublic().immutable()
+                    : CacheControl.noCache().cachePublic();
+
+            if (webRequest.checkNotModified(etag, lastModified)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).eTag(etag).build();
+            }
 
             String contentType = determineContentType(filename);
 
-            return ResponseEntity.ok()
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                     .contentType(MediaType.parseMediaType(contentType))
+                    .cacheControl(cacheControl)
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                     .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "inline; filename=\"" + filename + "\"")
-                    .body(resource);
-        } catch (FileStorageException e) {
+                            "inline; filename=\"" + filename + "\"");
+
+            // Grosse Bilder (nicht aus dem ImageCache) ohne Range per Sendfile: Tomcat schreibt die Datei mit FileChannel.transferTo
+            if (resource.isFile() && canSendfile(request, size)) {
+                request.setAttribute(SENDFILE_FILENAME_ATTR, resource.getFile().getAbsolutePath());
+                request.setAttribute(SENDFILE_START_ATTR, 0L);
+                request.setAttribute(SENDFILE_END_ATTR, size);
+                return response.contentLength(size).build();
+            }
+
+            // Range-Anfragen beantwortet Spring aus der Resource als ResourceRegion (206)
+            return response.body(resource);
+        } catch (FileStorageException | IOException e) {
             log.error("Image not found: {}", filename);
             return ResponseEntity.notFound().build();
         }
     }
 
+    private boolean canSendfile(HttpServletRequest request, long size) {
+        return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))
+                && HttpMethod.GET.matches(request.getMethod())
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && size >= sendfileMinSize.toBytes();
+    }
+
     @Operation(
             summary = "Delete a product image",
             description = "Deletes an image file from the server. This operation cannot be undone."
@@ -1,7 +1,10 @@
 package com.hse.leihsy.controller;
 
+import com.hse.leihsy.exception.ValidationException;
 import com.hse.leihsy.model.dto.BookingDTO;
+import com.hse.leihsy.model.dto.LenderDashboardDTO;
 import com.hse.leihsy.service.BookingService;
+import com.hse.leihsy.service.ChangeVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,6 +14,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,13 +25,17 @@ import java.util.List;
 public class LenderController {
 
     private final BookingService bookingService;
+    private final ChangeVersionService changeVersionService;
 
     @Operation(
             summary = "Get bookings of a lender",
-            description = "Returns all bookings where the specified user is the lender. Supports filtering by status and including deleted bookings."
+            description = "Returns all bookings where the specified user is the lender. Supports filtering by status and including deleted bookings. " +
+                    "With limit/cursor the list is paged; the cursor of the next page is returned in the " +
+                    BookingController.NEXT_CURSOR_HEADER + " header (body stays a plain array, as for /api/bookings)."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Bookings retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "status=pending zusammen mit cursor/limit"),
             @ApiResponse(responseCode = "404", description = "Lender not found"),
             @ApiResponse(responseCode = "403", description = "Keine Berechtigung - nur eigene Bookings oder Admin")
     })
@@ -36,15 +44,40 @@ public class LenderController {
     public ResponseEntity<List<BookingDTO>> getLenderBookings(
             @Parameter(description = "ID of the lender") @PathVariable Long lenderId,
 
-            @Parameter(description = "Filter by status (e.g., 'pending', 'confirmed')")
+            @Parameter(description = "Filter by status (only 'pending' is supported, other values are ignored; pending is not combinable with cursor/limit)")
             @RequestParam(required = false) String status,
 
             @Parameter(description = "Include soft-deleted bookings (admin only)")
-            @RequestParam(required = false, defaultValue = "false") boolean deleted
+            @RequestParam(required = false, defaultValue = "false") boolean deleted,
+
+            @Parameter(description = "Cursor aus dem Header " + BookingController.NEXT_CURSOR_HEADER + " der vorherigen Seite")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Seitengroesse (1-200). Aktiviert Keyset-Pagination (nicht mit status=pending kombinierbar)")
+            @RequestParam(required = false) Integer limit,
+
+            WebRequest webRequest
     ) {
+        boolean pending = "pending".equalsIgnoreCase(status);
+        boolean paged = cursor != null || limit != null;
+        if (pending && paged) {
+            throw new ValidationException("status=pending cannot be combined with cursor/limit");
+        }
+
+        ChangeVersionService.Version version = changeVersionService.forLender(lenderId);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+
+        if (paged) {
+            BookingService.BookingPage page = bookingService.getBookingsByLenderIdPage(
+                    lenderId, deleted, cursor, limit != null ? limit : BookingService.DEFAULT_PAGE_SIZE);
+            return BookingController.toPagedResponse(page);
+        }
+
         List<BookingDTO> bookings;
 
-        if ("pending".equalsIgnoreCase(status)) {
+        if (pending) {
             bookings = bookingService.getPendingBookingsByLenderId(lenderId, deleted);
         } else {
             bookings = bookingService.getBookingsByLenderId(lenderId, deleted);
@@ -53,6 +86,28 @@ public class LenderController {
         return ResponseEntity.ok(bookings);
     }
 
+    @Operation(
+            summary = "Get dashboard summary for lender",
+            description = "Returns pending, upcoming and active bookings (incl. overdue) with counts in one response. Replaces separate calls to /bookings?status=pending, /upcoming, /active and /overdue."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Dashboard retrieved successfully"),
+            @ApiResponse(responseCode = "403", description = "Keine Berechtigung - nur eigene Bookings oder Admin")
+    })
+    @PreAuthorize("hasRole('ADMIN') or @bookingSecurityService.canViewLenderBookings(#lenderId, authentication)")
+    @GetMapping("/{lenderId}/dashboard")
+    public ResponseEntity<LenderDashboardDTO> getLenderDashboard(
+            @Parameter(description = "ID of the lender") @PathVariable Long lenderId,
+            WebRequest webRequest
+    ) {
+        ChangeVersionService.Version version = changeVersionService.forLender(lenderId);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+
+        return ResponseEntity.ok(bookingService.getLenderDashboard(lenderId));
+    }
+
     @Operation(
             summary = "Get upcoming pickups for lender",
             description = "Returns confirmed bookings that are waiting for pickup. Sorted by pickup date."
@@ -64,8 +119,14 @@ public class LenderController {
     @PreAuthorize("hasRole('ADMIN') or @bookingSecurityService.canViewLenderBookings(#lenderId, authentication)")
     @GetMapping("/{lenderId}/upcoming")
     public ResponseEntity<List<BookingDTO>> getLenderUpcoming(
-            @Parameter(description = "ID of the lender") @PathVariable Long lenderId
+            @Parameter(description = "ID of the lender") @PathVariable Long lenderId,
+            WebRequest webRequest
     ) {
+        ChangeVersionService.Version version = changeVersionService.forLender(lenderId);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+
         List<BookingDTO> bookings = bookingService.getUpcomingBookingsByLenderId(lenderId);
         return ResponseEntity.ok(bookings);
     }
@@ -81,8 +142,14 @@ public class LenderController {
     @PreAuthorize("hasRole('ADMIN') or @bookingSecurityService.canViewLenderBookings(#lenderId, authentication)")
     @GetMapping("/{lenderId}/active")
     public ResponseEntity<List<BookingDTO>> getLenderActive(
-            @Parameter(description = "ID of the lender") @PathVariable Long lenderId
+            @Parameter(description = "ID of the lender") @PathVariable Long lenderId,
+            WebRequest webRequest
     ) {
+        ChangeVersionService.Version version = changeVersionService.forLender(lenderId);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+
         List<BookingDTO> bookings = bookingService.getActiveBookingsByLenderId(lenderId);
         return ResponseEntity.ok(bookings);
     }
@@ -98,8 +165,14 @@ public class LenderController {
     @PreAuthorize("hasRole('ADMIN') or @bookingSecurityService.canViewLenderBookings(#lenderId, authentication)")
     @GetMapping("/{lenderId}/overdue")
     public ResponseEntity<List<BookingDTO>> getLenderOverdue(
-            @Parameter(description = "ID of the lender") @PathVariable Long lenderId
+            @Parameter(description = "ID of the lender") @PathVariable Long lenderId,
+            WebRequest webRequest
     ) {
+        ChangeVersionService.Version version = changeVersionService.forLender(lenderId);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+
         List<BookingDTO> bookings = bookingService.getOverdueBookingsByLenderId(lenderId);
         return ResponseEntity.ok(bookings);
     }
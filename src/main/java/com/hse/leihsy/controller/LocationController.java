@@ -1,6 +1,7 @@
 package com.hse.leihsy.controller;
 
 import com.hse.leihsy.mapper.LocationMapper;
+import com.hse.leihsy.model.dto.GroupCount;
 import com.hse.leihsy.model.dto.LocationCreateDTO;
 import com.hse.leihsy.model.dto.LocationDTO;
 import com.hse.leihsy.model.entity.Location;
@@ -21,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(value = "/api/locations", produces = "application/json")
@@ -34,13 +36,21 @@ public class LocationController {
 
     @Operation(
             summary = "Get all locations",
-            description = "Returns a list of all active locations. Only locations with at least one assigned item are displayed."
+            description = "Returns a list of all active locations with the number of assigned items."
     )
     @ApiResponse(responseCode = "200", description = "Locations retrieved successfully")
     @GetMapping
     public ResponseEntity<List<LocationDTO>> getAllLocations() {
         List<Location> locations = locationRepository.findAllActive();
         List<LocationDTO> locationDTOs = locationMapper.toDTOList(locations);
+
+        // Anzahl Items aller Locations in einer gruppierten Query
+        Map<Long, Long> counts = itemRepository.countActiveGroupedByLocation().stream()
+                .collect(Collectors.toMap(GroupCount::id, GroupCount::count));
+        for (LocationDTO dto : locationDTOs) {
+            dto.setItemCount(counts.getOrDefault(dto.getId(), 0L));
+        }
+
         return ResponseEntity.ok(locationDTOs);
     }
 
@@ -6,11 +6,15 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hse.leihsy.mapper.ItemMapper;
 import com.hse.leihsy.mapper.ProductMapper;
 import com.hse.leihsy.model.dto.ItemDTO;
+import com.hse.leihsy.model.dto.NextAvailableSlotDTO;
 import com.hse.leihsy.model.dto.ProductCreateDTO;
 import com.hse.leihsy.model.dto.ProductDTO;
+import com.hse.leihsy.model.dto.ProductFilter;
+import com.hse.leihsy.model.dto.ProductItemCounts;
 import com.hse.leihsy.model.dto.timePeriodDTO;
 import com.hse.leihsy.model.entity.Item;
 import com.hse.leihsy.model.entity.Product;
+import com.hse.leihsy.service.ChangeVersionService;
 import com.hse.leihsy.service.ItemService;
 import com.hse.leihsy.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,13 +24,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -39,42 +46,69 @@ import java.util.stream.Collectors;
 public class ProductController {
 
     private final ProductService productService;
+    private final ChangeVersionService changeVersionService;
     private final ItemService itemService;
     private final ProductMapper productMapper;
     private final ItemMapper itemMapper;
     private final ObjectMapper objectMapper;
     private final Validator validator;
 
+    /**
+     * Response-Header mit der Nummer der naechsten Seite (fehlt auf der letzten Seite)
+     */
+    public static final String NEXT_PAGE_HEADER = "X-Next-Page";
+
     @Operation(
             summary = "Get all products with optional filters",
-            description = "Returns a list of all products. Supports filtering by search query, category, and location."
+            description = "Returns active products. All given filters are combined (search AND category AND location AND " +
+                    "availability AND active flag). Paginated when page or size is given; the next page number is " +
+                    "returned in the " + NEXT_PAGE_HEADER + " header."
     )
     @ApiResponse(responseCode = "200", description = "List of products retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid page, size or sort")
     @GetMapping
     public ResponseEntity<List<ProductDTO>> getAllProducts(
-            @Parameter(description = "Search query for full-text search in name and description")
+            @Parameter(description = "Search query (word prefixes in name, category, accessories and description, ranked by relevance)")
             @RequestParam(required = false) String search,
 
             @Parameter(description = "Filter by category ID")
             @RequestParam(required = false) Long categoryId,
 
             @Parameter(description = "Filter by location ID")
-            @RequestParam(required = false) Long locationId
+            @RequestParam(required = false) Long locationId,
+
+            @Parameter(description = "Only products with at least one item that is currently not booked")
+            @RequestParam(required = false) Boolean available,
+
+            @Parameter(description = "Filter by active flag (inactive products are shown greyed out)")
+            @RequestParam(required = false) Boolean active,
+
+            @Parameter(description = "Page number (0-based)")
+            @RequestParam(required = false) Integer page,
+
+            @Parameter(description = "Page size (1-200), default 50 when page is given")
+            @RequestParam(required = false) Integer size,
+
+            @Parameter(description = "Sort property id, name, price or createdAt with optional direction, e.g. price,desc. " +
+                    "Default: relevance for searches, otherwise id")
+            @RequestParam(required = false) String sort,
+
+            WebRequest webRequest
     ) {
-        List<Product> products;
-
-        // Priorisierung: search > categoryId > locationId > all
-        if (search != null && !search.isBlank()) {
-            products = productService.fullTextSearch(search);
-        } else if (categoryId != null) {
-            products = productService.getProductsByCategory(categoryId);
-        } else if (locationId != null) {
-            products = productService.getProductsByLocation(locationId);
-        } else {
-            products = productService.getAllProducts();
+        ChangeVersionService.Version version = changeVersionService.forCatalog();
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
         }
 
-        return ResponseEntity.ok(productMapper.toDTOList(products));
+        ProductFilter filter = new ProductFilter(search, categoryId, locationId, available, active);
+        Slice<Product> products = productService.findProducts(filter, page, size, sort);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (products.hasNext()) {
+            response.header(NEXT_PAGE_HEADER, String.valueOf(products.getNumber() + 1));
+        }
+        List<Product> content = products.getContent();
+        return response.body(productMapper.toDTOList(content, productService.getItemCounts(content)));
     }
 
     @Operation(
@@ -87,7 +121,9 @@ public class ProductController {
     public ResponseEntity<ProductDTO> getProductById(
             @Parameter(description = "ID of the product to retrieve") @PathVariable Long id) {
         Product product = productService.getProductById(id);
-        return ResponseEntity.ok(productMapper.toDTO(product));
+        ProductItemCounts counts = productService.getItemCounts(List.of(product))
+                .getOrDefault(id, ProductItemCounts.empty(id));
+        return ResponseEntity.ok(productMapper.toDTO(product, counts));
     }
 
     @Operation(
@@ -133,6 +169,25 @@ public class ProductController {
         return ResponseEntity.ok(periods);
     }
 
+    @Operation(
+            summary = "Get the next available slot of several products",
+            description = "Returns for each product the earliest window in which requiredQuantity items are free for the given ISO-8601 duration. " +
+                    "Products are taken from productIds, otherwise from categoryId, otherwise all active products."
+    )
+    @ApiResponse(responseCode = "200", description = "Next available slots retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid quantity or duration, or more than 200 product IDs")
+    @GetMapping("/next-available")
+    public ResponseEntity<List<NextAvailableSlotDTO>> getNextAvailableSlots(
+            @Parameter(description = "Product IDs (max. 200, duplicates are ignored)") @RequestParam(required = false) List<Long> productIds,
+            @Parameter(description = "Category ID (if no product IDs are given)") @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "1") int requiredQuantity,
+            @Parameter(description = "Requested loan duration (ISO-8601)", example = "P2D")
+            @RequestParam(defaultValue = "P1D") Duration duration
+    ) {
+        List<Long> ids = productService.resolveProductIds(productIds, categoryId);
+        return ResponseEntity.ok(productService.getNextAvailableSlots(ids, requiredQuantity, duration));
+    }
+
     @Operation(
             summary = "Create a new product",
             description = "Creates a new product with the given data"
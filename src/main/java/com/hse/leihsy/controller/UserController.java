@@ -17,8 +17,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import com.hse.leihsy.model.dto.BookingDTO;
 import com.hse.leihsy.service.BookingService;
+import com.hse.leihsy.service.ChangeVersionService;
 import org.springframework.web.bind.annotation.RequestParam;
 import io.swagger.v3.oas.annotations.Parameter;
 
@@ -33,11 +35,14 @@ public class UserController {
     private final UserService userService;
     private final BookingService bookingService;
     private final StudentGroupService studentGroupService;
+    private final ChangeVersionService changeVersionService;
 
-    public UserController(UserService userService, BookingService bookingService, StudentGroupService studentGroupService) {
+    public UserController(UserService userService, BookingService bookingService, StudentGroupService studentGroupService,
+                          ChangeVersionService changeVersionService) {
         this.userService = userService;
         this.bookingService = bookingService;
         this.studentGroupService = studentGroupService;
+        this.changeVersionService = changeVersionService;
     }
 
     /**
@@ -97,8 +102,27 @@ public class UserController {
     public ResponseEntity<List<BookingDTO>> getUserBookings(
             @Parameter(description = "ID of the user") @PathVariable Long userId,
             @Parameter(description = "Include soft-deleted bookings")
-            @RequestParam(required = false, defaultValue = "true") boolean deleted
+            @RequestParam(required = false, defaultValue = "true") boolean deleted,
+
+            @Parameter(description = "Cursor aus dem Header " + BookingController.NEXT_CURSOR_HEADER + " der vorherigen Seite")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Seitengroesse (1-200). Aktiviert Keyset-Pagination nach createdAt absteigend")
+            @RequestParam(required = false) Integer limit,
+
+            WebRequest webRequest
     ) {
+        ChangeVersionService.Version version = changeVersionService.forUser(userId);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+
+        if (cursor != null || limit != null) {
+            BookingService.BookingPage page = bookingService.getBookingsByUserIdPage(
+                    userId, deleted, cursor, limit != null ? limit : BookingService.DEFAULT_PAGE_SIZE);
+            return BookingController.toPagedResponse(page);
+        }
+
         List<BookingDTO> bookings = bookingService.getBookingsByUserId(userId, deleted);
         return ResponseEntity.ok(bookings);
     }
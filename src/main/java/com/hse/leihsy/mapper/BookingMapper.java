@@ -28,7 +28,7 @@ public interface BookingMapper {
     @Mapping(target = "proposalByName", source = "proposalBy.name")
     @Mapping(target = "urgent", ignore = true) // Wird im AfterMapping berechnet
     @Mapping(target = "overdue", ignore = true) // Ignorieren während main mapping
-    @Mapping(target = "status", expression = "java(booking.calculateStatus().name())")
+    @Mapping(target = "status", expression = "java(booking.getEffectiveStatus().name())")
     @Mapping(source = "studentGroup.id", target = "groupId")
     @Mapping(source = "studentGroup.name", target = "groupName")
     @Mapping(target = "groupMemberNames", expression = "java(mapGroupMemberNames(booking.getStudentGroup()))")
@@ -3,12 +3,15 @@ package com.hse.leihsy.mapper;
 import com.hse.leihsy.model.dto.LocationDTO;
 import com.hse.leihsy.model.entity.Location;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.List;
 
 @Mapper(componentModel = "spring")
 public interface LocationMapper {
 
+    // itemCount wird im LocationController per gruppierter Query gesetzt
+    @Mapping(target = "itemCount", ignore = true)
     LocationDTO toDTO(Location location);
 
     List<LocationDTO> toDTOList(List<Location> locations);
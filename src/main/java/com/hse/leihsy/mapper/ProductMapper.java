@@ -1,6 +1,7 @@
 package com.hse.leihsy.mapper;
 
 import com.hse.leihsy.model.dto.ProductDTO;
+import com.hse.leihsy.model.dto.ProductItemCounts;
 import com.hse.leihsy.model.entity.Product;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -8,6 +9,7 @@ import org.mapstruct.Named;
 import com.hse.leihsy.model.dto.ProductRelationDTO;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Collections;
 import java.util.stream.Collectors;
 
@@ -24,6 +26,28 @@ public interface ProductMapper {
     ProductDTO toDTO(Product product);
 
     List<ProductDTO> toDTOList(List<Product> products);
+
+    /**
+     * Wie toDTO(Product), Item-Zaehler aber aus der gruppierten Abfrage statt aus Product.items
+     */
+    @Mapping(target = "id", source = "product.id")
+    @Mapping(target = "createdAt", source = "product.createdAt")
+    @Mapping(target = "updatedAt", source = "product.updatedAt")
+    @Mapping(target = "categoryId", source = "product.category.id")
+    @Mapping(target = "categoryName", source = "product.category.name")
+    @Mapping(target = "locationId", source = "product.location.id")
+    @Mapping(target = "locationRoomNr", source = "product.location.roomNr")
+    @Mapping(target = "availableItems", source = "counts.availableItems")
+    @Mapping(target = "totalItems", source = "counts.totalItems")
+    @Mapping(target = "relatedItems", expression = "java(mapRelatedItems(product))")
+    ProductDTO toDTO(Product product, ProductItemCounts counts);
+
+    default List<ProductDTO> toDTOList(List<Product> products, Map<Long, ProductItemCounts> counts) {
+        return products.stream()
+                .map(product -> toDTO(product, counts.getOrDefault(product.getId(), ProductItemCounts.empty(product.getId()))))
+                .toList();
+    }
+
     default List<ProductRelationDTO> mapRelatedItems(Product product) {
         if (product.getRecommendedSets() == null) {
             return Collections.emptyList();
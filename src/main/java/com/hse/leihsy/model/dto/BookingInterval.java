@@ -0,0 +1,9 @@
+package com.hse.leihsy.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Belegungs-Intervall einer aktiven Buchung (Projektion fuer den Verfuegbarkeits-Index)
+ */
+public record BookingInterval(Long bookingId, Long itemId, LocalDateTime startDate, LocalDateTime endDate) {
+}
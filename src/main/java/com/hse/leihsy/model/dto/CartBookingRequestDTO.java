@@ -0,0 +1,56 @@
+package com.hse.leihsy.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO fuer eine Warenkorb-Buchung: mehrere Products fuer denselben Zeitraum, alles oder nichts.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Anfrage zum Buchen mehrerer Produkte fuer denselben Zeitraum")
+public class CartBookingRequestDTO {
+
+    @NotEmpty(message = "Mindestens eine Position ist erforderlich")
+    @Valid
+    @Schema(description = "Positionen des Warenkorbs", requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<Line> lines;
+
+    @NotNull(message = "Startdatum ist erforderlich")
+    @Schema(description = "Gewuenschter Ausleihbeginn", example = "2025-12-10T09:00:00", requiredMode = Schema.RequiredMode.REQUIRED)
+    private LocalDateTime startDate;
+
+    @NotNull(message = "Enddatum ist erforderlich")
+    @Schema(description = "Gewuenschtes Ausleihende", example = "2025-12-15T17:00:00", requiredMode = Schema.RequiredMode.REQUIRED)
+    private LocalDateTime endDate;
+
+    @Schema(description = "Optionale Nachricht an die Verleiher", example = "Brauche es fuer Projekt")
+    private String message;
+
+    @Schema(description = "Optionale Gruppen-ID fuer Gruppenbuchungen. NULL = Einzelbuchung", example = "5")
+    private Long groupId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Position im Warenkorb")
+    public static class Line {
+
+        @NotNull(message = "Product ist erforderlich")
+        @Schema(description = "ID des Produkts", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+        private Long productId;
+
+        @Min(value = 1, message = "Anzahl muss mindestens 1 sein")
+        @Schema(description = "Gewuenschte Anzahl", example = "2")
+        private int quantity = 1;
+    }
+}
@@ -0,0 +1,13 @@
+package com.hse.leihsy.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aenderungsstand einer Tabelle bzw. eines Ausschnitts: juengstes updatedAt und Zeilenanzahl.
+ * Jedes Update (inkl. Soft-Delete) aendert lastModified, Inserts/Hard-Deletes aendern count.
+ */
+public record ChangeVersion(LocalDateTime lastModified, long count) {
+
+    // Konstante fuer JPQL-Konstruktor-Ausdruecke in den Repositories
+    public static final String SELECT = "SELECT new com.hse.leihsy.model.dto.ChangeVersion(MAX(e.updatedAt), COUNT(e)) ";
+}
@@ -0,0 +1,8 @@
+package com.hse.leihsy.model.dto;
+
+/**
+ * Anzahl je Gruppe (z.B. Products je Kategorie, Items je Location) aus einer GROUP BY-Query.
+ * Gruppen ohne Eintraege fehlen im Ergebnis und zaehlen als 0.
+ */
+public record GroupCount(Long id, long count) {
+}
@@ -0,0 +1,7 @@
+package com.hse.leihsy.model.dto;
+
+/**
+ * Zuordnung eines aktiven Items zu seinem Product (Projektion fuer den Verfuegbarkeits-Index)
+ */
+public record ItemAssignment(Long itemId, Long productId) {
+}
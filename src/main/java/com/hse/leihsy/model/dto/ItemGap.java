@@ -0,0 +1,10 @@
+package com.hse.leihsy.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Freie Luecke eines Items um einen angefragten Zeitraum (Projektion fuer die Item-Auswahl).
+ * previousEnd: Ende der letzten aktiven Buchung davor, nextStart: Beginn der naechsten danach (jeweils null wenn keine)
+ */
+public record ItemGap(Long itemId, LocalDateTime previousEnd, LocalDateTime nextStart) {
+}
@@ -0,0 +1,29 @@
+package com.hse.leihsy.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Dashboard-Zusammenfassung eines Verleihers (offene Buchungen nach Phase).
+ * Ueberfaellige Buchungen sind Teil von active (BookingDTO.overdue = true),
+ * overdueIds verweist nur auf sie.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LenderDashboardDTO {
+    private int pendingCount;
+    private int upcomingCount;
+    private int activeCount;
+    private int overdueCount;
+
+    private List<BookingDTO> pending;   // Anfragen ohne Abholvorschlag, neueste zuerst
+    private List<BookingDTO> upcoming;  // Abholung bestaetigt, naechste zuerst
+    private List<BookingDTO> active;    // Ausgeliehen, Rueckgabe naechste zuerst
+    private List<Long> overdueIds;      // Teilmenge von active
+}
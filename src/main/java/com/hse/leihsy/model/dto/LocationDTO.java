@@ -8,6 +8,7 @@ import lombok.*;
  */
 @Data
 @NoArgsConstructor
+@AllArgsConstructor
 @Builder
 public class LocationDTO {
 
@@ -15,6 +16,7 @@ public class LocationDTO {
     private String roomNr;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long itemCount;
 
     public LocationDTO(Long id, String roomNr, LocalDateTime createdAt, LocalDateTime updatedAt) {
         this.id = id;
@@ -0,0 +1,27 @@
+package com.hse.leihsy.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fruehester freier Zeitraum eines Products fuer Menge und Dauer ("verfuegbar ab" im Katalog).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Earliest window in which the requested quantity of a product is free for the requested duration")
+public class NextAvailableSlotDTO {
+
+    @Schema(description = "Product ID", example = "1")
+    private Long productId;
+
+    @Schema(description = "Start of the earliest free window, null if none within the horizon", example = "2025-12-10T09:00:00")
+    private LocalDateTime availableFrom;
+
+    @Schema(description = "End of that free window, null if open-ended", example = "2025-12-20T09:00:00")
+    private LocalDateTime availableUntil;
+}
@@ -0,0 +1,9 @@
+package com.hse.leihsy.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Belegungs-Intervall einer aktiven Buchung mit Product (Projektion fuer Verfuegbarkeit ueber mehrere Products)
+ */
+public record ProductBookingInterval(Long productId, LocalDateTime startDate, LocalDateTime endDate) {
+}
@@ -0,0 +1,14 @@
+package com.hse.leihsy.model.dto;
+
+/**
+ * Filter fuer die Katalog-Liste. Alle gesetzten Felder werden per AND kombiniert, NULL = kein Filter.
+ *
+ * @param onlyAvailable nur Products mit mindestens einem aktuell verfuegbaren Item
+ * @param active        nur aktive (true) bzw. inaktive (false) Products
+ */
+public record ProductFilter(String search, Long categoryId, Long locationId, Boolean onlyAvailable, Boolean active) {
+
+    public static ProductFilter none() {
+        return new ProductFilter(null, null, null, null, null);
+    }
+}
@@ -0,0 +1,12 @@
+package com.hse.leihsy.model.dto;
+
+/**
+ * Item-Zaehler eines Products fuer Katalog-Listen (ohne Items/Buchungen zu laden).
+ * Verfuegbar = Item ohne aktive Buchung (wie Item.isAvailable()).
+ */
+public record ProductItemCounts(Long productId, long totalItems, long availableItems) {
+
+    public static ProductItemCounts empty(Long productId) {
+        return new ProductItemCounts(productId, 0, 0);
+    }
+}
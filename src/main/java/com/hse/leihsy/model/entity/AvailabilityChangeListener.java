@@ -0,0 +1,32 @@
+package com.hse.leihsy.model.entity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA-Entity-Listener fuer Booking und Item: veroeffentlicht jede Aenderung als {@link AvailabilityChangedEvent}.
+ *
+ * Erfasst damit alle Schreibpfade (BookingService, Scheduler, Item-Verwaltung, Import),
+ * ohne dass das Entity-Paket Index oder Cache kennt. Verarbeitet wird das Event erst nach dem Commit.
+ */
+public class AvailabilityChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AvailabilityChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onSave(Object entity) {
+        eventPublisher.publishEvent(new AvailabilityChangedEvent(entity, false));
+    }
+
+    @PostRemove
+    void onRemove(Object entity) {
+        eventPublisher.publishEvent(new AvailabilityChangedEvent(entity, true));
+    }
+}
@@ -0,0 +1,7 @@
+package com.hse.leihsy.model.entity;
+
+/**
+ * Geaenderte Booking oder geaendertes Item (removed = true bei physischem Loeschen)
+ */
+public record AvailabilityChangedEvent(Object entity, boolean removed) {
+}
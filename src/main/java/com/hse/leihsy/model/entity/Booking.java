@@ -9,10 +9,36 @@ import lombok.*;
  * Bildet den kompletten Lebenszyklus einer Ausleihe ab:
  * PENDING -> CONFIRMED -> PICKED_UP -> RETURNED
  *
- * Status wird berechnet aus den Timestamp-Feldern
+ * Status wird aus den Timestamp-Feldern berechnet und bei jedem Persist/Update in der
+ * Spalte status gespeichert (Indizes mit lender_id/user_id fuer Status-Listen in db/migration V4).
+ * Zeitbasierte Uebergaenge (CANCELLED/EXPIRED) setzt der BookingScheduler.
+ *
+ * Fetch-Plan "Booking.withDetails" laedt alle Relationen, die der BookingMapper benoetigt,
+ * in derselben Query (verhindert N+1 bei Listen-Endpoints).
  */
 @Entity
+@EntityListeners(AvailabilityChangeListener.class)
 @Table(name = "bookings")
+@NamedEntityGraph(
+        name = Booking.GRAPH_WITH_DETAILS,
+        attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode("lender"),
+                @NamedAttributeNode("proposalBy"),
+                @NamedAttributeNode("studentGroup"),
+                @NamedAttributeNode("location"),
+                @NamedAttributeNode(value = "item", subgraph = "item")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "item", attributeNodes = {
+                        @NamedAttributeNode("location"),
+                        @NamedAttributeNode(value = "product", subgraph = "product")
+                }),
+                @NamedSubgraph(name = "product", attributeNodes = {
+                        @NamedAttributeNode("location")
+                })
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,6 +46,8 @@ import lombok.*;
 @Builder
 public class Booking extends BaseEntity {
 
+    public static final String GRAPH_WITH_DETAILS = "Booking.withDetails";
+
     /**
      * Optionale Nachricht vom Entleiher
      */
@@ -27,7 +55,7 @@ public class Booking extends BaseEntity {
     private String message;
 
     /**
-     * Status-String (wird berechnet, aber auch gespeichert fuer einfache Queries)
+     * Status-String (BookingStatus.name()), wird bei jedem Persist/Update synchronisiert
      */
     @Column(name = "status", length = 255)
     private String status;
@@ -133,8 +161,11 @@ public class Booking extends BaseEntity {
      * Berechnet den aktuellen Status basierend auf den Timestamp-Feldern.
      */
     public BookingStatus calculateStatus() {
-        // Geloescht/Abgelehnt
+        // Geloescht: automatisch storniert/abgelaufen (Scheduler) oder abgelehnt
         if (getDeletedAt() != null) {
+            if (BookingStatus.CANCELLED.name().equals(status) || BookingStatus.EXPIRED.name().equals(status)) {
+                return BookingStatus.valueOf(status);
+            }
             return BookingStatus.REJECTED;
         }
 
@@ -172,6 +203,59 @@ public class Booking extends BaseEntity {
         this.status = calculateStatus().name();
     }
 
+    /**
+     * Status fuer die Anzeige: gespeicherter Status, nur die zeitabhaengigen
+     * Zustaende PENDING/CONFIRMED werden neu berechnet (Scheduler laeuft stuendlich).
+     */
+    public BookingStatus getEffectiveStatus() {
+        if (status == null
+                || BookingStatus.PENDING.name().equals(status)
+                || BookingStatus.CONFIRMED.name().equals(status)) {
+            return calculateStatus();
+        }
+        return BookingStatus.valueOf(status);
+    }
+
+    // ========================================
+    // STATUS-UEBERGAENGE
+    // ========================================
+
+    /**
+     * Automatische Stornierung (PENDING ohne Reaktion des Verleihers)
+     */
+    public void markCancelled() {
+        setDeletedAt(LocalDateTime.now());
+        this.status = BookingStatus.CANCELLED.name();
+    }
+
+    /**
+     * Automatischer Ablauf (CONFIRMED ohne Abholung)
+     */
+    public void markExpired() {
+        setDeletedAt(LocalDateTime.now());
+        this.status = BookingStatus.EXPIRED.name();
+    }
+
+    /**
+     * Haelt die status-Spalte bei jedem Insert synchron mit den Timestamps
+     */
+    @Override
+    @PrePersist
+    protected void onCreate() {
+        super.onCreate();
+        updateStatus();
+    }
+
+    /**
+     * Haelt die status-Spalte bei jedem Update synchron mit den Timestamps
+     */
+    @Override
+    @PreUpdate
+    protected void onUpdate() {
+        super.onUpdate();
+        updateStatus();
+    }
+
     /**
      * Prueft ob diese Buchung zu einer Gruppe gehoert
      */
@@ -13,6 +13,7 @@ import lombok.*;
  * Items sind die konkreten Geräte die ausgeliehen werden.
  */
 @Entity
+@EntityListeners(AvailabilityChangeListener.class)
 @Table(name = "items")
 @Getter
 @Setter
@@ -5,6 +5,7 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 /**
  * Product Entity - Modell/Typ eines Gegenstandes.
@@ -17,11 +18,25 @@ import lombok.*;
  */
 @Entity
 @Table(name = "products")
+@BatchSize(size = 100)
+@NamedEntityGraph(
+        name = Product.GRAPH_WITH_DETAILS,
+        attributeNodes = {
+                @NamedAttributeNode("category"),
+                @NamedAttributeNode("location")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
 public class Product extends BaseEntity {
 
+    /**
+     * Fetch-Plan fuer Katalog-Listen: Kategorie und Raum per Join in derselben Query.
+     * Empfohlene Sets und deren Products werden per @BatchSize gesammelt nachgeladen.
+     */
+    public static final String GRAPH_WITH_DETAILS = "Product.withDetails";
+
     /**
      * ID aus InSy (Inventarsystem)
      */
@@ -98,6 +113,7 @@ public class Product extends BaseEntity {
      * Empfohlene Sets (andere Products die oft zusammen ausgeliehen werden)
      */
     @OneToMany(mappedBy = "parentProduct", fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private List<ProductSet> recommendedSets = new ArrayList<>();
 
     // Constructors
@@ -2,6 +2,7 @@ package com.hse.leihsy.model.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
@@ -51,8 +52,10 @@ public class StudentGroup extends BaseEntity {
     /**
      * Mitglieder der Gruppe (M:N Beziehung)
      * Der Ersteller ist automatisch auch Mitglied
+     * BatchSize: Mitglieder mehrerer Gruppen werden gesammelt nachgeladen (Booking-Listen)
      */
     @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @JoinTable(
             name = "student_group_members",
             joinColumns = @JoinColumn(name = "group_id"),
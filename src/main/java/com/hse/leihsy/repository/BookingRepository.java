@@ -1,39 +1,120 @@
 package com.hse.leihsy.repository;
 
+import com.hse.leihsy.model.dto.BookingInterval;
+import com.hse.leihsy.model.dto.ChangeVersion;
+import com.hse.leihsy.model.dto.ItemGap;
+import com.hse.leihsy.model.dto.ProductBookingInterval;
+import com.hse.leihsy.model.dto.timePeriodDTO;
 import com.hse.leihsy.model.entity.Booking;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    // Aenderungsstand je Scope fuer Conditional GET (ETag), ohne Entities zu laden
+    @Query(ChangeVersion.SELECT + "FROM Booking e WHERE e.lender.id = :lenderId")
+    ChangeVersion findChangeVersionByLenderId(@Param("lenderId") Long lenderId);
+
+    @Query(ChangeVersion.SELECT + "FROM Booking e WHERE e.user.id = :userId")
+    ChangeVersion findChangeVersionByUserId(@Param("userId") Long userId);
+
+    @Query(ChangeVersion.SELECT + "FROM Booking e WHERE e.studentGroup.id = :groupId")
+    ChangeVersion findChangeVersionByGroupId(@Param("groupId") Long groupId);
+
+    @Query(ChangeVersion.SELECT + "FROM Booking e")
+    ChangeVersion findChangeVersion();
+
+    // Keyset-Bedingung fuer Pagination ueber (createdAt, id) absteigend
+    String KEYSET_AFTER_CURSOR = "AND (b.createdAt < :cursorCreatedAt " +
+            "OR (b.createdAt = :cursorCreatedAt AND b.id < :cursorId)) ";
+    String KEYSET_ORDER = "ORDER BY b.createdAt DESC, b.id DESC";
+
+    // Zeilen pro Roundtrip beim Export (JDBC fetch size)
+    String EXPORT_FETCH_SIZE = "500";
+
+    // Alle Buchungen inkl. Relationen fuer den Mapper (Admin-Liste)
+    @Override
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    List<Booking> findAll();
+
+    // Alle Buchungen inkl. gelöschter als Stream fuer den Export (Cursor statt Ergebnisliste)
+    // Muss innerhalb einer Transaktion konsumiert und geschlossen werden.
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b ORDER BY b.id ASC")
+    Stream<Booking> streamAllForExport();
+
     // Buchungen eines Users (als Entleiher)
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND b.deletedAt IS NULL ORDER BY b.createdAt DESC")
     List<Booking> findByUserId(@Param("userId") Long userId);
 
     // Gelöschte/Stornierte Buchungen eines Users (als Entleiher)
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND b.deletedAt IS NOT NULL ORDER BY b.deletedAt DESC")
     List<Booking> findDeletedByUserId(@Param("userId") Long userId);
 
+    // Alle Buchungen eines Users inkl. gelöschter/stornierter
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId ORDER BY b.createdAt DESC")
+    List<Booking> findByUserIdIncludingDeleted(@Param("userId") Long userId);
+
     // Buchungen für einen Verleiher
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.lender.id = :lenderId AND b.deletedAt IS NULL ORDER BY b.createdAt DESC")
     List<Booking> findByLenderId(@Param("lenderId") Long lenderId);
 
+    // Alle Buchungen eines Verleihers inkl. gelöschter/stornierter
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.lender.id = :lenderId ORDER BY b.createdAt DESC")
+    List<Booking> findByLenderIdIncludingDeleted(@Param("lenderId") Long lenderId);
+
     // Offene Anfragen für einen Verleiher (PENDING = noch keine proposed_pickups)
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.lender.id = :lenderId " +
             "AND b.proposedPickups IS NULL " +
             "AND b.deletedAt IS NULL " +
             "ORDER BY b.createdAt DESC")
     List<Booking> findPendingByLenderId(@Param("lenderId") Long lenderId);
 
+    // Offene Buchungen eines Verleihers fuer das Dashboard in einer Query
+    // (ohne Abholvorschlag, CONFIRMED oder PICKED_UP)
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.lender.id = :lenderId " +
+            "AND b.deletedAt IS NULL " +
+            "AND (b.proposedPickups IS NULL OR b.status IN ('CONFIRMED', 'PICKED_UP'))")
+    List<Booking> findOpenByLenderId(@Param("lenderId") Long lenderId);
+
+    // PENDING-Buchungen eines Verleihers nach Status-Spalte (nicht älter als threshold)
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.lender.id = :lenderId " +
+            "AND b.status = 'PENDING' " +
+            "AND b.createdAt >= :threshold " +
+            "ORDER BY b.createdAt DESC")
+    List<Booking> findAllPendingByLenderId(
+            @Param("lenderId") Long lenderId,
+            @Param("threshold") LocalDateTime threshold);
+
     // Offene Anfragen für einen Verleiher mit optionaler Filterung nach Item
     // (PENDING = keine proposed_pickups, optional itemId zur Eingrenzung)
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.lender.id = :lenderId " +
             "AND (:itemId IS NULL OR b.item.id = :itemId) " + // Optionaler Filter
             "AND b.proposedPickups IS NULL " +
@@ -52,11 +133,65 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findActiveByItemId(@Param("itemId") Long itemId);
 
     // Alle Buchungen eines Items (inkl. abgeschlossene, ohne gelöschte)
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.item.id = :itemId " +
             "AND b.deletedAt IS NULL " +
             "ORDER BY b.createdAt DESC")
     List<Booking> findByItemId(@Param("itemId") Long itemId);
 
+    // Aktive Belegungs-Intervalle aller Items eines Products im Zeitfenster (Verfuegbarkeits-Timeline)
+    // (nicht storniert, nicht zurueckgegeben, Item nicht geloescht)
+    @Query("SELECT new com.hse.leihsy.model.dto.timePeriodDTO(b.startDate, b.endDate) FROM Booking b " +
+            "WHERE b.item.product.id = :productId " +
+            "AND b.item.deletedAt IS NULL " +
+            "AND b.deletedAt IS NULL " +
+            "AND b.returnDate IS NULL " +
+            "AND b.endDate > :from " +
+            "AND b.startDate < :until")
+    List<timePeriodDTO> findActiveIntervalsByProductId(
+            @Param("productId") Long productId,
+            @Param("from") LocalDateTime from,
+            @Param("until") LocalDateTime until
+    );
+
+    // Aktive Belegungs-Intervalle mehrerer Products im Zeitfenster ("verfuegbar ab" fuer Katalog-Listen)
+    @Query("SELECT new com.hse.leihsy.model.dto.ProductBookingInterval(b.item.product.id, b.startDate, b.endDate) " +
+            "FROM Booking b " +
+            "WHERE b.item.product.id IN :productIds " +
+            "AND b.item.deletedAt IS NULL " +
+            "AND b.deletedAt IS NULL " +
+            "AND b.returnDate IS NULL " +
+            "AND b.endDate > :from " +
+            "AND b.startDate < :until")
+    List<ProductBookingInterval> findActiveIntervalsByProductIds(
+            @Param("productIds") Collection<Long> productIds,
+            @Param("from") LocalDateTime from,
+            @Param("until") LocalDateTime until
+    );
+
+    // Alle aktiven Belegungs-Intervalle (Laden/Abgleich des Verfuegbarkeits-Index)
+    @Query("SELECT new com.hse.leihsy.model.dto.BookingInterval(b.id, b.item.id, b.startDate, b.endDate) " +
+            "FROM Booking b " +
+            "WHERE b.item.deletedAt IS NULL " +
+            "AND b.deletedAt IS NULL " +
+            "AND b.returnDate IS NULL")
+    List<BookingInterval> findAllActiveIntervals();
+
+    // Angrenzende aktive Buchungen je Item um einen Zeitraum (Best-Fit-Auswahl in der Reservierung)
+    // Items ohne aktive Buchungen fehlen im Ergebnis
+    @Query("SELECT new com.hse.leihsy.model.dto.ItemGap(b.item.id, " +
+            "MAX(CASE WHEN b.endDate < :startDate THEN b.endDate END), " +
+            "MIN(CASE WHEN b.startDate > :endDate THEN b.startDate END)) " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.deletedAt IS NULL " +
+            "AND b.returnDate IS NULL " +
+            "GROUP BY b.item.id")
+    List<ItemGap> findGapsAround(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
     // Buchungen die einen Zeitraum überlappen
     @Query("SELECT b FROM Booking b WHERE b.item.id = :itemId " +
             "AND b.startDate <= :endDate AND b.endDate >= :startDate " +
@@ -68,28 +203,28 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("endDate") LocalDateTime endDate);
 
     // Buchungen die bald ablaufen (Erinnerung) - für Email-Reminder
-    @Query("SELECT b FROM Booking b WHERE b.endDate BETWEEN :now AND :reminderDate " +
-            "AND b.returnDate IS NULL " +
-            "AND b.distributionDate IS NOT NULL " +
-            "AND b.deletedAt IS NULL")
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.status = 'PICKED_UP' " +
+            "AND b.endDate BETWEEN :now AND :reminderDate")
     List<Booking> findDueSoon(
             @Param("now") LocalDateTime now,
             @Param("reminderDate") LocalDateTime reminderDate);
 
     // Überfällige Buchungen
-    @Query("SELECT b FROM Booking b WHERE b.endDate < :now " +
-            "AND b.returnDate IS NULL " +
-            "AND b.distributionDate IS NOT NULL " +
-            "AND b.deletedAt IS NULL")
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.status = 'PICKED_UP' " +
+            "AND b.endDate < :now")
     List<Booking> findOverdue(@Param("now") LocalDateTime now);
 
     // Buchungen die länger als 24h PENDING sind (für Auto-Cancel Cronjob)
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.createdAt < :threshold " +
             "AND b.proposedPickups IS NULL " +
             "AND b.deletedAt IS NULL")
     List<Booking> findPendingOlderThan(@Param("threshold") LocalDateTime threshold);
 
     // Buchungen die länger als 24h CONFIRMED sind ohne Abholung (für Auto-Expire Cronjob)
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.confirmedPickup < :threshold " +
             "AND b.distributionDate IS NULL " +
             "AND b.deletedAt IS NULL")
@@ -98,29 +233,26 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     // Bevorstehende Buchungen eines Verleihers
     // (CONFIRMED = Abholung bestätigt, aber noch nicht abgeholt)
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.lender.id = :lenderId " +
-            "AND b.confirmedPickup IS NOT NULL " +
-            "AND b.distributionDate IS NULL " +
-            "AND b.deletedAt IS NULL " +
+            "AND b.status = 'CONFIRMED' " +
             "ORDER BY b.confirmedPickup ASC") // Sortierung: Nächste Abholung zuerst
     List<Booking> findUpcomingByLenderId(@Param("lenderId") Long lenderId);
 
     // Aktive Buchungen eines Verleihers
     // (Bereits abgeholt, aber noch nicht zurückgegeben)
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.lender.id = :lenderId " +
-            "AND b.distributionDate IS NOT NULL " +
-            "AND b.returnDate IS NULL " +
-            "AND b.deletedAt IS NULL " +
+            "AND b.status = 'PICKED_UP' " +
             "ORDER BY b.endDate ASC") // Sortierung: Nächstes Rückgabedatum zuerst
     List<Booking> findActiveByLenderId(@Param("lenderId") Long lenderId);
 
     // Überfällige Buchungen eines Verleihers
     // (Subset der aktiven Buchungen mit überschrittenem Enddatum)
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.lender.id = :lenderId " +
-            "AND b.distributionDate IS NOT NULL " +
-            "AND b.returnDate IS NULL " +
+            "AND b.status = 'PICKED_UP' " +
             "AND b.endDate < :now " +
-            "AND b.deletedAt IS NULL " +
             "ORDER BY b.endDate ASC")
     List<Booking> findOverdueByLenderId(
             @Param("lenderId") Long lenderId,
@@ -128,67 +260,120 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     );
 
 
-    // Alle Bookings nach berechnetem Status
-    // PENDING: Noch keine proposedPickups UND < 24h alt
-    @Query("SELECT b FROM Booking b WHERE b.proposedPickups IS NULL " +
-            "AND b.confirmedPickup IS NULL " +
-            "AND b.distributionDate IS NULL " +
-            "AND b.returnDate IS NULL " +
-            "AND b.deletedAt IS NULL " +
-            "AND b.createdAt > :threshold " +  // NEU: Nicht älter als 24h
+    // Alle Bookings nach Status (Status-Spalte, siehe Booking.calculateStatus())
+    // Zeitabhaengige Uebergaenge werden ueber threshold abgebildet, bis der Scheduler sie persistiert.
+
+    // PENDING: Status PENDING UND < 24h alt
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.status = 'PENDING' " +
+            "AND b.createdAt >= :threshold " +
             "ORDER BY b.createdAt DESC")
     List<Booking> findAllPending(@Param("threshold") LocalDateTime threshold);
 
-    // CANCELLED: > 24h alt, noch nicht bestätigt
-    @Query("SELECT b FROM Booking b WHERE b.proposedPickups IS NULL " +
-            "AND b.confirmedPickup IS NULL " +
-            "AND b.distributionDate IS NULL " +
-            "AND b.returnDate IS NULL " +
-            "AND b.deletedAt IS NULL " +
-            "AND b.createdAt <= :threshold " +  // Älter als 24h
+    // CANCELLED: automatisch storniert oder PENDING und > 24h alt
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.status = 'CANCELLED' " +
+            "OR (b.status = 'PENDING' AND b.createdAt < :threshold) " +
             "ORDER BY b.createdAt DESC")
     List<Booking> findAllCancelled(@Param("threshold") LocalDateTime threshold);
 
-    // EXPIRED: confirmedPickup > 24h alt, aber nicht abgeholt
-    @Query("SELECT b FROM Booking b WHERE b.confirmedPickup IS NOT NULL " +
-            "AND b.confirmedPickup < :threshold " +  // confirmedPickup > 24h alt
-            "AND b.distributionDate IS NULL " +
-            "AND b.returnDate IS NULL " +
-            "AND b.deletedAt IS NULL " +
+    // EXPIRED: abgelaufen oder confirmedPickup > 24h alt, aber nicht abgeholt
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.status = 'EXPIRED' " +
+            "OR (b.status = 'CONFIRMED' AND b.confirmedPickup < :threshold) " +
             "ORDER BY b.createdAt DESC")
     List<Booking> findAllExpired(@Param("threshold") LocalDateTime threshold);
 
-    // CONFIRMED: confirmedPickup gesetzt, < 24h alt, nicht abgeholt
-    @Query("SELECT b FROM Booking b WHERE b.confirmedPickup IS NOT NULL " +
-            "AND b.confirmedPickup >= :threshold " +  // confirmedPickup < 24h alt
-            "AND b.distributionDate IS NULL " +
-            "AND b.returnDate IS NULL " +
-            "AND b.deletedAt IS NULL " +
+    // CONFIRMED: confirmedPickup < 24h alt, nicht abgeholt
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.status = 'CONFIRMED' " +
+            "AND b.confirmedPickup >= :threshold " +
             "ORDER BY b.createdAt DESC")
     List<Booking> findAllConfirmed(@Param("threshold") LocalDateTime threshold);
 
     // PICKED_UP: Ausgegeben, aber noch nicht zurück
-    @Query("SELECT b FROM Booking b WHERE b.distributionDate IS NOT NULL " +
-            "AND b.returnDate IS NULL " +
-            "AND b.deletedAt IS NULL " +
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.status = 'PICKED_UP' " +
             "ORDER BY b.createdAt DESC")
     List<Booking> findAllPickedUp();
 
     // RETURNED: Zurückgegeben
-    @Query("SELECT b FROM Booking b WHERE b.returnDate IS NOT NULL " +
-            "AND b.deletedAt IS NULL " +
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.status = 'RETURNED' " +
             "ORDER BY b.createdAt DESC")
     List<Booking> findAllReturned();
 
-    // REJECTED: Soft-deleted
-    @Query("SELECT b FROM Booking b WHERE b.deletedAt IS NOT NULL " +
+    // REJECTED: Alle geloeschten Bookings wie bisher (deletedAt IS NOT NULL), also abgelehnt,
+    // automatisch storniert und abgelaufen
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.status IN ('REJECTED', 'CANCELLED', 'EXPIRED') " +
             "ORDER BY b.createdAt DESC")
     List<Booking> findAllRejected();
 
     // Alle aktiven Bookings (ohne gelöschte)
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.deletedAt IS NULL ORDER BY b.createdAt DESC")
     List<Booking> findAllActive();
 
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.studentGroup.id = :groupId AND b.deletedAt IS NULL")
     List<Booking> findByStudentGroupId(@Param("groupId") Long groupId);
-}
\ No newline at end of file
+
+    // ========================================
+    // KEYSET-PAGINATION (Seite N kostet so viel wie Seite 1)
+    // ========================================
+
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.deletedAt IS NULL " +
+            KEYSET_AFTER_CURSOR + KEYSET_ORDER)
+    List<Booking> findAllActivePage(
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
+
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.status = 'PICKED_UP' " +
+            KEYSET_AFTER_CURSOR + KEYSET_ORDER)
+    List<Booking> findAllPickedUpPage(
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
+
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.status = 'RETURNED' " +
+            KEYSET_AFTER_CURSOR + KEYSET_ORDER)
+    List<Booking> findAllReturnedPage(
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
+
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.status IN ('REJECTED', 'CANCELLED', 'EXPIRED') " +
+            KEYSET_AFTER_CURSOR + KEYSET_ORDER)
+    List<Booking> findAllRejectedPage(
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
+
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.lender.id = :lenderId " +
+            "AND (:includeDeleted = true OR b.deletedAt IS NULL) " +
+            KEYSET_AFTER_CURSOR + KEYSET_ORDER)
+    List<Booking> findByLenderIdPage(
+            @Param("lenderId") Long lenderId,
+            @Param("includeDeleted") boolean includeDeleted,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
+
+    @EntityGraph(Booking.GRAPH_WITH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId " +
+            "AND (:includeDeleted = true OR b.deletedAt IS NULL) " +
+            KEYSET_AFTER_CURSOR + KEYSET_ORDER)
+    List<Booking> findByUserIdPage(
+            @Param("userId") Long userId,
+            @Param("includeDeleted") boolean includeDeleted,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
+}
@@ -1,5 +1,6 @@
 package com.hse.leihsy.repository;
 
+import com.hse.leihsy.model.dto.ChangeVersion;
 import com.hse.leihsy.model.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -12,6 +13,10 @@ import java.util.Optional;
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+    // Aenderungsstand fuer Conditional GET (ETag), ohne Entities zu laden
+    @Query(ChangeVersion.SELECT + "FROM Category e")
+    ChangeVersion findChangeVersion();
+
     @Query("SELECT c FROM Category c WHERE c.deletedAt IS NULL")
     List<Category> findAllActive();
 
@@ -1,17 +1,30 @@
 package com.hse.leihsy.repository;
 
+import com.hse.leihsy.model.dto.ChangeVersion;
+import com.hse.leihsy.model.dto.ItemAssignment;
+import com.hse.leihsy.model.dto.GroupCount;
+import com.hse.leihsy.model.dto.ProductItemCounts;
 import com.hse.leihsy.model.entity.Item;
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    // Aenderungsstand fuer Conditional GET (ETag), ohne Entities zu laden
+    @Query(ChangeVersion.SELECT + "FROM Item e")
+    ChangeVersion findChangeVersion();
+
     // Alle aktiven Items
     @Query("SELECT i FROM Item i WHERE i.deletedAt IS NULL")
     List<Item> findAllActive();
@@ -20,10 +33,54 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("SELECT i FROM Item i WHERE i.deletedAt IS NOT NULL")
     List<Item> findAllDeleted();
 
+    // Product-Zuordnung aller aktiven Items (Laden/Abgleich des Verfuegbarkeits-Index)
+    @Query("SELECT new com.hse.leihsy.model.dto.ItemAssignment(i.id, i.product.id) FROM Item i " +
+            "WHERE i.deletedAt IS NULL AND i.product IS NOT NULL")
+    List<ItemAssignment> findAllActiveAssignments();
+
     // Items eines Products
     @Query("SELECT i FROM Item i WHERE i.product.id = :productId AND i.deletedAt IS NULL")
     List<Item> findByProductId(@Param("productId") Long productId);
 
+    // Freie Items eines Products fuer einen Zeitraum
+    // (Anti-Join gegen ueberlappende aktive Buchungen, eine Query unabhaengig von der Item-Anzahl)
+    @Query("SELECT i FROM Item i WHERE i.product.id = :productId " +
+            "AND i.deletedAt IS NULL " +
+            "AND NOT EXISTS (SELECT b FROM Booking b WHERE b.item = i " +
+            "AND b.startDate <= :endDate AND b.endDate >= :startDate " +
+            "AND b.returnDate IS NULL " +
+            "AND b.deletedAt IS NULL) " +
+            "ORDER BY i.id ASC")
+    List<Item> findAvailableByProductId(
+            @Param("productId") Long productId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            Limit limit);
+
+    // Freie Items mehrerer Products fuer einen Zeitraum (Warenkorb-Buchung, eine Query fuer alle Positionen)
+    @Query("SELECT i FROM Item i WHERE i.product.id IN :productIds " +
+            "AND i.deletedAt IS NULL " +
+            "AND NOT EXISTS (SELECT b FROM Booking b WHERE b.item = i " +
+            "AND b.startDate <= :endDate AND b.endDate >= :startDate " +
+            "AND b.returnDate IS NULL " +
+            "AND b.deletedAt IS NULL) " +
+            "ORDER BY i.id ASC")
+    List<Item> findAvailableByProductIds(
+            @Param("productIds") Collection<Long> productIds,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    // Items eines Products mit Schreibsperre (SELECT ... FOR UPDATE)
+    // Sortierung nach ID, damit parallele Transaktionen immer in derselben Reihenfolge sperren (keine Deadlocks)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.product.id = :productId AND i.deletedAt IS NULL ORDER BY i.id ASC")
+    List<Item> lockByProductId(@Param("productId") Long productId);
+
+    // Items mehrerer Products mit Schreibsperre, ebenfalls nach ID sortiert
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.product.id IN :productIds AND i.deletedAt IS NULL ORDER BY i.id ASC")
+    List<Item> lockByProductIds(@Param("productIds") Collection<Long> productIds);
+
     // Items nach Verleiher filtern
     @Query("SELECT i FROM Item i WHERE i.lender.id = :lenderId AND i.deletedAt IS NULL")
     List<Item> findByLenderId(@Param("lenderId") Long lenderId);
@@ -31,10 +88,25 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     // Item nach Inventarnummer
     Optional<Item> findByInvNumber(String invNumber);
 
+    // Gesamt- und verfuegbare Items je Product fuer eine ganze Katalog-Seite (eine gruppierte Query)
+    // Verfuegbar = keine aktive Buchung (nicht storniert, nicht zurueckgegeben), wie Item.isAvailable()
+    @Query("SELECT new com.hse.leihsy.model.dto.ProductItemCounts(i.product.id, " +
+            "COUNT(DISTINCT i.id), COUNT(DISTINCT i.id) - COUNT(DISTINCT b.item.id)) " +
+            "FROM Item i LEFT JOIN Booking b ON b.item = i " +
+            "AND b.deletedAt IS NULL AND b.returnDate IS NULL " +
+            "WHERE i.product.id IN :productIds AND i.deletedAt IS NULL " +
+            "GROUP BY i.product.id")
+    List<ProductItemCounts> countItemsByProductIds(@Param("productIds") Collection<Long> productIds);
+
     // Zaehle verfuegbare Items eines Products
     @Query("SELECT COUNT(i) FROM Item i WHERE i.product.id = :productId AND i.deletedAt IS NULL")
     Long countByProductId(@Param("productId") Long productId);
 
+    // Aktive Items je Standort fuer die Location-Liste (eine gruppierte Query statt COUNT je Location)
+    @Query("SELECT new com.hse.leihsy.model.dto.GroupCount(p.location.id, COUNT(i)) FROM Item i JOIN i.product p " +
+            "WHERE p.location IS NOT NULL AND i.deletedAt IS NULL GROUP BY p.location.id")
+    List<GroupCount> countActiveGroupedByLocation();
+
     // Zaehlt alle aktiven Items an einem bestimmten Standort
     @Query("SELECT COUNT(i) FROM Item i WHERE i.product.location.id = :locationId AND i.deletedAt IS NULL")
     long countByProductLocationId(@Param("locationId") Long locationId);
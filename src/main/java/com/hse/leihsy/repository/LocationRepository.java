@@ -1,5 +1,6 @@
 package com.hse.leihsy.repository;
 
+import com.hse.leihsy.model.dto.ChangeVersion;
 import com.hse.leihsy.model.entity.Location;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -11,6 +12,10 @@ import java.util.Optional;
 @Repository
 public interface LocationRepository extends JpaRepository<Location, Long> {
 
+    // Aenderungsstand fuer Conditional GET (ETag), ohne Entities zu laden
+    @Query(ChangeVersion.SELECT + "FROM Location e")
+    ChangeVersion findChangeVersion();
+
     @Query("SELECT l FROM Location l WHERE l.deletedAt IS NULL")
     List<Location> findAllActive();
 
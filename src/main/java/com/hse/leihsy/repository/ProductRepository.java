@@ -1,34 +1,67 @@
 package com.hse.leihsy.repository;
 
+import com.hse.leihsy.model.dto.ChangeVersion;
+import com.hse.leihsy.model.dto.GroupCount;
 import com.hse.leihsy.model.entity.Product;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
+    // Aenderungsstand fuer Conditional GET (ETag), ohne Entities zu laden
+    @Query(ChangeVersion.SELECT + "FROM Product e")
+    ChangeVersion findChangeVersion();
+
+    @EntityGraph(Product.GRAPH_WITH_DETAILS)
     @Query("SELECT p FROM Product p WHERE p.deletedAt IS NULL ORDER BY p.id ASC")
     List<Product> findAllActive();
 
+    // Aktive Products zu Treffern des Suchindex
+    @EntityGraph(Product.GRAPH_WITH_DETAILS)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids AND p.deletedAt IS NULL")
+    List<Product> findActiveByIds(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(Product.GRAPH_WITH_DETAILS)
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.deletedAt IS NULL")
     List<Product> findByCategoryId(@Param("categoryId") Long categoryId);
 
+    @EntityGraph(Product.GRAPH_WITH_DETAILS)
     @Query("SELECT p FROM Product p WHERE p.location.id = :locationId AND p.deletedAt IS NULL")
     List<Product> findByLocationId(@Param("locationId") Long locationId);
 
+    @EntityGraph(Product.GRAPH_WITH_DETAILS)
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) AND p.deletedAt IS NULL")
     List<Product> searchByName(@Param("search") String search);
 
+    @EntityGraph(Product.GRAPH_WITH_DETAILS)
     @Query("SELECT p FROM Product p WHERE " +
             "(LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%'))) " +
             "AND p.deletedAt IS NULL")
     List<Product> fullTextSearch(@Param("search") String search);
 
+    // IDs aller aktiven Products, optional einer Kategorie (ohne Entities zu laden)
+    @Query("SELECT p.id FROM Product p WHERE p.deletedAt IS NULL " +
+            "AND (:categoryId IS NULL OR p.category.id = :categoryId) ORDER BY p.id ASC")
+    List<Long> findActiveIds(@Param("categoryId") Long categoryId);
+
+    // Aktive Products je Kategorie fuer die Kategorie-Liste (eine gruppierte Query statt COUNT je Kategorie)
+    @Query("SELECT new com.hse.leihsy.model.dto.GroupCount(p.category.id, COUNT(p)) FROM Product p " +
+            "WHERE p.category IS NOT NULL AND p.deletedAt IS NULL GROUP BY p.category.id")
+    List<GroupCount> countActiveGroupedByCategory();
+
+    // Alle von aktiven Products referenzierten Bild-URLs in einer Abfrage (Abgleich fuer ImageGarbageCollector)
+    @Query("SELECT DISTINCT p.imageUrl FROM Product p WHERE p.imageUrl IS NOT NULL AND p.deletedAt IS NULL")
+    List<String> findReferencedImageUrls();
+
     // Zaehlt alle aktiven Products in einer bestimmten Kategorie
     @Query("SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId AND p.deletedAt IS NULL")
     long countByCategoryId(@Param("categoryId") Long categoryId);
@@ -1,5 +1,6 @@
 package com.hse.leihsy.repository;
 
+import com.hse.leihsy.model.dto.ChangeVersion;
 import com.hse.leihsy.model.entity.ProductSet;
 import com.hse.leihsy.model.entity.ProductSetId;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -13,6 +14,10 @@ import java.util.List;
 @Repository
 public interface ProductSetRepository extends JpaRepository<ProductSet, ProductSetId> {
 
+    // Aenderungsstand fuer Conditional GET (ETag), ohne Entities zu laden
+    @Query(ChangeVersion.SELECT + "FROM ProductSet e")
+    ChangeVersion findChangeVersion();
+
 @Query("SELECT ps.childProduct FROM ProductSet ps WHERE ps.parentProduct.id = :productId AND ps.deletedAt IS NULL")
     List<com.hse.leihsy.model.entity.Product> findRecommendedProducts(@Param("productId") Long productId);
 
@@ -0,0 +1,75 @@
+package com.hse.leihsy.repository;
+
+import com.hse.leihsy.model.entity.Booking;
+import com.hse.leihsy.model.entity.Item;
+import com.hse.leihsy.model.entity.Product;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Kombinierbare Filter fuer den Katalog (ProductRepository ist JpaSpecificationExecutor).
+ * Alle Filter werden per AND zu einer einzigen Query zusammengesetzt.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    // Nicht geloeschte Products
+    public static Specification<Product> notDeleted() {
+        return (root, query, cb) -> cb.isNull(root.get("deletedAt"));
+    }
+
+    public static Specification<Product> hasActiveFlag(boolean active) {
+        return (root, query, cb) -> active
+                ? cb.or(cb.isTrue(root.get("isActive")), cb.isNull(root.get("isActive")))
+                : cb.isFalse(root.get("isActive"));
+    }
+
+    public static Specification<Product> inCategory(Long categoryId) {
+        return (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId);
+    }
+
+    public static Specification<Product> atLocation(Long locationId) {
+        return (root, query, cb) -> cb.equal(root.get("location").get("id"), locationId);
+    }
+
+    // Suchbegriff in Name oder Beschreibung (LIKE, solange der Suchindex nicht geladen ist)
+    public static Specification<Product> nameOrDescriptionContains(String search) {
+        return (root, query, cb) -> {
+            String pattern = "%" + search.toLowerCase() + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.get("name")), pattern),
+                    cb.like(cb.lower(root.get("description")), pattern));
+        };
+    }
+
+    // Treffer des Suchindex (begrenzte Anzahl, die Relevanz-Reihenfolge stellt ProductService her)
+    public static Specification<Product> idIn(Collection<Long> productIds) {
+        return (root, query, cb) -> root.get("id").in(productIds);
+    }
+
+    // Mindestens ein Item ohne aktive Buchung (wie Item.isAvailable() und ProductItemCounts)
+    public static Specification<Product> hasAvailableItem() {
+        return (root, query, cb) -> {
+            Subquery<Long> items = query.subquery(Long.class);
+            Root<Item> item = items.from(Item.class);
+
+            Subquery<Long> activeBookings = query.subquery(Long.class);
+            Root<Booking> booking = activeBookings.from(Booking.class);
+            activeBookings.select(booking.get("id")).where(
+                    cb.equal(booking.get("item"), item),
+                    cb.isNull(booking.get("deletedAt")),
+                    cb.isNull(booking.get("returnDate")));
+
+            items.select(item.get("id")).where(
+                    cb.equal(item.get("product"), root),
+                    cb.isNull(item.get("deletedAt")),
+                    cb.not(cb.exists(activeBookings)));
+            return cb.exists(items);
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.hse.leihsy.repository;
 
+import com.hse.leihsy.model.dto.ChangeVersion;
 import com.hse.leihsy.model.entity.StudentGroup;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -15,6 +16,11 @@ import java.util.Optional;
 @Repository
 public interface StudentGroupRepository extends JpaRepository<StudentGroup, Long> {
 
+    // Aenderungsstand einer Gruppe inkl. Mitgliederanzahl fuer Conditional GET (ETag)
+    @Query("SELECT new com.hse.leihsy.model.dto.ChangeVersion(MAX(e.updatedAt), COUNT(m)) " +
+            "FROM StudentGroup e LEFT JOIN e.members m WHERE e.id = :groupId")
+    ChangeVersion findChangeVersionById(@Param("groupId") Long groupId);
+
     /**
      * Findet alle aktiven Gruppen (nicht geloescht)
      */
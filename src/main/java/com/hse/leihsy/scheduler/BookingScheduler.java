@@ -2,6 +2,9 @@ package com.hse.leihsy.scheduler;
 
 import com.hse.leihsy.model.entity.Booking;
 import com.hse.leihsy.repository.BookingRepository;
+import com.hse.leihsy.service.AvailabilityIndex;
+import com.hse.leihsy.service.ImageGarbageCollector;
+import com.hse.leihsy.service.ProductSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -27,6 +30,9 @@ public class BookingScheduler {
 
     private final BookingRepository bookingRepository;
     private final com.hse.leihsy.service.ReminderService reminderService;
+    private final AvailabilityIndex availabilityIndex;
+    private final ProductSearchIndex productSearchIndex;
+    private final ImageGarbageCollector imageGarbageCollector;
 
     @Value("${leihsy.booking.auto-cancel-hours:24}")
     private int autoCancelHours;
@@ -54,7 +60,7 @@ public class BookingScheduler {
         }
 
         for (Booking booking : pendingBookings) {
-            booking.setDeletedAt(LocalDateTime.now());
+            booking.markCancelled();
             bookingRepository.save(booking);
 
             log.info("Auto-cancelled booking ID {} (created: {}, user: {}, item: {})",
@@ -87,7 +93,7 @@ public class BookingScheduler {
         }
 
         for (Booking booking : confirmedBookings) {
-            booking.setDeletedAt(LocalDateTime.now());
+            booking.markExpired();
             bookingRepository.save(booking);
 
             log.info("Auto-expired booking ID {} (confirmed pickup: {}, user: {}, item: {})",
@@ -100,6 +106,33 @@ public class BookingScheduler {
         log.info("Auto-expired {} confirmed bookings", confirmedBookings.size());
     }
 
+    /**
+     * Gleicht den Verfuegbarkeits-Index mit der Datenbank ab und baut ihn bei Abweichungen neu auf.
+     * Laeuft stuendlich um :15
+     */
+    @Scheduled(cron = "0 15 * * * *")
+    public void verifyAvailabilityIndex() {
+        availabilityIndex.verify();
+    }
+
+    /**
+     * Laedt den Produkt-Suchindex neu (Products anderer Instanzen werden damit suchbar).
+     * Laeuft stuendlich um :20
+     */
+    @Scheduled(cron = "0 20 * * * *")
+    public void reloadSearchIndex() {
+        productSearchIndex.reload();
+    }
+
+    /**
+     * Loescht verwaiste Bilder (inkrementell, ein Teil des Upload-Verzeichnisses pro Lauf).
+     * Laeuft stuendlich um :45
+     */
+    @Scheduled(cron = "0 45 * * * *")
+    public void sweepOrphanedImages() {
+        imageGarbageCollector.sweep();
+    }
+
     /**
      * Versendet tägliche Erinnerungs-Emails (Fälligkeit & Überfälligkeit).
      * Läuft täglich um 08:00 Uhr.
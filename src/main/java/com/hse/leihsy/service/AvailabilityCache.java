@@ -0,0 +1,126 @@
+package com.hse.leihsy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hse.leihsy.model.dto.timePeriodDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Period;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache fuer berechnete Verfuegbarkeits-Zeitraeume (/api/products/{id}/periods).
+ *
+ * Begrenzt per Groesse und TTL. Die TTL deckt ab, dass der erste Zeitraum immer bei "jetzt" beginnt.
+ * Buchungs- und Item-Aenderungen eines Products entfernen dessen Eintraege nach dem Commit
+ * (siehe {@link AvailabilityChangeHandler}). Hit/Miss-Metriken unter /actuator/metrics/cache.gets?tag=cache:availabilityPeriods.
+ *
+ * Die Invalidierung wirkt nur auf dieser Instanz: Bei mehreren Instanzen bleiben Zeitraeume nach Buchungen
+ * ueber eine andere Instanz bis zum Ablauf der TTL veraltet. Dort leihsy.availability-cache.ttl klein waehlen
+ * bzw. mit max-size=0 den Cache abschalten.
+ */
+@Component
+public class AvailabilityCache {
+
+    static final String CACHE_NAME = "availabilityPeriods";
+
+    /**
+     * available = true fuer verfuegbare, false fuer nicht verfuegbare Zeitraeume
+     */
+    public record Key(Long productId, int requiredQuantity, boolean available, Period horizon) {
+    }
+
+    private final Cache<Key, List<timePeriodDTO>> cache;
+
+    // Wird bei jeder Invalidierung erhoeht; Ergebnisse aelterer Berechnungen werden dann nicht mehr abgelegt
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public AvailabilityCache(MeterRegistry meterRegistry,
+                             @Value("${leihsy.availability-cache.max-size:10000}") long maxSize,
+                             @Value("${leihsy.availability-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Liefert den gecachten Wert oder berechnet ihn ueber loader und legt ihn ab
+     */
+    public List<timePeriodDTO> get(Key key, Supplier<List<timePeriodDTO>> loader) {
+        List<timePeriodDTO> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = version(key.productId());
+        List<timePeriodDTO> periods = List.copyOf(loader.get());
+        // Nur ablegen, wenn waehrend der Berechnung keine Invalidierung fuer das Product lief
+        cache.asMap().compute(key, (k, existing) -> version(key.productId()) == version ? periods : existing);
+        return periods;
+    }
+
+    /**
+     * Mehrere Eintraege auf einmal: Fehlende werden gemeinsam ueber loader berechnet und abgelegt
+     */
+    public Map<Key, List<timePeriodDTO>> getAll(Collection<Key> keys,
+                                                Function<Set<Key>, Map<Key, List<timePeriodDTO>>> loader) {
+        Map<Key, List<timePeriodDTO>> result = new HashMap<>(cache.getAllPresent(keys));
+        Set<Key> missing = new HashSet<>(keys);
+        missing.removeAll(result.keySet());
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Key, Long> versionsBefore = new HashMap<>();
+        missing.forEach(key -> versionsBefore.put(key, version(key.productId())));
+        loader.apply(missing).forEach((key, loaded) -> {
+            List<timePeriodDTO> periods = List.copyOf(loaded);
+            long version = versionsBefore.getOrDefault(key, -1L);
+            cache.asMap().compute(key, (k, existing) -> version(key.productId()) == version ? periods : existing);
+            result.put(key, periods);
+        });
+        return result;
+    }
+
+    /**
+     * Entfernt alle Eintraege eines Products
+     */
+    public void invalidateProduct(Long productId) {
+        versions.computeIfAbsent(productId, id -> new AtomicLong()).incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.productId().equals(productId));
+    }
+
+    /**
+     * Entfernt alle Eintraege (wenn das betroffene Product nicht bestimmbar ist)
+     */
+    public void invalidateAll() {
+        versions.values().forEach(AtomicLong::incrementAndGet);
+        cache.invalidateAll();
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private long version(Long productId) {
+        AtomicLong version = versions.get(productId);
+        return version != null ? version.get() : 0L;
+    }
+}
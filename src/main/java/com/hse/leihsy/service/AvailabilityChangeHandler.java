@@ -0,0 +1,48 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.entity.AvailabilityChangedEvent;
+import com.hse.leihsy.model.entity.Booking;
+import com.hse.leihsy.model.entity.Item;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Uebernimmt Booking- und Item-Aenderungen nach dem Commit in Verfuegbarkeits-Index und -Cache.
+ *
+ * Bei Rollback bleiben beide unveraendert. Ohne Transaktion wird sofort angewendet.
+ */
+@Component
+@RequiredArgsConstructor
+public class AvailabilityChangeHandler {
+
+    private final AvailabilityIndex availabilityIndex;
+    private final AvailabilityCache availabilityCache;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAvailabilityChanged(AvailabilityChangedEvent event) {
+        if (event.entity() instanceof Booking booking && booking.getItem() != null) {
+            // Product vor dem Update bestimmen, solange der Index noch den alten Stand hat
+            Long productId = availabilityIndex.productOf(booking.getItem().getId());
+            availabilityIndex.bookingChanged(booking, event.removed());
+            evict(productId);
+        } else if (event.entity() instanceof Item item) {
+            Long previousProductId = availabilityIndex.productOf(item.getId());
+            Long productId = item.getProduct() != null ? item.getProduct().getId() : null;
+            availabilityIndex.itemChanged(item, event.removed());
+            if (previousProductId != null && !previousProductId.equals(productId)) {
+                evict(previousProductId);
+            }
+            evict(productId);
+        }
+    }
+
+    private void evict(Long productId) {
+        if (productId != null) {
+            availabilityCache.invalidateProduct(productId);
+        } else {
+            availabilityCache.invalidateAll();
+        }
+    }
+}
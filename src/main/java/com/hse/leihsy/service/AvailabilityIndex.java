@@ -0,0 +1,392 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.dto.BookingInterval;
+import com.hse.leihsy.model.dto.ItemAssignment;
+import com.hse.leihsy.model.dto.timePeriodDTO;
+import com.hse.leihsy.model.entity.Booking;
+import com.hse.leihsy.model.entity.Item;
+import com.hse.leihsy.repository.BookingRepository;
+import com.hse.leihsy.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-Memory-Index der aktiven Buchungs-Intervalle je Item, gruppiert nach Product.
+ *
+ * Pro Item liegt ein nach Start sortiertes, unveraenderliches Array der Intervalle mit
+ * laufendem Maximum der Endzeitpunkte. Ueberlappungs-Pruefungen brauchen damit eine
+ * binaere Suche (O(log n)) statt einer Datenbank-Abfrage.
+ *
+ * Wird beim Start aus der Datenbank geladen und nach jedem Commit einer Buchungs- bzw.
+ * Item-Aenderung nachgezogen. Buchungen anderer Instanzen sieht der Index erst nach dem
+ * stuendlichen Abgleich (BookingScheduler), der ihn bei Abweichungen neu aufbaut. Die Datenbank
+ * bleibt fuer Reservierungen und Verfuegbarkeits-Pruefungen einzelner Items massgeblich. Der Index
+ * bedient nur Anzeigen, die veraltete Daten vertragen (Zeitraeume und naechster freier Termin im Katalog).
+ */
+@Component
+@Slf4j
+public class AvailabilityIndex {
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+
+    private volatile State state = new State();
+    private volatile boolean ready;
+
+    // Aenderungen waehrend eines laufenden Abgleichs (null wenn keiner laeuft), nur unter dem Monitor
+    private List<Consumer<State>> pendingChanges;
+
+    public AvailabilityIndex(BookingRepository bookingRepository,
+                             ItemRepository itemRepository,
+                             @Value("${leihsy.availability-index.enabled:true}") boolean enabled) {
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Index ist geladen und kann Anfragen beantworten (sonst Fallback auf die Datenbank)
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========================================
+    // ABFRAGEN
+    // ========================================
+
+    /**
+     * Anzahl aktiver Items eines Products
+     */
+    public int countItems(Long productId) {
+        return state.productItems.getOrDefault(productId, Set.of()).size();
+    }
+
+    /**
+     * Prueft ob ein Item im Zeitraum frei ist (gleiche Semantik wie findOverlappingBookings: Grenzen inklusive)
+     */
+    public boolean isItemAvailable(Long itemId, LocalDateTime startDate, LocalDateTime endDate) {
+        return !state.timeline(itemId).overlaps(startDate, endDate);
+    }
+
+    /**
+     * Anzahl der Items eines Products, die im Zeitraum frei sind
+     */
+    public int countAvailableItems(Long productId, LocalDateTime startDate, LocalDateTime endDate) {
+        State current = state;
+        int available = 0;
+        for (Long itemId : current.productItems.getOrDefault(productId, Set.of())) {
+            if (!current.timeline(itemId).overlaps(startDate, endDate)) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Aktive Belegungs-Intervalle aller Items eines Products mit endDate > from und startDate < until
+     * (Eingabe fuer AvailabilityTimeline)
+     */
+    public List<timePeriodDTO> findActiveIntervals(Long productId, LocalDateTime from, LocalDateTime until) {
+        State current = state;
+        List<timePeriodDTO> intervals = new ArrayList<>();
+        for (Long itemId : current.productItems.getOrDefault(productId, Set.of())) {
+            current.timeline(itemId).collect(from, until, intervals);
+        }
+        return intervals;
+    }
+
+    // ========================================
+    // AKTUALISIERUNG
+    // ========================================
+
+    /**
+     * Product eines aktiven Items laut Index (null wenn unbekannt oder Index nicht gepflegt)
+     */
+    public Long productOf(Long itemId) {
+        return enabled ? state.itemProducts.get(itemId) : null;
+    }
+
+    /**
+     * Uebernimmt den Zustand einer Buchung (Anlage, Ausgabe, Rueckgabe, Stornierung, Loeschung).
+     * Wird von {@link AvailabilityChangeHandler} erst nach dem Commit aufgerufen.
+     */
+    public synchronized void bookingChanged(Booking booking, boolean removed) {
+        if (!enabled || booking.getId() == null || booking.getItem() == null) {
+            return;
+        }
+        apply(state -> applyBooking(state, booking, removed));
+    }
+
+    /**
+     * Uebernimmt Anlage, Product-Wechsel bzw. Loeschung eines Items (nach dem Commit)
+     */
+    public synchronized void itemChanged(Item item, boolean removed) {
+        if (!enabled || item.getId() == null) {
+            return;
+        }
+        apply(state -> applyItem(state, item, removed));
+    }
+
+    // Wendet eine Aenderung an und merkt sie sich, falls gerade ein Abgleich laedt (Aufrufer haelt den Monitor)
+    private void apply(Consumer<State> change) {
+        change.accept(state);
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+    }
+
+    private static void applyBooking(State state, Booking booking, boolean removed) {
+        Long itemId = booking.getItem().getId();
+        boolean active = !removed && booking.getDeletedAt() == null && booking.getReturnDate() == null
+                && state.itemProducts.containsKey(itemId);
+
+        ItemTimeline timeline = state.timeline(itemId).without(booking.getId());
+        if (active) {
+            timeline = timeline.with(normalize(new BookingInterval(
+                    booking.getId(), itemId, booking.getStartDate(), booking.getEndDate())));
+        }
+        if (timeline.isEmpty()) {
+            state.timelines.remove(itemId);
+        } else {
+            state.timelines.put(itemId, timeline);
+        }
+    }
+
+    private static void applyItem(State state, Item item, boolean removed) {
+        Long productId = state.itemProducts.get(item.getId());
+        boolean active = !removed && item.getDeletedAt() == null && item.getProduct() != null;
+
+        if (!active) {
+            state.removeItem(item.getId());
+        } else if (!item.getProduct().getId().equals(productId)) {
+            // Neues Item oder Product-Wechsel; Buchungs-Intervalle des Items bleiben erhalten
+            ItemTimeline timeline = state.timeline(item.getId());
+            state.removeItem(item.getId());
+            state.putItem(item.getId(), item.getProduct().getId());
+            if (!timeline.isEmpty()) {
+                state.timelines.put(item.getId(), timeline);
+            }
+        }
+    }
+
+    /**
+     * Laedt den Index beim Start aus der Datenbank
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            log.info("Availability index disabled");
+            return;
+        }
+        synchronized (this) {
+            state = loadState();
+            ready = true;
+            log.info("Availability index loaded: {} items, {} intervals",
+                    state.itemProducts.size(), state.intervalCount());
+        }
+    }
+
+    /**
+     * Vergleicht den Index mit der Datenbank und baut ihn bei Abweichungen neu auf.
+     * Die Datenbank wird ohne Monitor gelesen, damit Aenderungen nach dem Commit nicht auf den Abgleich warten.
+     * Was waehrenddessen eintrifft, wird gemerkt und vor dem Vergleich auf den geladenen Zustand angewendet.
+     *
+     * @return true wenn Index und Datenbank uebereinstimmen
+     */
+    public boolean verify() {
+        synchronized (this) {
+            if (!ready || pendingChanges != null) {
+                return true;
+            }
+            pendingChanges = new ArrayList<>();
+        }
+
+        State loaded;
+        try {
+            loaded = loadState();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            pendingChanges.forEach(change -> change.accept(loaded));
+            pendingChanges = null;
+            if (loaded.sameAs(state)) {
+                log.debug("Availability index consistent: {} items, {} intervals",
+                        loaded.itemProducts.size(), loaded.intervalCount());
+                return true;
+            }
+            log.warn("Availability index out of sync (index: {} items/{} intervals, database: {} items/{} intervals), rebuilt",
+                    state.itemProducts.size(), state.intervalCount(),
+                    loaded.itemProducts.size(), loaded.intervalCount());
+            state = loaded;
+            return false;
+        }
+    }
+
+    private State loadState() {
+        State loaded = new State();
+        for (ItemAssignment assignment : itemRepository.findAllActiveAssignments()) {
+            loaded.putItem(assignment.itemId(), assignment.productId());
+        }
+
+        Map<Long, List<BookingInterval>> byItem = new HashMap<>();
+        for (BookingInterval interval : bookingRepository.findAllActiveIntervals()) {
+            byItem.computeIfAbsent(interval.itemId(), id -> new ArrayList<>()).add(normalize(interval));
+        }
+        byItem.forEach((itemId, intervals) -> {
+            if (loaded.itemProducts.containsKey(itemId)) {
+                loaded.timelines.put(itemId, ItemTimeline.of(intervals));
+            }
+        });
+        return loaded;
+    }
+
+    // Datenbanken speichern Mikrosekunden, damit der Abgleich nicht an Nanosekunden scheitert
+    private static BookingInterval normalize(BookingInterval interval) {
+        return new BookingInterval(interval.bookingId(), interval.itemId(),
+                interval.startDate().truncatedTo(ChronoUnit.MICROS),
+                interval.endDate().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    /**
+     * Gesamtzustand des Index; wird beim Laden/Abgleich komplett ersetzt
+     */
+    private static final class State {
+        private final Map<Long, Long> itemProducts = new ConcurrentHashMap<>();
+        private final Map<Long, Set<Long>> productItems = new ConcurrentHashMap<>();
+        private final Map<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+
+        ItemTimeline timeline(Long itemId) {
+            return timelines.getOrDefault(itemId, ItemTimeline.EMPTY);
+        }
+
+        void putItem(Long itemId, Long productId) {
+            itemProducts.put(itemId, productId);
+            productItems.computeIfAbsent(productId, id -> ConcurrentHashMap.newKeySet()).add(itemId);
+        }
+
+        void removeItem(Long itemId) {
+            Long productId = itemProducts.remove(itemId);
+            if (productId != null) {
+                productItems.computeIfPresent(productId, (id, items) -> {
+                    items.remove(itemId);
+                    return items.isEmpty() ? null : items;
+                });
+            }
+            timelines.remove(itemId);
+        }
+
+        long intervalCount() {
+            return timelines.values().stream().mapToLong(timeline -> timeline.intervals.length).sum();
+        }
+
+        boolean sameAs(State other) {
+            if (!itemProducts.equals(other.itemProducts) || !timelines.keySet().equals(other.timelines.keySet())) {
+                return false;
+            }
+            return timelines.entrySet().stream().allMatch(entry ->
+                    Arrays.equals(entry.getValue().intervals, other.timeline(entry.getKey()).intervals));
+        }
+    }
+
+    /**
+     * Unveraenderliche, nach Start sortierte Intervalle eines Items.
+     * maxEnd[i] ist das spaeteste Ende der Intervalle 0..i (Ueberlappungen bei Altdaten moeglich).
+     */
+    static final class ItemTimeline {
+
+        static final ItemTimeline EMPTY = new ItemTimeline(new BookingInterval[0]);
+
+        private static final Comparator<BookingInterval> ORDER =
+                Comparator.comparing(BookingInterval::startDate).thenComparing(BookingInterval::bookingId);
+
+        private final BookingInterval[] intervals;
+        private final LocalDateTime[] maxEnd;
+
+        private ItemTimeline(BookingInterval[] intervals) {
+            this.intervals = intervals;
+            this.maxEnd = new LocalDateTime[intervals.length];
+            for (int i = 0; i < intervals.length; i++) {
+                LocalDateTime end = intervals[i].endDate();
+                maxEnd[i] = i > 0 && maxEnd[i - 1].isAfter(end) ? maxEnd[i - 1] : end;
+            }
+        }
+
+        static ItemTimeline of(List<BookingInterval> intervals) {
+            BookingInterval[] sorted = intervals.toArray(BookingInterval[]::new);
+            Arrays.sort(sorted, ORDER);
+            return new ItemTimeline(sorted);
+        }
+
+        boolean isEmpty() {
+            return intervals.length == 0;
+        }
+
+        /**
+         * Gibt es ein Intervall mit start <= endDate und end >= startDate?
+         */
+        boolean overlaps(LocalDateTime startDate, LocalDateTime endDate) {
+            int last = lastStartingBefore(endDate, true);
+            return last >= 0 && !maxEnd[last].isBefore(startDate);
+        }
+
+        /**
+         * Sammelt Intervalle mit end > from und start < until
+         */
+        void collect(LocalDateTime from, LocalDateTime until, List<timePeriodDTO> target) {
+            for (int i = lastStartingBefore(until, false); i >= 0 && maxEnd[i].isAfter(from); i--) {
+                if (intervals[i].endDate().isAfter(from)) {
+                    target.add(new timePeriodDTO(intervals[i].startDate(), intervals[i].endDate()));
+                }
+            }
+        }
+
+        ItemTimeline with(BookingInterval interval) {
+            List<BookingInterval> list = new ArrayList<>(Arrays.asList(intervals));
+            list.add(interval);
+            return of(list);
+        }
+
+        ItemTimeline without(Long bookingId) {
+            if (Arrays.stream(intervals).noneMatch(interval -> interval.bookingId().equals(bookingId))) {
+                return this;
+            }
+            return new ItemTimeline(Arrays.stream(intervals)
+                    .filter(interval -> !interval.bookingId().equals(bookingId))
+                    .toArray(BookingInterval[]::new));
+        }
+
+        // Binaere Suche: letzter Index mit start < bound (bzw. start <= bound), -1 wenn keiner
+        private int lastStartingBefore(LocalDateTime bound, boolean inclusive) {
+            int low = 0;
+            int high = intervals.length - 1;
+            int result = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                LocalDateTime start = intervals[mid].startDate();
+                if (start.isBefore(bound) || (inclusive && start.isEqual(bound))) {
+                    result = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return result;
+        }
+    }
+}
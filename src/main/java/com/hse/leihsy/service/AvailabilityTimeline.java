@@ -0,0 +1,149 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.dto.ProductBookingInterval;
+import com.hse.leihsy.model.dto.timePeriodDTO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Belegungs-Zeitstrahl eines Produkts im Zeitfenster [from, horizon).
+ *
+ * Wird einmal per Sweep-Line aus den aktiven Buchungs-Intervallen aufgebaut und speichert
+ * Abschnitte mit konstanter Anzahl belegter Items. Daraus lassen sich verfuegbare und
+ * nicht verfuegbare Zeitraeume fuer beliebige Mengen ohne erneuten Sweep ableiten.
+ */
+public final class AvailabilityTimeline {
+
+    /**
+     * Abschnitt ab start (bis zum naechsten Abschnitt bzw. horizon) mit occupied belegten Items
+     */
+    record Segment(LocalDateTime start, int occupied) {
+    }
+
+    private final int totalItems;
+    private final LocalDateTime from;
+    private final LocalDateTime horizon;
+    private final List<Segment> segments;
+
+    private AvailabilityTimeline(int totalItems, LocalDateTime from, LocalDateTime horizon, List<Segment> segments) {
+        this.totalItems = totalItems;
+        this.from = from;
+        this.horizon = horizon;
+        this.segments = segments;
+    }
+
+    /**
+     * Baut den Zeitstrahl per Sweep-Line: +1 bei Buchungsbeginn, -1 bei Buchungsende.
+     * Intervalle werden auf [from, horizon) beschnitten.
+     */
+    public static AvailabilityTimeline build(int totalItems, List<timePeriodDTO> bookings,
+                                             LocalDateTime from, LocalDateTime horizon) {
+        // Aenderung der Belegung je Zeitpunkt (gleiche Zeitpunkte werden zusammengefasst)
+        TreeMap<LocalDateTime, Integer> deltas = new TreeMap<>();
+        for (timePeriodDTO booking : bookings) {
+            LocalDateTime start = booking.getStartDate().isBefore(from) ? from : booking.getStartDate();
+            LocalDateTime end = booking.getEndDate().isAfter(horizon) ? horizon : booking.getEndDate();
+            if (!start.isBefore(end)) {
+                continue;
+            }
+            deltas.merge(start, 1, Integer::sum);
+            deltas.merge(end, -1, Integer::sum);
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        int occupied = 0;
+        segments.add(new Segment(from, 0));
+        for (Map.Entry<LocalDateTime, Integer> delta : deltas.entrySet()) {
+            occupied += delta.getValue();
+            Segment last = segments.get(segments.size() - 1);
+            if (last.start().equals(delta.getKey())) {
+                segments.set(segments.size() - 1, new Segment(last.start(), occupied));
+            } else if (last.occupied() != occupied) {
+                segments.add(new Segment(delta.getKey(), occupied));
+            }
+        }
+        return new AvailabilityTimeline(totalItems, from, horizon, segments);
+    }
+
+    /**
+     * Baut die Zeitstrahlen mehrerer Products in einem Durchlauf ueber deren Buchungs-Intervalle.
+     *
+     * @param totalItems Anzahl aktiver Items je Product-ID (fehlende Products haben 0 Items)
+     */
+    public static Map<Long, AvailabilityTimeline> buildAll(Map<Long, Integer> totalItems,
+                                                           List<ProductBookingInterval> bookings,
+                                                           LocalDateTime from, LocalDateTime horizon) {
+        Map<Long, List<timePeriodDTO>> bookingsByProduct = new HashMap<>();
+        for (ProductBookingInterval booking : bookings) {
+            bookingsByProduct.computeIfAbsent(booking.productId(), id -> new ArrayList<>())
+                    .add(new timePeriodDTO(booking.startDate(), booking.endDate()));
+        }
+
+        Map<Long, AvailabilityTimeline> timelines = new HashMap<>();
+        totalItems.forEach((productId, total) -> timelines.put(productId,
+                build(total, bookingsByProduct.getOrDefault(productId, List.of()), from, horizon)));
+        return timelines;
+    }
+
+    /**
+     * Erster verfuegbarer Zeitraum, der mindestens duration lang ist (offene Zeitraeume passen immer).
+     *
+     * @param availablePeriods Ergebnis von {@link #availablePeriods(int)}, aufsteigend sortiert
+     * @return der Zeitraum oder null, wenn im Horizont keiner passt
+     */
+    public static timePeriodDTO earliestWindow(List<timePeriodDTO> availablePeriods, Duration duration) {
+        for (timePeriodDTO period : availablePeriods) {
+            if (period.getEndDate() == null
+                    || !period.getStartDate().plus(duration).isAfter(period.getEndDate())) {
+                return period;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Zeitraeume, in denen mindestens requiredQuantity Items frei sind.
+     * Ein Zeitraum, der bis zum Horizont reicht, ist nach oben offen (endDate = null).
+     */
+    public List<timePeriodDTO> availablePeriods(int requiredQuantity) {
+        if (requiredQuantity > totalItems) {
+            return List.of();
+        }
+        return periods(requiredQuantity, true, null);
+    }
+
+    /**
+     * Zeitraeume, in denen weniger als requiredQuantity Items frei sind (begrenzt auf den Horizont).
+     */
+    public List<timePeriodDTO> unavailablePeriods(int requiredQuantity) {
+        if (requiredQuantity > totalItems) {
+            return List.of(new timePeriodDTO(from, horizon));
+        }
+        return periods(requiredQuantity, false, horizon);
+    }
+
+    private List<timePeriodDTO> periods(int requiredQuantity, boolean available, LocalDateTime openEnd) {
+        List<timePeriodDTO> periods = new ArrayList<>();
+        LocalDateTime periodStart = null;
+
+        for (Segment segment : segments) {
+            boolean matches = (totalItems - segment.occupied() >= requiredQuantity) == available;
+            if (matches && periodStart == null) {
+                periodStart = segment.start();
+            } else if (!matches && periodStart != null) {
+                periods.add(new timePeriodDTO(periodStart, segment.start()));
+                periodStart = null;
+            }
+        }
+        if (periodStart != null) {
+            periods.add(new timePeriodDTO(periodStart, openEnd));
+        }
+        return periods;
+    }
+}
@@ -0,0 +1,48 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.exception.ValidationException;
+import com.hse.leihsy.model.entity.Booking;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor fuer Keyset-Pagination ueber (createdAt, id), absteigend sortiert.
+ * Wird als Base64-URL-String an den Client gegeben und ist fuer diesen opak.
+ */
+public record BookingCursor(LocalDateTime createdAt, Long id) {
+
+    /**
+     * Startposition fuer die erste Seite (liegt nach jeder realen Buchung)
+     */
+    public static final BookingCursor FIRST = new BookingCursor(LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE);
+
+    public static BookingCursor of(Booking booking) {
+        return new BookingCursor(booking.getCreatedAt(), booking.getId());
+    }
+
+    /**
+     * Liest einen Cursor vom Client. NULL oder leer = erste Seite.
+     */
+    public static BookingCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('_');
+            return new BookingCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new ValidationException("Ungueltiger Cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,149 @@
+package com.hse.leihsy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hse.leihsy.exception.ValidationException;
+import com.hse.leihsy.mapper.BookingMapper;
+import com.hse.leihsy.model.dto.BookingDTO;
+import com.hse.leihsy.model.entity.Booking;
+import com.hse.leihsy.repository.BookingRepository;
+import jakarta.persistence.EntityManager;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Export aller Buchungen (Semester-Reporting) als CSV oder NDJSON.
+ *
+ * Die Buchungen werden per Datenbank-Cursor gelesen und zeilenweise in den Response
+ * geschrieben. Der Persistence Context wird regelmaessig geleert, der Speicherbedarf
+ * ist damit unabhaengig von der Tabellengroesse.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingExportService {
+
+    // Persistence Context nach so vielen Zeilen leeren (entspricht der JDBC fetch size)
+    private static final int CLEAR_INTERVAL = Integer.parseInt(BookingRepository.EXPORT_FETCH_SIZE);
+
+    private static final List<CsvColumn> CSV_COLUMNS = List.of(
+            new CsvColumn("id", BookingDTO::getId),
+            new CsvColumn("status", BookingDTO::getStatus),
+            new CsvColumn("userId", BookingDTO::getUserId),
+            new CsvColumn("userName", BookingDTO::getUserName),
+            new CsvColumn("lenderId", BookingDTO::getLenderId),
+            new CsvColumn("lenderName", BookingDTO::getLenderName),
+            new CsvColumn("itemId", BookingDTO::getItemId),
+            new CsvColumn("itemInvNumber", BookingDTO::getItemInvNumber),
+            new CsvColumn("productId", BookingDTO::getProductId),
+            new CsvColumn("productName", BookingDTO::getProductName),
+            new CsvColumn("roomNr", BookingDTO::getRoomNr),
+            new CsvColumn("groupId", BookingDTO::getGroupId),
+            new CsvColumn("groupName", BookingDTO::getGroupName),
+            new CsvColumn("startDate", BookingDTO::getStartDate),
+            new CsvColumn("endDate", BookingDTO::getEndDate),
+            new CsvColumn("confirmedPickup", BookingDTO::getConfirmedPickup),
+            new CsvColumn("distributionDate", BookingDTO::getDistributionDate),
+            new CsvColumn("returnDate", BookingDTO::getReturnDate),
+            new CsvColumn("createdAt", BookingDTO::getCreatedAt),
+            new CsvColumn("updatedAt", BookingDTO::getUpdatedAt)
+    );
+
+    private final BookingRepository bookingRepository;
+    private final BookingMapper bookingMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    /**
+     * Export-Formate mit Content-Type und Dateiendung
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String fileExtension;
+
+        public static Format from(String value) {
+            if (value == null || value.isBlank()) {
+                return CSV;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Invalid export format: " + value + ". Valid values: csv, ndjson");
+            }
+        }
+    }
+
+    private record CsvColumn(String header, Function<BookingDTO, Object> value) {
+    }
+
+    /**
+     * Schreibt alle Buchungen (inkl. geloeschter) nach ID sortiert in den Stream.
+     *
+     * @return Anzahl exportierter Buchungen
+     */
+    @Transactional(readOnly = true)
+    public long exportBookings(Format format, OutputStream outputStream) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        long count = 0;
+
+        try (Stream<Booking> bookings = bookingRepository.streamAllForExport()) {
+            if (format == Format.CSV) {
+                writer.write(CSV_COLUMNS.stream().map(CsvColumn::header).collect(Collectors.joining(",")));
+                writer.write('\n');
+            }
+
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                BookingDTO dto = bookingMapper.toDTO(iterator.next());
+                writer.write(format == Format.CSV ? toCsvLine(dto) : objectMapper.writeValueAsString(dto));
+                writer.write('\n');
+
+                if (++count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Booking export failed after " + count + " rows", e);
+        }
+
+        log.info("Exported {} bookings as {}", count, format);
+        return count;
+    }
+
+    private String toCsvLine(BookingDTO dto) {
+        return CSV_COLUMNS.stream()
+                .map(column -> escapeCsv(column.value().apply(dto)))
+                .collect(Collectors.joining(","));
+    }
+
+    // RFC 4180: Felder mit Trennzeichen, Anfuehrungszeichen oder Zeilenumbruch quoten
+    static String escapeCsv(Object value) {
+        String text = Objects.toString(value, "");
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
@@ -0,0 +1,125 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.dto.ItemGap;
+import com.hse.leihsy.model.entity.Item;
+import com.hse.leihsy.repository.BookingRepository;
+import com.hse.leihsy.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reservierung von Items fuer neue Buchungen.
+ *
+ * Verhindert Doppelbuchungen bei parallelen Anfragen: Vor der Verfuegbarkeitspruefung
+ * werden die Item-Zeilen des Produkts per SELECT ... FOR UPDATE gesperrt (sortiert nach ID).
+ * Parallele Buchungen fuer dasselbe Produkt warten damit bis zum Commit der vorherigen
+ * Transaktion und sehen deren Bookings. Buchungen fuer andere Produkte sind nicht betroffen.
+ *
+ * Welche der freien Items belegt werden, entscheidet die {@link ItemAllocationStrategy}.
+ */
+@Service
+@Slf4j
+public class BookingReservationService {
+
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemAllocationStrategy allocationStrategy;
+
+    public BookingReservationService(ItemRepository itemRepository,
+                                     BookingRepository bookingRepository,
+                                     @Value("${leihsy.booking.allocation-strategy:BEST_FIT}") ItemAllocationStrategy allocationStrategy) {
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.allocationStrategy = allocationStrategy;
+    }
+
+    /**
+     * Sperrt die Items eines Produkts und liefert bis zu {@code quantity} freie Items fuer den Zeitraum.
+     * Muss innerhalb der Buchungs-Transaktion laufen, da die Sperren erst beim Commit freigegeben werden.
+     *
+     * @return freie Items (kann weniger als quantity enthalten)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Item> reserveItems(Long productId, LocalDateTime startDate, LocalDateTime endDate, int quantity) {
+        List<Item> locked = itemRepository.lockByProductId(productId);
+        log.debug("Reservierung: {} Items von Produkt {} gesperrt", locked.size(), productId);
+
+        if (!allocationStrategy.needsGaps()) {
+            return itemRepository.findAvailableByProductId(
+                    productId, startDate, endDate, Limit.of(Math.max(quantity, 1)));
+        }
+
+        List<Item> free = itemRepository.findAvailableByProductId(productId, startDate, endDate, Limit.unlimited());
+        return allocate(Map.of(productId, free), Map.of(productId, quantity), startDate, endDate).get(productId);
+    }
+
+    /**
+     * Warenkorb-Variante: sperrt die Items aller Products gemeinsam (nach ID sortiert) und waehlt je Product
+     * bis zu quantity freie Items. Feste Anzahl Queries unabhaengig von der Anzahl der Positionen.
+     *
+     * @param quantities gewuenschte Anzahl je Product-ID
+     * @return freie Items je Product-ID (kann weniger als die gewuenschte Anzahl enthalten)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, List<Item>> reserveItems(Map<Long, Integer> quantities, LocalDateTime startDate, LocalDateTime endDate) {
+        List<Item> locked = itemRepository.lockByProductIds(quantities.keySet());
+        log.debug("Reservierung: {} Items von {} Produkten gesperrt", locked.size(), quantities.size());
+
+        Map<Long, List<Item>> freeByProduct = itemRepository.findAvailableByProductIds(quantities.keySet(), startDate, endDate)
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getProduct().getId()));
+        return allocate(freeByProduct, quantities, startDate, endDate);
+    }
+
+    // Waehlt je Product per Strategie; angrenzende Buchungen nur fuer Products mit Auswahl, in einer Query
+    private Map<Long, List<Item>> allocate(Map<Long, List<Item>> freeByProduct, Map<Long, Integer> quantities,
+                                           LocalDateTime startDate, LocalDateTime endDate) {
+        Map<Long, Item> choices = freeByProduct.entrySet().stream()
+                .filter(entry -> entry.getValue().size() > quantities.get(entry.getKey()))
+                .flatMap(entry -> entry.getValue().stream())
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, ItemGap> gapsById = choices.isEmpty() || !allocationStrategy.needsGaps()
+                ? Map.of()
+                : bookingRepository.findGapsAround(choices.keySet(), startDate, endDate).stream()
+                        .collect(Collectors.toMap(ItemGap::itemId, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<Long, List<Item>> reserved = new HashMap<>();
+        quantities.forEach((productId, quantity) -> {
+            List<Item> free = freeByProduct.getOrDefault(productId, List.of());
+            if (free.size() <= quantity) {
+                reserved.put(productId, free);
+                return;
+            }
+            Map<Long, Item> itemsById = free.stream().collect(Collectors.toMap(Item::getId, Function.identity()));
+            List<ItemGap> candidates = free.stream()
+                    .map(item -> bookableGap(item.getId(), gapsById.get(item.getId()), now))
+                    .toList();
+            reserved.put(productId, allocationStrategy.select(candidates, startDate, endDate, quantity).stream()
+                    .map(gap -> itemsById.get(gap.itemId()))
+                    .toList());
+        });
+        return reserved;
+    }
+
+    // Luecke ab "jetzt": fruehere Buchungen begrenzen die buchbare Zeit nicht mehr
+    static ItemGap bookableGap(Long itemId, ItemGap gap, LocalDateTime now) {
+        LocalDateTime previousEnd = gap != null ? gap.previousEnd() : null;
+        LocalDateTime nextStart = gap != null ? gap.nextStart() : null;
+        if (previousEnd == null || previousEnd.isBefore(now)) {
+            previousEnd = now;
+        }
+        return new ItemGap(itemId, previousEnd, nextStart);
+    }
+}
@@ -8,12 +8,15 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hse.leihsy.mapper.BookingMapper;
 import com.hse.leihsy.model.dto.BookingDTO;
 import com.hse.leihsy.model.dto.BookingStatusUpdateDTO;
+import com.hse.leihsy.model.dto.CartBookingRequestDTO;
+import com.hse.leihsy.model.dto.LenderDashboardDTO;
 import com.hse.leihsy.model.entity.*;
 import com.hse.leihsy.repository.BookingRepository;
 import com.hse.leihsy.repository.ItemRepository;
 import com.hse.leihsy.repository.StudentGroupRepository;
 import com.hse.leihsy.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
@@ -21,7 +24,10 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -37,6 +43,7 @@ public class BookingService {
     private final UserService userService;
     private final EmailService emailService;
     private final PdfGenerationService pdfService;
+    private final BookingReservationService reservationService;
 
 
     // ========================================
@@ -73,9 +80,7 @@ public class BookingService {
     public List<BookingDTO> getBookingsByUserId(Long userId, boolean includeDeleted) {
         List<Booking> bookings;
         if (includeDeleted) {
-            bookings = bookingRepository.findAll().stream()
-                    .filter(b -> b.getUser() != null && b.getUser().getId().equals(userId))
-                    .toList();
+            bookings = bookingRepository.findByUserIdIncludingDeleted(userId);
         } else {
             bookings = bookingRepository.findByUserId(userId);
         }
@@ -96,9 +101,7 @@ public class BookingService {
     public List<BookingDTO> getBookingsByLenderId(Long lenderId, boolean includeDeleted) {
         List<Booking> bookings;
         if (includeDeleted) {
-            bookings = bookingRepository.findAll().stream()
-                    .filter(b -> b.getLender() != null && b.getLender().getId().equals(lenderId))
-                    .toList();
+            bookings = bookingRepository.findByLenderIdIncludingDeleted(lenderId);
         } else {
             bookings = bookingRepository.findByLenderId(lenderId);
         }
@@ -111,10 +114,8 @@ public class BookingService {
     public List<BookingDTO> getPendingBookingsByLenderId(Long lenderId, boolean includeDeleted) {
         List<Booking> bookings;
         if (includeDeleted) {
-            bookings = bookingRepository.findAll().stream()
-                    .filter(b -> b.getLender() != null && b.getLender().getId().equals(lenderId))
-                    .filter(b -> b.calculateStatus() == BookingStatus.PENDING)
-                    .toList();
+            // Geloeschte Buchungen sind nie PENDING (calculateStatus() -> REJECTED)
+            bookings = bookingRepository.findAllPendingByLenderId(lenderId, LocalDateTime.now().minusHours(24));
         } else {
             bookings = bookingRepository.findPendingByLenderId(lenderId);
         }
@@ -150,13 +151,7 @@ public class BookingService {
             case "overdue" -> bookings = bookingRepository.findOverdue(now);
 
             // PENDING
-            case "pending" -> bookings = bookingRepository.findAll().stream()
-                    .filter(b -> {
-                        boolean isPendingStr = "PENDING".equalsIgnoreCase(b.getStatus());
-                        boolean isPendingCalc = b.calculateStatus() == BookingStatus.PENDING;
-                        return isPendingStr || isPendingCalc;
-                    })
-                    .toList();
+            case "pending" -> bookings = bookingRepository.findAllPending(threshold24h);
 
             case "confirmed" -> bookings = bookingRepository.findAllConfirmed(threshold24h);
             case "picked_up" -> bookings = bookingRepository.findAllPickedUp();
@@ -199,6 +194,47 @@ public class BookingService {
         return bookingMapper.toDTOList(bookings);
     }
 
+    /**
+     * Dashboard eines Verleihers: laedt alle offenen Buchungen in einer Query und
+     * teilt sie in einem Durchlauf in pending/upcoming/active (inkl. overdue) auf.
+     */
+    public LenderDashboardDTO getLenderDashboard(Long lenderId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> pending = new ArrayList<>();
+        List<Booking> upcoming = new ArrayList<>();
+        List<Booking> active = new ArrayList<>();
+        List<Long> overdueIds = new ArrayList<>();
+
+        for (Booking booking : bookingRepository.findOpenByLenderId(lenderId)) {
+            if (BookingStatus.PICKED_UP.name().equals(booking.getStatus())) {
+                active.add(booking);
+                if (booking.getEndDate() != null && booking.getEndDate().isBefore(now)) {
+                    overdueIds.add(booking.getId());
+                }
+            } else if (BookingStatus.CONFIRMED.name().equals(booking.getStatus())) {
+                upcoming.add(booking);
+            } else if (booking.getProposedPickups() == null) {
+                pending.add(booking);
+            }
+        }
+
+        // Gleiche Sortierung wie die Einzel-Endpoints
+        pending.sort(Comparator.comparing(Booking::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        upcoming.sort(Comparator.comparing(Booking::getConfirmedPickup, Comparator.nullsLast(Comparator.naturalOrder())));
+        active.sort(Comparator.comparing(Booking::getEndDate, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        return LenderDashboardDTO.builder()
+                .pendingCount(pending.size())
+                .upcomingCount(upcoming.size())
+                .activeCount(active.size())
+                .overdueCount(overdueIds.size())
+                .pending(bookingMapper.toDTOList(pending))
+                .upcoming(bookingMapper.toDTOList(upcoming))
+                .active(bookingMapper.toDTOList(active))
+                .overdueIds(overdueIds)
+                .build();
+    }
+
     /**
      * Holt alle Bookings einer Studentengruppe
      */
@@ -207,6 +243,88 @@ public class BookingService {
         return bookingMapper.toDTOList(bookings);
     }
 
+    // ========================================
+    // KEYSET-PAGINATION
+    // ========================================
+
+    /**
+     * Standard- und Maximalgroesse fuer paginierte Listen
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Eine Seite Bookings fuer Keyset-Pagination. nextCursor ist NULL, wenn keine weitere Seite existiert.
+     * Die Controller liefern bookings als Body und nextCursor im Header {@code X-Next-Cursor}.
+     */
+    public record BookingPage(List<BookingDTO> bookings, String nextCursor) {
+    }
+
+    /**
+     * Holt eine Seite aller Bookings (Admin), optional nach Status gefiltert.
+     * Paginiert werden die unbegrenzt wachsenden Listen (alle, picked_up, returned, rejected).
+     * Die uebrigen Status sind zeitlich begrenzt und nur ohne cursor/limit abrufbar (ValidationException).
+     */
+    public BookingPage getAllBookingsPage(String status, String cursor, int limit) {
+        BookingCursor position = BookingCursor.decode(cursor);
+        Limit fetchLimit = fetchLimit(limit);
+
+        if (status == null || status.isBlank()) {
+            return toPage(bookingRepository.findAllActivePage(position.createdAt(), position.id(), fetchLimit), limit);
+        }
+
+        List<Booking> bookings = switch (status.toLowerCase()) {
+            case "picked_up" -> bookingRepository.findAllPickedUpPage(position.createdAt(), position.id(), fetchLimit);
+            case "returned" -> bookingRepository.findAllReturnedPage(position.createdAt(), position.id(), fetchLimit);
+            case "rejected" -> bookingRepository.findAllRejectedPage(position.createdAt(), position.id(), fetchLimit);
+            case "overdue", "pending", "confirmed", "cancelled", "expired" -> throw new ValidationException(
+                    "status=" + status + " cannot be combined with cursor/limit (paged: picked_up, returned, rejected)");
+            default -> throw new IllegalArgumentException(
+                    "Invalid status: " + status +
+                    ". Valid values: overdue, pending, confirmed, picked_up, returned, cancelled, expired, rejected"
+            );
+        };
+        return toPage(bookings, limit);
+    }
+
+    /**
+     * Holt eine Seite der Bookings eines Verleihers
+     */
+    public BookingPage getBookingsByLenderIdPage(Long lenderId, boolean includeDeleted, String cursor, int limit) {
+        BookingCursor position = BookingCursor.decode(cursor);
+        List<Booking> bookings = bookingRepository.findByLenderIdPage(
+                lenderId, includeDeleted, position.createdAt(), position.id(), fetchLimit(limit));
+        return toPage(bookings, limit);
+    }
+
+    /**
+     * Holt eine Seite der Bookings eines Users (als Student/Entleiher)
+     */
+    public BookingPage getBookingsByUserIdPage(Long userId, boolean includeDeleted, String cursor, int limit) {
+        BookingCursor position = BookingCursor.decode(cursor);
+        List<Booking> bookings = bookingRepository.findByUserIdPage(
+                userId, includeDeleted, position.createdAt(), position.id(), fetchLimit(limit));
+        return toPage(bookings, limit);
+    }
+
+    /**
+     * Eine Zeile mehr laden als angefragt, um zu erkennen ob eine weitere Seite existiert
+     */
+    private Limit fetchLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException("limit muss zwischen 1 und " + MAX_PAGE_SIZE + " liegen");
+        }
+        return Limit.of(limit + 1);
+    }
+
+    private BookingPage toPage(List<Booking> bookings, int limit) {
+        if (bookings.size() <= limit) {
+            return new BookingPage(bookingMapper.toDTOList(bookings), null);
+        }
+        List<Booking> page = bookings.subList(0, limit);
+        return new BookingPage(bookingMapper.toDTOList(page), BookingCursor.of(page.getLast()).encode());
+    }
+
     // ========================================
     // PRIVATE ENTITY HELPER
     // ========================================
@@ -243,55 +361,20 @@ public class BookingService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
 
-        List<Item> itemsOfProduct = itemRepository.findByProductId(productId);
+        // Freie Items für Produkt suchen und bis zum Commit sperren. Kein Vorab-Abbruch ueber den
+        // Verfuegbarkeits-Index: der kennt Buchungen anderer Instanzen erst nach dem naechsten Abgleich
+        List<Item> availableItems = reservationService.reserveItems(productId, startDate, endDate, quantity);
 
-        List<Item> availableItems = new ArrayList<>();
-
-        // Suche nach verfügbaren Items für Produkt
-        for(Item item : itemsOfProduct) {
-            // Verfuegbarkeitsprüfung
-            List<Booking> overlapping = bookingRepository.findOverlappingBookings(item.getId(), startDate, endDate);
-            if (overlapping.isEmpty()) {
-                availableItems.add(item);
-            }
-            // Wenn ausreichend verfügbare Items ausgewählt wurden
-            if (availableItems.size() >= quantity) {
-                break;
-            }
-        }
         // Prüfe ob genug Items verfügbar sind
         if(availableItems.size() >= quantity) {
             List<Booking> bookings = new ArrayList<>();
 
             for(Item item : availableItems) {
-                // Verleiher aus Item holen
-                User lender = item.getLender();
-                if (lender == null && item.getProduct() != null) {
-                    lender = item.getLender();
-                }
-                if (lender == null) {
-                    throw new RuntimeException("No lender assigned to this product");
-                }
-                // Erstelle Booking
-                Booking booking = new Booking();
-                booking.setUser(user);
-                booking.setLender(lender);
-                booking.setItem(item);
-                booking.setStartDate(startDate);
-                booking.setEndDate(endDate);
-                booking.setMessage(message);
-                booking.setStatus(BookingStatus.PENDING.name());
+                Booking booking = newBooking(user, item, startDate, endDate, message);
 
                 // Gruppenzuordnung falls angegeben
                 if (groupId != null) {
-                    StudentGroup group = studentGroupRepository.findActiveById(groupId)
-                            .orElseThrow(() -> new RuntimeException("Group not found with id: " + groupId));
-
-                    // Pruefen ob User Mitglied der Gruppe ist
-                    if (!group.isMember(user)) {
-                        throw new RuntimeException("User is not a member of the specified group");
-                    }
-
+                    StudentGroup group = resolveGroup(groupId, user);
                     booking.setStudentGroup(group);
                     log.info("Gruppenbuchung erstellt: User {} fuer Gruppe '{}', Item {}",
                             user.getName(), group.getName(), item.getInvNumber());
@@ -305,6 +388,82 @@ public class BookingService {
         }
     }
 
+    /**
+     * Erstellt Buchungen fuer mehrere Products im selben Zeitraum in einer Transaktion (Warenkorb).
+     * Verfuegbarkeit aller Positionen wird gemeinsam geprueft; fehlt bei einer Position etwas, wird nichts gebucht.
+     */
+    @Transactional
+    public List<BookingDTO> createCartBooking(Long userId, CartBookingRequestDTO request) {
+        LocalDateTime startDate = request.getStartDate();
+        LocalDateTime endDate = request.getEndDate();
+        if (!endDate.isAfter(startDate)) {
+            throw new ValidationException("Enddatum muss nach dem Startdatum liegen");
+        }
+
+        // Positionen desselben Products zusammenfassen (Reihenfolge der Anfrage bleibt erhalten)
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CartBookingRequestDTO.Line line : request.getLines()) {
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        StudentGroup group = request.getGroupId() != null ? resolveGroup(request.getGroupId(), user) : null;
+
+        // Items aller Products gemeinsam sperren und freie Items waehlen
+        Map<Long, List<Item>> reserved = reservationService.reserveItems(quantities, startDate, endDate);
+        List<Long> unavailable = quantities.entrySet().stream()
+                .filter(entry -> reserved.getOrDefault(entry.getKey(), List.of()).size() < entry.getValue())
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!unavailable.isEmpty()) {
+            throw new ConflictException("Not enough items available for products " + unavailable);
+        }
+
+        List<Booking> bookings = new ArrayList<>();
+        for (Long productId : quantities.keySet()) {
+            for (Item item : reserved.get(productId)) {
+                Booking booking = newBooking(user, item, startDate, endDate, request.getMessage());
+                booking.setStudentGroup(group);
+                bookings.add(booking);
+            }
+        }
+
+        // Ein saveAll, Inserts werden ueber hibernate.jdbc.batch_size gebuendelt geflusht
+        List<Booking> saved = bookingRepository.saveAll(bookings);
+        log.info("Warenkorb-Buchung erstellt: User {}, {} Bookings fuer {} Produkte",
+                user.getName(), saved.size(), quantities.size());
+        return bookingMapper.toDTOList(saved);
+    }
+
+    private Booking newBooking(User user, Item item, LocalDateTime startDate, LocalDateTime endDate, String message) {
+        // Verleiher aus Item holen
+        User lender = item.getLender();
+        if (lender == null) {
+            throw new RuntimeException("No lender assigned to this product");
+        }
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setLender(lender);
+        booking.setItem(item);
+        booking.setStartDate(startDate);
+        booking.setEndDate(endDate);
+        booking.setMessage(message);
+        booking.setStatus(BookingStatus.PENDING.name());
+        return booking;
+    }
+
+    private StudentGroup resolveGroup(Long groupId, User user) {
+        StudentGroup group = studentGroupRepository.findActiveById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found with id: " + groupId));
+
+        // Pruefen ob User Mitglied der Gruppe ist
+        if (!group.isMember(user)) {
+            throw new RuntimeException("User is not a member of the specified group");
+        }
+        return group;
+    }
+
     // ========================================
     // UPDATE METHODEN & EMAIL LOGIK
     // ========================================
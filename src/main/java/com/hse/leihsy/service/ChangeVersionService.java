@@ -0,0 +1,119 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.dto.ChangeVersion;
+import com.hse.leihsy.repository.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Berechnet ETag/Last-Modified fuer Conditional GET auf Listen-Endpoints.
+ *
+ * Pro Scope (Verleiher, User, Gruppe, Katalog) wird nur ein Aggregat (MAX(updatedAt), COUNT)
+ * abgefragt. Ist der Stand unveraendert, antwortet der Controller mit 304, ohne Entities zu laden.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ChangeVersionService {
+
+    /**
+     * Buchungs-DTOs enthalten zeitabhaengige Felder (Status nach 24h, urgent, overdue),
+     * die sich ohne Update aendern. Der ETag wechselt deshalb spaetestens nach diesem Intervall.
+     */
+    static final Duration BOOKING_TIME_BUCKET = Duration.ofMinutes(1);
+
+    private final BookingRepository bookingRepository;
+    private final StudentGroupRepository studentGroupRepository;
+    private final ProductRepository productRepository;
+    private final ItemRepository itemRepository;
+    private final CategoryRepository categoryRepository;
+    private final LocationRepository locationRepository;
+    private final ProductSetRepository productSetRepository;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    /**
+     * ETag (weak) und Last-Modified (epoch millis) fuer WebRequest.checkNotModified()
+     */
+    public record Version(String etag, long lastModified) {
+    }
+
+    /**
+     * Buchungen eines Verleihers (/api/lenders/{id}/...)
+     */
+    public Version forLender(Long lenderId) {
+        return bookingVersion("lender-" + lenderId, bookingRepository.findChangeVersionByLenderId(lenderId));
+    }
+
+    /**
+     * Buchungen eines Users (/api/users/{id}/bookings)
+     */
+    public Version forUser(Long userId) {
+        return bookingVersion("user-" + userId, bookingRepository.findChangeVersionByUserId(userId));
+    }
+
+    /**
+     * Buchungen einer Gruppe inkl. Mitglieder (/api/bookings/groups/{id})
+     */
+    public Version forGroup(Long groupId) {
+        return bookingVersion("group-" + groupId,
+                bookingRepository.findChangeVersionByGroupId(groupId),
+                studentGroupRepository.findChangeVersionById(groupId));
+    }
+
+    /**
+     * Produktkatalog (/api/products). Verfuegbarkeit haengt von Items und Buchungen ab,
+     * Kategorie/Raum/Zubehoer von den jeweiligen Tabellen.
+     */
+    public Version forCatalog() {
+        return version("catalog", null,
+                productRepository.findChangeVersion(),
+                itemRepository.findChangeVersion(),
+                bookingRepository.findChangeVersion(),
+                categoryRepository.findChangeVersion(),
+                locationRepository.findChangeVersion(),
+                productSetRepository.findChangeVersion());
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private Version bookingVersion(String scope, ChangeVersion... versions) {
+        long bucketMillis = BOOKING_TIME_BUCKET.toMillis();
+        long bucketStart = clock.millis() / bucketMillis * bucketMillis;
+        return version(scope, bucketStart, versions);
+    }
+
+    private Version version(String scope, Long bucketStart, ChangeVersion... versions) {
+        StringBuilder raw = new StringBuilder(scope);
+        long lastModified = bucketStart != null ? bucketStart : 0L;
+
+        for (ChangeVersion version : versions) {
+            long millis = toMillis(version.lastModified());
+            raw.append('|').append(millis).append(':').append(version.count());
+            lastModified = Math.max(lastModified, millis);
+        }
+        if (bucketStart != null) {
+            raw.append("|t").append(bucketStart);
+        }
+
+        String etag = "W/\"" + scope + "-" + DigestUtils.md5DigestAsHex(raw.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        return new Version(etag, lastModified);
+    }
+
+    private long toMillis(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return 0L;
+        }
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,112 @@
+package com.hse.leihsy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Byte-Cache fuer haeufig abgerufene Bilder (Originale und Varianten) vor dem Dateisystem.
+ *
+ * Begrenzt nach Bytes, nicht nach Eintraegen; Bilder ueber max-entry-size werden nicht gecacht,
+ * damit einzelne 5MB-Originale nicht die Katalog-Kacheln verdraengen. Treffer kommen aus dem Heap
+ * ohne Dateizugriff. Invalidierung durch {@link ImageService} beim Speichern und Loeschen.
+ * Metriken unter /actuator/metrics/cache.gets?tag=cache:images und leihsy.images.cache.*.
+ */
+@Slf4j
+@Component
+public class ImageCache {
+
+    static final String CACHE_NAME = "images";
+
+    /**
+     * Gecachtes Bild als Resource mit Dateiname und Aenderungszeit (fuer ETag/Last-Modified)
+     */
+    public static class CachedImage extends ByteArrayResource {
+
+        private final String filename;
+        private final long lastModified;
+
+        CachedImage(String filename, byte[] content, long lastModified) {
+            super(content, "cached image " + filename);
+            this.filename = filename;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+    }
+
+    private final Cache<Path, CachedImage> cache;
+    private final long maxEntrySize;
+
+    public ImageCache(MeterRegistry meterRegistry,
+                      @Value("${leihsy.images.cache.max-size:64MB}") DataSize maxSize,
+                      @Value("${leihsy.images.cache.max-entry-size:1MB}") DataSize maxEntrySize) {
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Path file, CachedImage image) -> (int) Math.min(Integer.MAX_VALUE, image.contentLength()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("leihsy.images.cache.resident", this, ImageCache::residentBytes)
+                .baseUnit("bytes")
+                .description("Bytes der im Speicher gehaltenen Bilder")
+                .register(meterRegistry);
+        Gauge.builder("leihsy.images.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Anteil der Bildabrufe ohne Dateizugriff")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Bild aus dem Cache, beim ersten Abruf einmal von der Platte gelesen.
+     * NULL, wenn die Datei fehlt oder zu gross fuer den Cache ist (Aufrufer liefert dann aus der Datei).
+     */
+    public Resource get(Path file) {
+        return cache.get(file, this::read);
+    }
+
+    public void invalidate(Path file) {
+        cache.invalidate(file);
+    }
+
+    long residentBytes() {
+        cache.cleanUp();
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    private CachedImage read(Path file) {
+        try {
+            if (!Files.isRegularFile(file) || Files.size(file) > maxEntrySize) {
+                return null;
+            }
+            return new CachedImage(file.getFileName().toString(), Files.readAllBytes(file),
+                    Files.getLastModifiedTime(file).toMillis());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not cache image {}", file.getFileName(), e);
+            return null;
+        }
+    }
+}
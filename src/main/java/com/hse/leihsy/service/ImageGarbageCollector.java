@@ -0,0 +1,215 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.exception.FileStorageException;
+import com.hse.leihsy.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Loescht Bilder, die kein aktives Product mehr referenziert (ersetzte Bilder und Bilder geloeschter
+ * Products, die ProductService bewusst liegen laesst, Uploads ueber /api/images ohne Product,
+ * abgebrochene Temp-Dateien).
+ *
+ * Inkrementell: pro Lauf werden Shard-Verzeichnisse ab dem letzten Stand gelesen, bis batch-size
+ * Dateien geprueft sind. Referenzen kommen aus einer Abfrage, geloescht wird erst nach der Schonfrist
+ * (Upload vor dem Anlegen des Products). Freigegebene Bytes unter /actuator/metrics/leihsy.images.gc.reclaimed.
+ */
+@Slf4j
+@Service
+public class ImageGarbageCollector {
+
+    /**
+     * Ergebnis eines Laufs
+     */
+    public record SweepResult(int checked, int deleted, long reclaimedBytes) {
+    }
+
+    private final ImageService imageService;
+    private final ProductRepository productRepository;
+    private final Counter reclaimedCounter;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final Clock clock;
+
+    // Letztes vollstaendig geprueftes Shard-Verzeichnis; NULL = naechster Lauf beginnt von vorn
+    private String cursor;
+
+    @Autowired
+    public ImageGarbageCollector(ImageService imageService,
+                                 ProductRepository productRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${leihsy.images.gc.grace-period:24h}") Duration gracePeriod,
+                                 @Value("${leihsy.images.gc.batch-size:1000}") int batchSize) {
+        this(imageService, productRepository, meterRegistry, gracePeriod, batchSize, Clock.systemDefaultZone());
+    }
+
+    ImageGarbageCollector(ImageService imageService, ProductRepository productRepository, MeterRegistry meterRegistry,
+                          Duration gracePeriod, int batchSize, Clock clock) {
+        this.imageService = imageService;
+        this.productRepository = productRepository;
+        this.reclaimedCounter = Counter.builder("leihsy.images.gc.reclaimed")
+                .baseUnit("bytes")
+                .description("Durch geloeschte verwaiste Bilder freigegebener Speicher")
+                .register(meterRegistry);
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+        this.clock = clock;
+    }
+
+    public synchronized SweepResult sweep() {
+        Path root = imageService.root();
+        if (!Files.isDirectory(root)) {
+            return new SweepResult(0, 0, 0);
+        }
+
+        Set<String> referenced = productRepository.findReferencedImageUrls().stream()
+                .map(ImageService::filenameOf)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Sweep sweep = new Sweep(referenced, clock.instant().minus(gracePeriod));
+
+        try {
+            // Alte Dateinamen liegen flach im Upload-Verzeichnis und werden bei jedem Lauf geprueft
+            List<Path> directories = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(root)) {
+                for (Path entry : entries) {
+                    if (Files.isDirectory(entry)) {
+                        directories.add(entry);
+                    } else {
+                        sweep.check(entry);
+                    }
+                }
+            }
+
+            directories.sort(Comparator.comparing(dir -> dir.getFileName().toString()));
+            int start = 0;
+            while (cursor != null && start < directories.size()
+                    && directories.get(start).getFileName().toString().compareTo(cursor) <= 0) {
+                start++;
+            }
+            cursor = null;
+            for (Path directory : directories.subList(start, directories.size())) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                    for (Path file : files) {
+                        sweep.check(file);
+                    }
+                }
+                if (sweep.checked >= batchSize) {
+                    cursor = directory.getFileName().toString();
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Image garbage collection aborted", e);
+        }
+
+        reclaimedCounter.increment(sweep.reclaimedBytes);
+        SweepResult result = new SweepResult(sweep.checked, sweep.deleted, sweep.reclaimedBytes);
+        if (result.deleted() > 0) {
+            log.info("Image garbage collection: checked {}, deleted {}, reclaimed {} bytes",
+                    result.checked(), result.deleted(), result.reclaimedBytes());
+        }
+        return result;
+    }
+
+    /**
+     * Zustand eines Laufs
+     */
+    private class Sweep {
+
+        private final Set<String> referenced;
+        private final Instant cutoff;
+        private final Set<String> deletedNames = new HashSet<>();
+        private int checked;
+        private int deleted;
+        private long reclaimedBytes;
+
+        Sweep(Set<String> referenced, Instant cutoff) {
+            this.referenced = referenced;
+            this.cutoff = cutoff;
+        }
+
+        void check(Path file) throws IOException {
+            if (!Files.isRegularFile(file)) {
+                return;
+            }
+            checked++;
+            String name = file.getFileName().toString();
+
+            // Reste abgebrochener Uploads/Varianten
+            if (name.startsWith(".") || file.getParent().getFileName().toString().equals(ImageService.TEMP_DIR)) {
+                if (isExpired(file)) {
+                    long size = sizeOf(file);
+                    Files.deleteIfExists(file);
+                    deleted++;
+                    reclaimedBytes += size;
+                }
+                return;
+            }
+
+            // Varianten gehoeren zum Original und werden mit ihm geloescht
+            String original = ImageVariantService.isVariant(file) ? originalNameOf(name) : name;
+            if (referenced.contains(original) || deletedNames.contains(original)) {
+                return;
+            }
+            Path originalFile = file.resolveSibling(original);
+            if (!isExpired(Files.exists(originalFile) ? originalFile : file)) {
+                return;
+            }
+
+            long size = sizeOf(originalFile);
+            for (int width : ImageVariantService.WIDTHS) {
+                size += sizeOf(ImageVariantService.variantPath(originalFile, width));
+            }
+            try {
+                imageService.deleteImage(original);
+            } catch (FileStorageException e) {
+                log.warn("Could not delete orphaned image {}", original, e);
+                return;
+            }
+            deletedNames.add(original);
+            deleted++;
+            reclaimedBytes += size;
+        }
+
+        private boolean isExpired(Path file) throws IOException {
+            try {
+                return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+        }
+
+        private long sizeOf(Path file) throws IOException {
+            try {
+                return Files.size(file);
+            } catch (NoSuchFileException e) {
+                return 0;
+            }
+        }
+    }
+
+    private static String originalNameOf(String variantName) {
+        return variantName.replaceFirst("-w\\d+(\\.[^.]+)$", "$1");
+    }
+}
@@ -3,63 +3,139 @@ package com.hse.leihsy.service;
 import com.hse.leihsy.exception.FileStorageException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
+/**
+ * Ablage der Produktbilder, adressiert ueber den SHA-256 des Inhalts.
+ *
+ * Dateiname = Hash + Endung (z.B. "3f2a...e1.jpg"), abgelegt unter &lt;upload-dir&gt;/3f/3f2a...e1.jpg.
+ * Uploads werden in eine Temp-Datei gestreamt (Hash wird dabei berechnet) und atomar verschoben;
+ * identische Bilder werden nur einmal gespeichert. Der Name aendert sich mit dem Inhalt, Browser-Caches
+ * werden also nie veraltet.
+ *
+ * Alte Dateinamen (Produktname + Endung, flach im Upload-Verzeichnis) werden weiterhin aufgeloest.
+ * Verkleinerte Varianten erzeugt {@link ImageVariantService} asynchron nach dem Upload,
+ * haeufig abgerufene Bilder haelt {@link ImageCache} im Speicher.
+ */
 @Slf4j
 @Service
 public class ImageService {
 
-    @Value("${app.upload.dir}")
-    private String uploadDir;
+    /**
+     * URL-Praefix, unter dem Bilder ausgeliefert werden (Product.imageUrl)
+     */
+    public static final String URL_PREFIX = "/api/images/";
 
     private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList("jpg", "jpeg", "png", "webp");
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
 
-    public String saveImage(MultipartFile file, String productName) {
-        validateImage(file);
+    private static final Pattern HASHED_NAME = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|webp)");
+    private static final Pattern HASHED_VARIANT_NAME = Pattern.compile("[0-9a-f]{64}-w\\d+\\.(jpg|png|webp)");
+    private static final Pattern SAFE_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+    static final String TEMP_DIR = ".tmp";
 
-        String originalFilename = file.getOriginalFilename();
-        String extension = getFileExtension(originalFilename);
+    private final Path root;
+    private final ImageVariantService variantService;
+    private final ImageCache imageCache;
 
-        // Produktname zu URL-freundlichem Dateinamen konvertieren
-        String sanitizedName = productName
-                .toLowerCase()
-                .replaceAll("[^a-z0-9]+", "-")  // Nur Buchstaben, Zahlen, Rest wird zu "-"
-                .replaceAll("^-+|-+$", "");      // Führende/Trailing "-" entfernen
+    public ImageService(@Value("${app.upload.dir}") String uploadDir, ImageVariantService variantService,
+                        ImageCache imageCache) {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.variantService = variantService;
+        this.imageCache = imageCache;
+    }
 
-        String filename = sanitizedName + "." + extension;
+    /**
+     * Speichert ein Bild und liefert den inhaltsbasierten Dateinamen
+     */
+    public String saveImage(MultipartFile file) {
+        validateImage(file);
+        String extension = normalizeExtension(getFileExtension(file.getOriginalFilename()));
 
+        Path tempFile = null;
         try {
-            Path filepath = Paths.get(uploadDir, filename);
-            Files.createDirectories(filepath.getParent());
+            Path tempDir = Files.createDirectories(root.resolve(TEMP_DIR));
+            tempFile = Files.createTempFile(tempDir, "upload-", "." + extension);
 
-            // Altes Bild mit gleichem Namen löschen falls vorhanden
-            Files.deleteIfExists(filepath);
+            // Streamen statt file.getBytes(): Hash wird beim Schreiben berechnet
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
 
-            Files.write(filepath, file.getBytes());
+            String filename = HexFormat.of().formatHex(digest.digest()) + "." + extension;
+            Path target = resolve(filename);
+            if (Files.exists(target)) {
+                log.info("Image already stored, reusing: {}", filename);
+                // Aenderungszeit erneuern: ein verwaistes Bild wird so erst nach Ablauf der Schonfrist geloescht
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                variantService.schedule(target);
+                return filename;
+            }
+
+            Files.createDirectories(target.getParent());
+            moveAtomically(tempFile, target);
+            tempFile = null;
+            imageCache.invalidate(target);
 
             log.info("Image saved successfully: {}", filename);
+            variantService.schedule(target);
             return filename;
         } catch (IOException e) {
-            log.error("Failed to save image: {}", originalFilename, e);
+            log.error("Failed to save image: {}", file.getOriginalFilename(), e);
             throw new FileStorageException("Failed to save image", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } finally {
+            deleteQuietly(tempFile);
         }
     }
 
     public Resource loadImage(String filename) {
+        return open(resolve(filename), filename);
+    }
+
+    /**
+     * Bild fuer eine gewuenschte Breite: naechstgroessere Variante, sonst das Original
+     * (solange die Variante noch nicht erzeugt wurde oder die Breite ueber der groessten Variante liegt)
+     */
+    public Resource loadImage(String filename, int width) {
+        Path original = resolve(filename);
+        Path variant = variantService.findVariant(original, width);
+        return open(variant != null ? variant : original, filename);
+    }
+
+    // Aus dem Cache, sonst (zu gross fuer den Cache) direkt aus der Datei
+    private Resource open(Path file, String filename) {
+        Resource cached = imageCache.get(file);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            Path file = Paths.get(uploadDir).resolve(filename).normalize();
             Resource resource = new UrlResource(file.toUri());
 
             if (resource.exists() && resource.isReadable()) {
@@ -75,8 +151,15 @@ public class ImageService {
 
     public void deleteImage(String filename) {
         try {
-            Path file = Paths.get(uploadDir).resolve(filename).normalize();
+            Path file = resolve(filename);
+            for (int width : ImageVariantService.WIDTHS) {
+                Path variant = ImageVariantService.variantPath(file, width);
+                Files.deleteIfExists(variant);
+                imageCache.invalidate(variant);
+            }
             Files.deleteIfExists(file);
+            imageCache.invalidate(file);
+            variantService.forget(file);
             log.info("Image deleted successfully: {}", filename);
         } catch (IOException e) {
             log.error("Failed to delete image: {}", filename, e);
@@ -84,6 +167,110 @@ public class ImageService {
         }
     }
 
+    /**
+     * Dateiname aus einer Bild-URL (/api/images/...), NULL fuer externe URLs
+     */
+    public static String filenameOf(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(URL_PREFIX)) {
+            return null;
+        }
+        return imageUrl.substring(URL_PREFIX.length());
+    }
+
+    /**
+     * Hash-Namen aendern sich mit dem Inhalt und duerfen unbegrenzt gecacht werden
+     */
+    public static boolean isContentAddressed(String filename) {
+        return filename != null && HASHED_NAME.matcher(filename).matches();
+    }
+
+    /**
+     * Hash-Namen und ihre Varianten ("&lt;hash&gt;-w200.jpg") aendern sich nie
+     */
+    public static boolean isImmutable(String filename) {
+        return isContentAddressed(filename)
+                || (filename != null && HASHED_VARIANT_NAME.matcher(filename).matches());
+    }
+
+    /**
+     * ETag eines Bildes: bei Hash-Namen der Inhalts-Hash (stark), bei alten Namen Groesse und Aenderungszeit (schwach)
+     */
+    public static String etagOf(String filename, long size, long lastModified) {
+        if (isImmutable(filename)) {
+            return "\"" + filename.substring(0, filename.indexOf('.')) + "\"";
+        }
+        return "W/\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    /**
+     * Upload-Verzeichnis (fuer Backfill und {@link ImageGarbageCollector})
+     */
+    Path root() {
+        return root;
+    }
+
+    /**
+     * Pfad zu einem Dateinamen: Hash-Namen liegen unter einem Unterverzeichnis aus den ersten
+     * zwei Zeichen, alte Namen flach im Upload-Verzeichnis
+     */
+    Path resolve(String filename) {
+        if (filename == null || !SAFE_NAME.matcher(filename).matches()) {
+            throw new FileStorageException("Invalid file name: " + filename);
+        }
+        if (isContentAddressed(filename)) {
+            return root.resolve(filename.substring(0, 2)).resolve(filename);
+        }
+        return root.resolve(filename);
+    }
+
+    /**
+     * Backfill: erzeugt fehlende Varianten fuer alle vorhandenen Originale (auch alte Dateinamen).
+     * Laeuft beim Start im Hintergrund und wartet bei voller Queue, statt Bilder zu verwerfen.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillVariants() {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try {
+            variantService.backfill(originals());
+        } catch (IOException e) {
+            log.warn("Image variant backfill failed", e);
+        }
+    }
+
+    /**
+     * Alle Originale im Upload-Verzeichnis (ohne Varianten und Temp-Dateien)
+     */
+    List<Path> originals() throws IOException {
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getParent().getFileName().toString().equals(TEMP_DIR))
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .filter(file -> !ImageVariantService.isVariant(file))
+                    .toList();
+        }
+    }
+
+    static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file: {}", file, e);
+        }
+    }
+
     private void validateImage(MultipartFile file) {
         if (file.isEmpty()) {
             throw new FileStorageException("File is empty");
@@ -106,10 +293,16 @@ public class ImageService {
         }
     }
 
+    // Gleicher Inhalt soll unabhaengig von .jpeg/.JPG denselben Namen bekommen
+    private String normalizeExtension(String extension) {
+        String lower = extension.toLowerCase(Locale.ROOT);
+        return lower.equals("jpeg") ? "jpg" : lower;
+    }
+
     private String getFileExtension(String filename) {
         if (filename == null || !filename.contains(".")) {
             throw new FileStorageException("File has no extension");
         }
         return filename.substring(filename.lastIndexOf(".") + 1);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,372 @@
+package com.hse.leihsy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Erzeugt verkleinerte Varianten der Produktbilder (JDK ImageIO) fuer Katalog-Kacheln und Detailseiten.
+ *
+ * Varianten liegen neben dem Original ("&lt;name&gt;-w200.jpg") und werden nie hochskaliert.
+ * Erzeugung laeuft in einem eigenen Pool mit fester Threadzahl und begrenzter Queue, da ein dekodiertes
+ * 5MB-JPEG leicht 50MB Heap belegt. Volle Queue = Auftrag verworfen, der Backfill holt ihn nach.
+ * Bilder mit mehr als max-pixels Pixeln (laut Header) werden nicht dekodiert.
+ * WebP kann ImageIO nicht lesen, dafuer werden keine Varianten erzeugt (Original wird ausgeliefert).
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    /**
+     * Breiten der Varianten in Pixeln, aufsteigend
+     */
+    public static final List<Integer> WIDTHS = List.of(200, 400, 800);
+
+    private static final Pattern VARIANT_NAME = Pattern.compile(".+-w\\d+\\.[A-Za-z]+");
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final long DEFAULT_MAX_PIXELS = 50_000_000L;
+    private static final long REJECTED_RETRY_MILLIS = 500;
+    private static final long RESOLVED_MAX_SIZE = 50_000;
+
+    private final Executor executor;
+    private final int backfillSlots;
+    // Backfill-Auftraege im Pool (belegt hoechstens backfillSlots Plaetze, der Rest bleibt fuer Uploads)
+    private final Semaphore backfillPermits;
+    private final long maxPixels;
+    private volatile Thread backfillThread;
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+    // Bereits verarbeitete Originale: Abrufe planen fuer zu kleine/unlesbare Bilder nicht jedes Mal neu ein
+    private final Set<Path> settled = ConcurrentHashMap.newKeySet();
+    // Aufgeloeste Variante je (Original, Breitenstufe), Schluessel ist der Pfad der passenden Variante
+    private final Cache<Path, Optional<Path>> resolved = Caffeine.newBuilder()
+            .maximumSize(RESOLVED_MAX_SIZE)
+            .build();
+
+    @Autowired
+    public ImageVariantService(@Value("${leihsy.images.variants.threads:2}") int threads,
+                               @Value("${leihsy.images.variants.queue-capacity:100}") int queueCapacity,
+                               @Value("${leihsy.images.variants.max-pixels:50000000}") long maxPixels) {
+        this(newExecutor(threads, queueCapacity), threads, maxPixels);
+    }
+
+    ImageVariantService(Executor executor) {
+        this(executor, 1, DEFAULT_MAX_PIXELS);
+    }
+
+    ImageVariantService(Executor executor, int backfillSlots, long maxPixels) {
+        this.executor = executor;
+        this.backfillSlots = backfillSlots;
+        this.backfillPermits = new Semaphore(backfillSlots);
+        this.maxPixels = maxPixels;
+    }
+
+    private static ExecutorService newExecutor(int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread backfill = backfillThread;
+        if (backfill != null) {
+            backfill.interrupt();
+        }
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Pfad der Variante einer Breite (neben dem Original)
+     */
+    public static Path variantPath(Path original, int width) {
+        String name = original.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return original.resolveSibling(name.substring(0, dot) + "-w" + width + name.substring(dot));
+    }
+
+    public static boolean isVariant(Path file) {
+        return VARIANT_NAME.matcher(file.getFileName().toString()).matches();
+    }
+
+    /**
+     * Beste vorhandene Variante fuer eine gewuenschte Breite: die kleinste, die mindestens so breit ist.
+     * NULL, wenn keine passt (breiter als die groesste Variante) oder noch keine erzeugt wurde.
+     * Endgueltige Ergebnisse werden gemerkt, wiederholte Abrufe pruefen das Dateisystem nicht erneut.
+     */
+    public Path findVariant(Path original, int requestedWidth) {
+        Integer bucket = WIDTHS.stream().filter(width -> width >= requestedWidth).findFirst().orElse(null);
+        if (bucket == null) {
+            return null;
+        }
+        Path key = variantPath(original, bucket);
+        Optional<Path> known = resolved.getIfPresent(key);
+        if (known != null) {
+            return known.orElse(null);
+        }
+
+        for (int width : WIDTHS) {
+            if (width < bucket) {
+                continue;
+            }
+            Path variant = variantPath(original, width);
+            if (Files.exists(variant)) {
+                // Groessere Variante nur merken, wenn die passende nicht mehr erzeugt wird
+                if (width == bucket || settled.contains(original)) {
+                    resolved.put(key, Optional.of(variant));
+                }
+                return variant;
+            }
+        }
+        if (settled.contains(original)) {
+            resolved.put(key, Optional.empty());
+        } else {
+            schedule(original);
+        }
+        return null;
+    }
+
+    /**
+     * Vergisst die gemerkten Varianten eines Originals (nach dem Loeschen)
+     */
+    public void forget(Path original) {
+        for (int width : WIDTHS) {
+            resolved.invalidate(variantPath(original, width));
+        }
+        settled.remove(original);
+    }
+
+    /**
+     * Erzeugt fehlende Varianten asynchron (mehrfache Auftraege fuer dasselbe Bild werden zusammengefasst)
+     */
+    public void schedule(Path original) {
+        try {
+            submit(original, () -> { });
+        } catch (RejectedExecutionException e) {
+            log.warn("Image variant queue full, skipping {} (backfill will retry)", original.getFileName());
+        }
+    }
+
+    /**
+     * Backfill fuer vorhandene Originale in einem eigenen Thread. Der Thread wartet auf freie Plaetze,
+     * statt Auftraege an der vollen Queue zu verwerfen, und belegt hoechstens so viele Plaetze wie der Pool Threads hat.
+     */
+    public void backfill(List<Path> originals) {
+        Thread thread = new Thread(() -> runBackfill(originals), "image-variants-backfill");
+        thread.setDaemon(true);
+        backfillThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Plant die Originale nacheinander ein und kehrt zurueck, wenn alle verarbeitet sind
+     */
+    void runBackfill(List<Path> originals) {
+        int scheduled = 0;
+        try {
+            for (Path original : originals) {
+                backfillPermits.acquire();
+                if (!settled.contains(original) && submitWaiting(original)) {
+                    scheduled++;
+                } else {
+                    // Schon verarbeitet oder in Arbeit (z.B. Auftrag des Uploads)
+                    backfillPermits.release();
+                }
+            }
+            backfillPermits.acquire(backfillSlots);
+            backfillPermits.release(backfillSlots);
+            log.info("Image variant backfill finished: {} of {} images scheduled", scheduled, originals.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Image variant backfill interrupted after {} images", scheduled);
+        }
+    }
+
+    // Wiederholt, solange die Queue durch andere Auftraege voll ist; gibt den Platz nach der Erzeugung frei
+    private boolean submitWaiting(Path original) throws InterruptedException {
+        while (true) {
+            try {
+                return submit(original, backfillPermits::release);
+            } catch (RejectedExecutionException e) {
+                if (executor instanceof ExecutorService executorService && executorService.isShutdown()) {
+                    throw new InterruptedException("Image variant executor shut down");
+                }
+                Thread.sleep(REJECTED_RETRY_MILLIS);
+            }
+        }
+    }
+
+    // true wenn eingeplant, false wenn das Bild schon in Arbeit ist; onDone laeuft nach der Erzeugung
+    private boolean submit(Path original, Runnable onDone) {
+        if (!inFlight.add(original)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(original);
+                    settled.add(original);
+                } finally {
+                    inFlight.remove(original);
+                    onDone.run();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(original);
+            throw e;
+        }
+    }
+
+    /**
+     * Erzeugt alle fehlenden Varianten eines Bildes, die schmaler als das Original sind
+     */
+    void generate(Path original) {
+        if (WIDTHS.stream().allMatch(width -> Files.exists(variantPath(original, width)))) {
+            return;
+        }
+        try {
+            BufferedImage source = read(original);
+            if (source == null) {
+                return;
+            }
+            String format = formatOf(original);
+            for (int width : WIDTHS) {
+                Path variant = variantPath(original, width);
+                if (width >= source.getWidth() || Files.exists(variant)) {
+                    continue;
+                }
+                int imageType = format.equals("png") ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+                write(scale(source, width, imageType), format, variant);
+            }
+            log.info("Image variants generated for {}", original.getFileName());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate image variants for {}", original.getFileName(), e);
+        }
+    }
+
+    /**
+     * Dekodiert ein Bild, wenn es hoechstens maxPixels Pixel hat. Die Groesse kommt aus dem Header:
+     * ein stark komprimiertes PNG mit riesigen Abmessungen wuerde sonst Gigabytes Heap belegen.
+     *
+     * @return NULL wenn ImageIO das Format nicht lesen kann oder das Bild zu gross ist
+     */
+    private BufferedImage read(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                log.debug("No ImageIO reader for {}, no variants", file.getFileName());
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("Image {} too large for variants ({}x{}), serving original only",
+                            file.getFileName(), width, height);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Skaliert in Halbierungsschritten (bilinear), damit beim starken Verkleinern keine Details verloren gehen
+     */
+    static BufferedImage scale(BufferedImage source, int width, int imageType) {
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, imageType);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            graphics.dispose();
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    // In Temp-Datei schreiben und atomar verschieben, damit nie eine halbe Variante ausgeliefert wird
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        Path tempFile = Files.createTempFile(target.getParent(), ".variant-", "." + format);
+        try {
+            if (format.equals("jpg")) {
+                writeJpeg(image, tempFile);
+            } else if (!ImageIO.write(image, format, tempFile.toFile())) {
+                throw new IOException("No ImageIO writer for " + format);
+            }
+            ImageService.moveAtomically(tempFile, target);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        return extension.equals("jpeg") ? "jpg" : extension;
+    }
+}
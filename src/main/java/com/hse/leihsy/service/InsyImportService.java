@@ -29,6 +29,7 @@ public class InsyImportService {
     private final LocationRepository locationRepository;
     private final UserRepository userRepository;
     private final InsyImportMapper importMapper;
+    private final ProductSearchIndex productSearchIndex;
 
     // ========================================
     // RECEIVE DATA FROM INSY
@@ -295,6 +296,7 @@ public class InsyImportService {
         newProduct.setExpiryDate(request.getExpiryDate());
         newProduct.setIsActive(true);
         newProduct = productRepository.save(newProduct);
+        productSearchIndex.productChanged(newProduct);
 
         // Neues Item erstellen
         Item newItem = Item.builder()
@@ -0,0 +1,75 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.dto.ItemGap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Auswahl der Items fuer eine neue Buchung aus den im Zeitraum freien Items.
+ *
+ * Konfiguration ueber leihsy.booking.allocation-strategy (FIRST_FIT oder BEST_FIT).
+ */
+public enum ItemAllocationStrategy {
+
+    /**
+     * Die ersten freien Items nach ID (bisheriges Verhalten)
+     */
+    FIRST_FIT {
+        @Override
+        public boolean needsGaps() {
+            return false;
+        }
+
+        @Override
+        public List<ItemGap> select(List<ItemGap> candidates, LocalDateTime startDate, LocalDateTime endDate, int quantity) {
+            return candidates.stream()
+                    .sorted(Comparator.comparing(ItemGap::itemId))
+                    .limit(quantity)
+                    .toList();
+        }
+    },
+
+    /**
+     * Die Items, deren freie Luecke den Zeitraum am knappsten umschliesst.
+     * Grosse zusammenhaengende Luecken bleiben so fuer spaetere lange Buchungen erhalten.
+     */
+    BEST_FIT {
+        @Override
+        public boolean needsGaps() {
+            return true;
+        }
+
+        @Override
+        public List<ItemGap> select(List<ItemGap> candidates, LocalDateTime startDate, LocalDateTime endDate, int quantity) {
+            // Offene Luecken (keine Folgebuchung) zuletzt, sonst nach Restzeit vor + nach dem Zeitraum
+            Comparator<ItemGap> tightest = Comparator
+                    .comparing((ItemGap gap) -> gap.nextStart() == null)
+                    .thenComparing(gap -> slack(gap, startDate, endDate))
+                    .thenComparing(ItemGap::itemId);
+            return candidates.stream()
+                    .sorted(tightest)
+                    .limit(quantity)
+                    .toList();
+        }
+    };
+
+    /**
+     * Ob die Auswahl previousEnd/nextStart der Kandidaten benoetigt (sonst nur itemId gesetzt)
+     */
+    public abstract boolean needsGaps();
+
+    /**
+     * Waehlt bis zu quantity Items aus den freien Kandidaten.
+     * previousEnd ist bereits auf "jetzt" angehoben, da Zeit in der Vergangenheit nicht buchbar ist.
+     */
+    public abstract List<ItemGap> select(List<ItemGap> candidates, LocalDateTime startDate, LocalDateTime endDate, int quantity);
+
+    private static Duration slack(ItemGap gap, LocalDateTime startDate, LocalDateTime endDate) {
+        Duration before = gap.previousEnd() != null ? Duration.between(gap.previousEnd(), startDate) : Duration.ZERO;
+        Duration after = gap.nextStart() != null ? Duration.between(endDate, gap.nextStart()) : Duration.ZERO;
+        return before.plus(after);
+    }
+}
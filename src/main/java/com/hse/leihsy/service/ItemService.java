@@ -145,8 +145,9 @@ public class ItemService {
     }
 
     public boolean isItemAvailableForPeriod(Long itemId, LocalDateTime startDate, LocalDateTime endDate) {
+        // Direkt aus der Datenbank: der AvailabilityIndex kennt Buchungen anderer Instanzen erst nach dem Abgleich
         Item item = getItemById(itemId);
-        return item.isAvailableForPeriod(startDate, endDate);
+        return bookingRepository.findOverlappingBookings(item.getId(), startDate, endDate).isEmpty();
     }
 
     public List<Booking> getBookingsByItemId(Long itemId) {
@@ -0,0 +1,292 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.entity.Category;
+import com.hse.leihsy.model.entity.Product;
+import com.hse.leihsy.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-Memory-Suchindex ueber Name, Kategorie, Zubehoer und Beschreibung aktiver Products.
+ *
+ * Invertierter Index Token -> Products in einer sortierten Map; Suchbegriffe werden als
+ * Praefix gesucht (Bereichsabfrage statt LIKE '%x%' ueber die ganze Tabelle).
+ * Alle Begriffe muessen treffen, sortiert wird nach Feldgewicht (Name vor Kategorie vor Zubehoer/Beschreibung),
+ * exakte Treffer vor Praefix-Treffern.
+ *
+ * Wird beim Start geladen und nach dem Commit von Anlage, Aenderung und Loeschung nachgezogen
+ * (auch bei Aenderungen der Kategorie). Der stuendliche Neuaufbau (BookingScheduler) uebernimmt
+ * Aenderungen anderer Instanzen.
+ */
+@Component
+@Slf4j
+public class ProductSearchIndex {
+
+    static final int NAME_WEIGHT = 8;
+    static final int CATEGORY_WEIGHT = 4;
+    static final int ACCESSORIES_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+
+    private volatile State state = new State();
+    private volatile boolean ready;
+
+    // Aenderungen waehrend eines laufenden Neuladens (null wenn keines laeuft), nur unter dem Monitor
+    private Map<Long, Map<String, Integer>> pendingChanges;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${leihsy.search-index.enabled:true}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Index ist geladen und kann Suchen beantworten (sonst Fallback auf LIKE-Abfragen)
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========================================
+    // ABFRAGEN
+    // ========================================
+
+    /**
+     * Product-IDs zu einer Suchanfrage, beste Treffer zuerst
+     */
+    public List<Long> search(String query) {
+        List<String> terms = tokenize(query).stream().distinct().toList();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        State current = state;
+
+        Map<Long, Integer> scores = null;
+        for (String term : terms) {
+            Map<Long, Integer> termScores = current.match(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // ========================================
+    // AKTUALISIERUNG
+    // ========================================
+
+    /**
+     * Uebernimmt Anlage/Aenderung eines Products nach dem Commit (geloeschte Products werden entfernt)
+     */
+    public void productChanged(Product product) {
+        if (!enabled || product.getId() == null) {
+            return;
+        }
+        // Felder jetzt lesen, nach dem Commit ist die Session geschlossen
+        Long productId = product.getId();
+        Map<String, Integer> tokens = product.getDeletedAt() == null ? tokensOf(product) : Map.of();
+        afterCommit(() -> apply(productId, tokens));
+    }
+
+    /**
+     * Entfernt ein Product nach dem Commit
+     */
+    public void productRemoved(Long productId) {
+        if (enabled && productId != null) {
+            afterCommit(() -> apply(productId, Map.of()));
+        }
+    }
+
+    /**
+     * Indiziert die Products einer Kategorie nach dem Commit neu (Umbenennung oder Loeschung der Kategorie)
+     */
+    public void categoryChanged(Long categoryId) {
+        if (enabled && categoryId != null) {
+            afterCommit(() -> {
+                for (Product product : productRepository.findByCategoryId(categoryId)) {
+                    apply(product.getId(), tokensOf(product));
+                }
+            });
+        }
+    }
+
+    /**
+     * Laedt den Index beim Start aus der Datenbank
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            log.info("Product search index disabled");
+            return;
+        }
+        synchronized (this) {
+            State loaded = loadState();
+            state = loaded;
+            ready = true;
+            log.info("Product search index loaded: {} products, {} tokens",
+                    loaded.productTokens.size(), loaded.postings.size());
+        }
+    }
+
+    /**
+     * Laedt den Index neu, damit Aenderungen anderer Instanzen suchbar werden.
+     * Die Datenbank wird ohne Monitor gelesen; Aenderungen, die waehrenddessen eintreffen,
+     * werden gemerkt und vor dem Austausch auf den geladenen Zustand angewendet.
+     */
+    public void reload() {
+        synchronized (this) {
+            if (!ready || pendingChanges != null) {
+                return;
+            }
+            pendingChanges = new LinkedHashMap<>();
+        }
+
+        State loaded;
+        try {
+            loaded = loadState();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            pendingChanges.forEach((productId, tokens) -> loaded.replace(productId, tokens));
+            pendingChanges = null;
+            state = loaded;
+            log.debug("Product search index reloaded: {} products, {} tokens",
+                    loaded.productTokens.size(), loaded.postings.size());
+        }
+    }
+
+    synchronized void apply(Long productId, Map<String, Integer> tokens) {
+        state.replace(productId, tokens);
+        if (pendingChanges != null) {
+            pendingChanges.put(productId, tokens);
+        }
+    }
+
+    private State loadState() {
+        State loaded = new State();
+        for (Product product : productRepository.findAllActive()) {
+            loaded.put(product.getId(), tokensOf(product));
+        }
+        return loaded;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Token -> Summe der Gewichte aller Felder, in denen es vorkommt
+    private static Map<String, Integer> tokensOf(Product product) {
+        Map<String, Integer> tokens = new HashMap<>();
+        addField(tokens, product.getName(), NAME_WEIGHT);
+        Category category = product.getCategory();
+        addField(tokens, category != null && !category.isDeleted() ? category.getName() : null, CATEGORY_WEIGHT);
+        addField(tokens, product.getAccessories(), ACCESSORIES_WEIGHT);
+        addField(tokens, product.getDescription(), DESCRIPTION_WEIGHT);
+        return tokens;
+    }
+
+    private static void addField(Map<String, Integer> tokens, String text, int weight) {
+        for (String token : new HashSet<>(tokenize(text))) {
+            tokens.merge(token, weight, Integer::sum);
+        }
+    }
+
+    // Kleinschreibung, Umlaute/Akzente auf Grundbuchstaben, Trennung an allem ausser Buchstaben und Ziffern
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .replace("ß", "ss");
+        return Arrays.stream(SEPARATORS.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Gesamtzustand des Index; wird beim Laden komplett ersetzt
+     */
+    private static final class State {
+        private final NavigableMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+        private final Map<Long, Set<String>> productTokens = new ConcurrentHashMap<>();
+
+        void put(Long productId, Map<String, Integer> tokens) {
+            tokens.forEach((token, weight) ->
+                    postings.computeIfAbsent(token, t -> new ConcurrentHashMap<>()).put(productId, weight));
+            productTokens.put(productId, Set.copyOf(tokens.keySet()));
+        }
+
+        void replace(Long productId, Map<String, Integer> tokens) {
+            remove(productId);
+            if (!tokens.isEmpty()) {
+                put(productId, tokens);
+            }
+        }
+
+        void remove(Long productId) {
+            Set<String> tokens = productTokens.remove(productId);
+            if (tokens == null) {
+                return;
+            }
+            for (String token : tokens) {
+                postings.computeIfPresent(token, (t, products) -> {
+                    products.remove(productId);
+                    return products.isEmpty() ? null : products;
+                });
+            }
+        }
+
+        // Alle Tokens mit dem Begriff als Praefix; exakter Treffer zaehlt doppelt, je Product der beste Treffer
+        Map<Long, Integer> match(String term) {
+            Map<Long, Integer> scores = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Integer>> posting
+                    : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                int factor = posting.getKey().equals(term) ? 2 : 1;
+                posting.getValue().forEach((productId, weight) -> scores.merge(productId, weight * factor, Math::max));
+            }
+            return scores;
+        }
+    }
+}
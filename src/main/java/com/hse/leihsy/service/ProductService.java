@@ -1,26 +1,46 @@
 package com.hse.leihsy.service;
 
 import com.hse.leihsy.exception.ResourceNotFoundException;
+import com.hse.leihsy.exception.ValidationException;
 import com.hse.leihsy.model.entity.Product;
 import com.hse.leihsy.model.entity.Category;
 import com.hse.leihsy.model.entity.Location;
+import com.hse.leihsy.model.dto.NextAvailableSlotDTO;
+import com.hse.leihsy.model.dto.ProductFilter;
+import com.hse.leihsy.model.dto.ProductItemCounts;
 import com.hse.leihsy.model.dto.timePeriodDTO;
 import com.hse.leihsy.model.entity.*;
 import com.hse.leihsy.repository.ProductRepository;
 import com.hse.leihsy.repository.CategoryRepository;
 import com.hse.leihsy.repository.LocationRepository;
 import com.hse.leihsy.repository.ProductSetRepository;
-
+import com.hse.leihsy.repository.BookingRepository;
+import com.hse.leihsy.repository.ItemRepository;
+import com.hse.leihsy.repository.ProductSpecifications;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.time.Period;
 
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -32,19 +52,37 @@ public class ProductService {
     private final ImageService imageService;
     private final ItemService itemService;
     private final ProductSetRepository productSetRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final AvailabilityCache availabilityCache;
+    private final ProductSearchIndex productSearchIndex;
+
+    // Zeitfenster fuer Verfuegbarkeits-Abfragen (Buchungen danach werden nicht beruecksichtigt)
+    static final Period AVAILABILITY_HORIZON = Period.ofYears(1);
 
     public ProductService(ProductRepository productRepository,
                           CategoryRepository categoryRepository,
                           LocationRepository locationRepository,
                           ImageService imageService,
                           ItemService itemService,
-                          ProductSetRepository productSetRepository) {
+                          ProductSetRepository productSetRepository,
+                          ItemRepository itemRepository,
+                          BookingRepository bookingRepository,
+                          AvailabilityIndex availabilityIndex,
+                          AvailabilityCache availabilityCache,
+                          ProductSearchIndex productSearchIndex) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.locationRepository = locationRepository;
         this.imageService = imageService;
         this.itemService = itemService;
         this.productSetRepository = productSetRepository;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.availabilityCache = availabilityCache;
+        this.productSearchIndex = productSearchIndex;
     }
 
     // Alle aktiven Products abrufen
@@ -73,17 +111,165 @@ public class ProductService {
         return productRepository.searchByName(keyword);
     }
 
-    // Volltext-Suche (Name + Description)
+    // Volltext-Suche (Name, Kategorie, Zubehoer, Description) ueber den Suchindex, Reihenfolge nach Relevanz
+    // (LIKE-Abfrage nur solange der Index noch nicht geladen ist)
     public List<Product> fullTextSearch(String keyword) {
-        return productRepository.fullTextSearch(keyword);
+        if (!productSearchIndex.isReady()) {
+            return productRepository.fullTextSearch(keyword);
+        }
+        List<Long> productIds = topSearchHits(keyword);
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = productRepository.findActiveByIds(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return productIds.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Sortierbare Felder der Katalog-Liste und maximale Seitengroesse
+     */
+    static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "name", "price", "createdAt");
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Hoechstens so viele Treffer des Suchindex (die relevantesten) gehen als IN-Liste in die Query
+     */
+    static final int MAX_SEARCH_HITS = 1000;
+
+    /**
+     * Katalog mit allen Filtern per AND in einer Query (inkl. Kategorie und Raum per Join).
+     * Ohne page/size werden alle Treffer geliefert, sonst eine Seite (eine Zeile mehr geladen statt COUNT).
+     * Ohne sort: bei Suche nach Relevanz, sonst nach ID. Bei Suche zaehlen nur die MAX_SEARCH_HITS besten Treffer.
+     *
+     * @param sort Feld und optional Richtung, z.B. "name" oder "price,desc"
+     */
+    @Transactional(readOnly = true)
+    public Slice<Product> findProducts(ProductFilter filter, Integer page, Integer size, String sort) {
+        Pageable pageable = pageable(page, size);
+        Sort order = parseSort(sort);
+
+        Specification<Product> spec = ProductSpecifications.notDeleted();
+        List<Long> rankedIds = null;
+        if (filter.search() != null && !filter.search().isBlank()) {
+            if (productSearchIndex.isReady()) {
+                rankedIds = topSearchHits(filter.search());
+                if (rankedIds.isEmpty()) {
+                    return new SliceImpl<>(List.of(), pageable, false);
+                }
+                spec = spec.and(ProductSpecifications.idIn(rankedIds));
+            } else {
+                spec = spec.and(ProductSpecifications.nameOrDescriptionContains(filter.search().trim()));
+            }
+        }
+        if (filter.categoryId() != null) {
+            spec = spec.and(ProductSpecifications.inCategory(filter.categoryId()));
+        }
+        if (filter.locationId() != null) {
+            spec = spec.and(ProductSpecifications.atLocation(filter.locationId()));
+        }
+        if (Boolean.TRUE.equals(filter.onlyAvailable())) {
+            spec = spec.and(ProductSpecifications.hasAvailableItem());
+        }
+        if (filter.active() != null) {
+            spec = spec.and(ProductSpecifications.hasActiveFlag(filter.active()));
+        }
+
+        if (rankedIds != null && order.isUnsorted()) {
+            return rankedSlice(spec, rankedIds, pageable);
+        }
+
+        // ID als letzter Sortierschluessel fuer stabile Seiten
+        if (order.isUnsorted()) {
+            order = Sort.by("id");
+        } else if (order.getOrderFor("id") == null) {
+            order = order.and(Sort.by("id"));
+        }
+        Sort finalOrder = order;
+        return productRepository.findBy(spec, query -> query
+                .project("category", "location")
+                .sortBy(finalOrder)
+                .slice(pageable));
+    }
+
+    // Beste Treffer des Suchindex, begrenzt damit die IN-Liste klein bleibt (Bind-Parameter-Limit der Datenbank)
+    private List<Long> topSearchHits(String keyword) {
+        List<Long> productIds = productSearchIndex.search(keyword);
+        return productIds.size() > MAX_SEARCH_HITS ? productIds.subList(0, MAX_SEARCH_HITS) : productIds;
+    }
+
+    // Relevanz-Sortierung: gefilterte Treffer (hoechstens MAX_SEARCH_HITS) in einer Query laden,
+    // nach Rang ordnen und die Seite im Speicher schneiden statt per CASE ueber alle IDs in SQL zu sortieren
+    private Slice<Product> rankedSlice(Specification<Product> spec, List<Long> rankedIds, Pageable pageable) {
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rank.put(rankedIds.get(i), i);
+        }
+        List<Product> matches = productRepository.findBy(spec, query -> query
+                        .project("category", "location")
+                        .all())
+                .stream()
+                .sorted(Comparator.comparing(product -> rank.get(product.getId())))
+                .toList();
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(matches, pageable, false);
+        }
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new SliceImpl<>(matches.subList(from, to), pageable, to < matches.size());
+    }
+
+    private Pageable pageable(Integer page, Integer size) {
+        if (page == null && size == null) {
+            return Pageable.unpaged();
+        }
+        int pageNumber = page != null ? page : 0;
+        int pageSize = size != null ? size : BookingService.DEFAULT_PAGE_SIZE;
+        if (pageNumber < 0) {
+            throw new ValidationException("page darf nicht negativ sein");
+        }
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new ValidationException("size muss zwischen 1 und " + MAX_PAGE_SIZE + " liegen");
+        }
+        return PageRequest.of(pageNumber, pageSize);
+    }
+
+    private Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.unsorted();
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE_PROPERTIES.contains(property) || parts.length > 2) {
+            throw new ValidationException("Ungueltige Sortierung: " + sort + " (erlaubt: " + SORTABLE_PROPERTIES + ")");
+        }
+        if (parts.length == 1) {
+            return Sort.by(property);
+        }
+        Sort.Direction direction = Sort.Direction.fromOptionalString(parts[1].trim())
+                .orElseThrow(() -> new ValidationException("Ungueltige Sortierrichtung: " + parts[1]));
+        return Sort.by(direction, property);
+    }
+
+    // Gesamt-/verfuegbare Items je Product fuer eine Liste (eine gruppierte Query statt Lazy Loading je Item)
+    @Transactional(readOnly = true)
+    public Map<Long, ProductItemCounts> getItemCounts(List<Product> products) {
+        if (products.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> productIds = products.stream().map(Product::getId).toList();
+        return itemRepository.countItemsByProductIds(productIds).stream()
+                .collect(Collectors.toMap(ProductItemCounts::productId, Function.identity()));
     }
 
     // Neues Product erstellen
     public Product createProduct(Product product, Long categoryId, Long locationId, MultipartFile image, List<com.hse.leihsy.model.dto.ProductRelationDTO> relatedItems) {
         // Image Upload handling
         if (image != null && !image.isEmpty()) {
-            String filename = imageService.saveImage(image, product.getName());
-            product.setImageUrl("/api/images/" + filename);
+            product.setImageUrl(storeImage(image));
         }
 
         if (categoryId != null) {
@@ -103,6 +289,7 @@ public class ProductService {
 
         // Dann Beziehungen speichern
         saveProductRelations(savedProduct, relatedItems);
+        productSearchIndex.productChanged(savedProduct);
 
         return savedProduct;
     }
@@ -111,28 +298,11 @@ public class ProductService {
     public Product updateProduct(Long id, Product updatedProduct, Long categoryId, Long locationId, MultipartFile image, List<com.hse.leihsy.model.dto.ProductRelationDTO> relatedItems) {
         Product product = getProductById(id);
 
-        // Image Upload handling - altes Bild löschen falls neues kommt
+        // Image Upload handling - das alte Bild bleibt liegen: Bilder sind inhaltsadressiert und koennen geteilt sein,
+        // nicht mehr referenzierte loescht der ImageGarbageCollector nach der Schonfrist
         if (image != null && !image.isEmpty()) {
-            if (product.getImageUrl() != null && product.getImageUrl().startsWith("/api/images/")) {
-                String oldFilename = product.getImageUrl().replace("/api/images/", "");
-                try {
-                    imageService.deleteImage(oldFilename);
-                } catch (Exception e) {
-                    // Ignorieren falls altes Bild nicht existiert
-                }
-            }
-
-            String filename = imageService.saveImage(image, product.getName());
-            product.setImageUrl("/api/images/" + filename);
+            product.setImageUrl(storeImage(image));
         } else if (updatedProduct.getImageUrl() == null && product.getImageUrl() != null) {
-            if (product.getImageUrl().startsWith("/api/images/")) {
-                String oldFilename = product.getImageUrl().replace("/api/images/", "");
-                try {
-                    imageService.deleteImage(oldFilename);
-                } catch (Exception e) {
-                    // Ignorieren
-                }
-            }
             product.setImageUrl(null);
         }
 
@@ -158,6 +328,7 @@ public class ProductService {
 
         // Beziehungen aktualisieren
         saveProductRelations(savedProduct, relatedItems);
+        productSearchIndex.productChanged(savedProduct);
 
         return savedProduct;
     }
@@ -166,18 +337,15 @@ public class ProductService {
     public void deleteProduct(Long id) {
         Product product = getProductById(id);
 
-        // Bild löschen falls vorhanden
-        if (product.getImageUrl() != null && product.getImageUrl().startsWith("/api/images/")) {
-            String filename = product.getImageUrl().replace("/api/images/", "");
-            try {
-                imageService.deleteImage(filename);
-            } catch (Exception e) {
-                // Ignorieren falls Bild nicht existiert
-            }
-        }
-
+        // Bild nicht sofort loeschen (siehe updateProduct), das uebernimmt der ImageGarbageCollector
         product.softDelete();
         productRepository.save(product);
+        productSearchIndex.productRemoved(id);
+    }
+
+    // Hilfsmethode: Bild speichern und URL liefern
+    private String storeImage(MultipartFile image) {
+        return ImageService.URL_PREFIX + imageService.saveImage(image);
     }
 
     // Hilfsmethode zum Speichern der Produktbeziehungen
@@ -200,164 +368,103 @@ public class ProductService {
         }
     }
 
-    record BookingEvent(LocalDateTime bookingEventDate, int changeInLendedItems) {} // Für jeden Start / Ende einer Buchung, -1 heißt ein Item wird frei, +1 heißt ein Item wird belegt
-
-    // Verfügbare Zeiträume eines Produkts laden
+    // Verfügbare Zeiträume eines Produkts laden (gecacht, siehe AvailabilityCache)
+    @Transactional(readOnly = true)
     public List<timePeriodDTO> getAvailablePeriods(Long id, int requiredQuantity) {
+        return availabilityCache.get(new AvailabilityCache.Key(id, requiredQuantity, true, AVAILABILITY_HORIZON),
+                () -> loadAvailabilityTimeline(id).availablePeriods(requiredQuantity));
+    }
 
-        List<Item> items = itemService.getItemsByProductId(id);
+    // Nicht verfügbare Zeiträume eines Produkts laden (gecacht, siehe AvailabilityCache)
+    @Transactional(readOnly = true)
+    public List<timePeriodDTO> getUnavailablePeriods(Long id, int requiredQuantity) {
+        return availabilityCache.get(new AvailabilityCache.Key(id, requiredQuantity, false, AVAILABILITY_HORIZON),
+                () -> loadAvailabilityTimeline(id).unavailablePeriods(requiredQuantity));
+    }
 
-        // Prüfe ob genug Items existieren
-        int totalItems = items.size();
-        if(totalItems < requiredQuantity) {
-            return List.of();
+    // Fruehester freier Zeitraum je Product fuer Menge und Dauer ("verfuegbar ab" im Katalog)
+    // Teilt sich die Cache-Eintraege mit getAvailablePeriods; fehlende Products werden gemeinsam berechnet
+    @Transactional(readOnly = true)
+    public List<NextAvailableSlotDTO> getNextAvailableSlots(List<Long> productIds, int requiredQuantity, Duration duration) {
+        if (requiredQuantity < 1) {
+            throw new ValidationException("requiredQuantity muss mindestens 1 sein");
         }
-
-        List<timePeriodDTO> availablePeriods = new ArrayList<>();
-
-        // Zeitstrahl auf dem alle BookingEvents chronologisch aufgelistet werden
-        List<BookingEvent> bookingEvents = new ArrayList<>();
-
-        for (Item item : items) {
-
-            // Entferne vergangene Bookings
-            List<Booking> bookings = item.getBookings().stream().filter(booking -> booking.getEndDate().isAfter(LocalDateTime.now())).toList();
-
-            for (Booking booking : bookings) {
-                // Für jeden Start auf Zeitstrahl vermerken dass ein Item mehr in use ist
-                bookingEvents.add(new BookingEvent(
-                        booking.getStartDate(),
-                        +1
-                ));
-                // Für jedes Ende auf Zeitstrahl vermerken dass ein Item weniger in use ist
-                bookingEvents.add(new BookingEvent(
-                        booking.getEndDate(),
-                        -1
-                ));
-            }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new ValidationException("duration muss positiv sein");
         }
 
-        // Sortiere BookingEvents auf Zeistrahl chronologisch
-        bookingEvents.sort(Comparator.comparing(BookingEvent::bookingEventDate));
-
-        int currentLendedItems = 0; // Misst die aktuell verliehene Anzahl an Items des Produkts
-        LocalDateTime currentAvailableStart = null;
-
-        for(BookingEvent bookingEvent : bookingEvents) {
-            int freeItemsBeforeEvent = totalItems - currentLendedItems;
-            boolean wasAvailableBefore = freeItemsBeforeEvent >= requiredQuantity;   // Prüfe ob vor BookingEvent ausreichend Items verfügbar waren
-
-            currentLendedItems += bookingEvent.changeInLendedItems();   // Wende Verfügbarkeitsänderung auf Anzahl ausgeliehener Items an
-
-            int freeItemsAfterEvent = totalItems - currentLendedItems;
-            boolean isAvailableAfter = freeItemsAfterEvent >= requiredQuantity; // Prüfe ob nach BookingEvent noch ausreichend Items verfügbar sind
+        List<AvailabilityCache.Key> keys = productIds.stream()
+                .distinct()
+                .map(id -> new AvailabilityCache.Key(id, requiredQuantity, true, AVAILABILITY_HORIZON))
+                .toList();
+        Map<AvailabilityCache.Key, List<timePeriodDTO>> periods = availabilityCache.getAll(keys, missing -> {
+            Map<Long, AvailabilityTimeline> timelines = loadAvailabilityTimelines(
+                    missing.stream().map(AvailabilityCache.Key::productId).toList());
+            return missing.stream().collect(Collectors.toMap(Function.identity(),
+                    key -> timelines.get(key.productId()).availablePeriods(requiredQuantity)));
+        });
+
+        return keys.stream()
+                .map(key -> {
+                    timePeriodDTO window = AvailabilityTimeline.earliestWindow(periods.get(key), duration);
+                    return window != null
+                            ? new NextAvailableSlotDTO(key.productId(), window.getStartDate(), window.getEndDate())
+                            : new NextAvailableSlotDTO(key.productId(), null, null);
+                })
+                .toList();
+    }
 
-            // Wenn Produkt von nicht verfügbar auf verfügbar übergeht
-            if(!wasAvailableBefore && isAvailableAfter) {
-                currentAvailableStart = bookingEvent.bookingEventDate();    // Setze Startzeitraum des Items
+    // IDs fuer die "verfuegbar ab"-Abfrage: explizite Liste (ohne Duplikate, max. MAX_PAGE_SIZE),
+    // sonst aktive Products (optional einer Kategorie)
+    public List<Long> resolveProductIds(List<Long> productIds, Long categoryId) {
+        if (productIds != null && !productIds.isEmpty()) {
+            List<Long> distinctIds = productIds.stream().distinct().toList();
+            if (distinctIds.size() > MAX_PAGE_SIZE) {
+                throw new ValidationException("Maximal " + MAX_PAGE_SIZE + " productIds pro Anfrage");
             }
-            // Wenn Produkt von verfügbar auf nicht verfügbar übergeht
-            if(wasAvailableBefore && !isAvailableAfter && !(currentAvailableStart == null)) {
-                availablePeriods.add(new timePeriodDTO(    // Füge neue Verfügbarkeitsperiode hinzu
-                        currentAvailableStart,
-                        bookingEvent.bookingEventDate()
-                ));
-                currentAvailableStart = null;
-            }
-        }
-
-        // Zeitraum des letzten Events bis unendlich als verfügbare Zeit angeben
-        if(!bookingEvents.isEmpty()) {
-            BookingEvent lastBookingEvent = bookingEvents.get(bookingEvents.size() - 1);
-            availablePeriods.add(new timePeriodDTO(
-                    lastBookingEvent.bookingEventDate(),
-                    null
-            ));
-        }
-
-
-        // Falls keine Zeiträume vorhanden -> Item immer verfügbar
-        if(availablePeriods.isEmpty()) {
-            availablePeriods.add(new timePeriodDTO(
-                    LocalDateTime.now(),
-                    null
-            ));
+            return distinctIds;
         }
-        return availablePeriods;    // Gebe Liste verfügbarer Zeiträume des Produkts für die benötigte Quantität zurück
+        return productRepository.findActiveIds(categoryId);
     }
 
-    // Nicht verfügbare Zeiträume eines Produkts laden
-    public List<timePeriodDTO> getUnavailablePeriods(Long id, int requiredQuantity) {
-
-        List<Item> items = itemService.getItemsByProductId(id);
-
-        int totalItems = items.size();
+    // Zeitstrahlen mehrerer Products: aus dem Verfuegbarkeits-Index oder per 2 Queries fuer alle zusammen
+    private Map<Long, AvailabilityTimeline> loadAvailabilityTimelines(List<Long> productIds) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plus(AVAILABILITY_HORIZON);
 
-        List<timePeriodDTO> unavailablePeriods = new ArrayList<>();
-
-        // Falls mehr Items angefragt werden als überhaupt im System vorhanden sind
-        if (requiredQuantity > totalItems) {
-            unavailablePeriods.add(new timePeriodDTO(
-                            LocalDateTime.now(),
-                            LocalDateTime.now().plusYears(1)
-                    )
-            );
-            return unavailablePeriods;
-        }
-
-        // Zeitstrahl auf dem alle BookingEvents chronologisch aufgelistet werden
-        List<BookingEvent> bookingEvents = new ArrayList<>();
-
-        for (Item item : items) {
-
-            // Entferne vergangene Bookings
-            List<Booking> bookings = item.getBookings().stream().filter(booking -> booking.getEndDate().isAfter(LocalDateTime.now())).toList();
-
-            for (Booking booking : bookings) {
-                // Für jeden Start auf Zeitstrahl vermerken dass ein Item mehr in use ist
-                bookingEvents.add(new BookingEvent(
-                        booking.getStartDate(),
-                        +1
-                ));
-                // Für jedes Ende auf Zeitstrahl vermerken dass ein Item weniger in use ist
-                bookingEvents.add(new BookingEvent(
-                        booking.getEndDate(),
-                        -1
-                ));
+        if (availabilityIndex.isReady()) {
+            Map<Long, AvailabilityTimeline> timelines = new HashMap<>();
+            for (Long productId : productIds) {
+                timelines.put(productId, AvailabilityTimeline.build(availabilityIndex.countItems(productId),
+                        availabilityIndex.findActiveIntervals(productId, now, horizon), now, horizon));
             }
+            return timelines;
         }
 
-        // Sortiere BookingEvents auf Zeistrahl chronologisch
-        bookingEvents.sort(Comparator.comparing(BookingEvent::bookingEventDate));
-
-        int currentLendedItems = 0; // Misst die aktuell verliehene Anzahl an Items des Produkts
-        LocalDateTime currentUnavailableStart = null;
-
-        for(BookingEvent bookingEvent : bookingEvents) {
-            int freeItemsBeforeEvent = totalItems - currentLendedItems;
-            boolean wasUnavailableBefore = freeItemsBeforeEvent < requiredQuantity;   // Prüfe ob vor BookingEvent nicht ausreichend Items verfügbar waren
-
-            currentLendedItems += bookingEvent.changeInLendedItems();   // Wende Verfügbarkeitsänderung auf Anzahl ausgeliehener Items an
-
-            int freeItemsAfterEvent = totalItems - currentLendedItems;
-            boolean isUnavailableAfter = freeItemsAfterEvent < requiredQuantity; // Prüfe ob nach BookingEvent noch nicht ausreichend Items verfügbar sind
+        Map<Long, Integer> totalItems = new HashMap<>();
+        productIds.forEach(id -> totalItems.put(id, 0));
+        itemRepository.countItemsByProductIds(productIds)
+                .forEach(counts -> totalItems.put(counts.productId(), Math.toIntExact(counts.totalItems())));
+        return AvailabilityTimeline.buildAll(totalItems,
+                bookingRepository.findActiveIntervalsByProductIds(productIds, now, horizon), now, horizon);
+    }
 
-            // Wenn Produkt von verfügbar auf nicht verfügbar übergeht
-            if(!wasUnavailableBefore && isUnavailableAfter) {
-                currentUnavailableStart = bookingEvent.bookingEventDate();    // Setze Startzeitraum des nicht verfügbaren Zeitraums
-                if(currentUnavailableStart.isBefore(LocalDateTime.now())) {
-                    currentUnavailableStart = LocalDateTime.now();
-                }
-            }
-            // Wenn Produkt von nicht verfügbar auf verfügbar übergeht
-            if(wasUnavailableBefore && !isUnavailableAfter && !(currentUnavailableStart == null)) {
-                unavailablePeriods.add(new timePeriodDTO(    // Füge neue Nichtverfügbarkeitsperiode hinzu
-                        currentUnavailableStart,
-                        bookingEvent.bookingEventDate()
-                ));
-                currentUnavailableStart = null;
-            }
+    // Belegungs-Zeitstrahl von jetzt bis zum Horizont: Item-Anzahl + aktive Buchungs-Intervalle
+    // (aus dem Verfuegbarkeits-Index, solange dieser noch nicht geladen ist per 2 Queries)
+    private AvailabilityTimeline loadAvailabilityTimeline(Long productId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plus(AVAILABILITY_HORIZON);
+
+        int totalItems;
+        List<timePeriodDTO> bookings;
+        if (availabilityIndex.isReady()) {
+            totalItems = availabilityIndex.countItems(productId);
+            bookings = availabilityIndex.findActiveIntervals(productId, now, horizon);
+        } else {
+            totalItems = Math.toIntExact(itemRepository.countByProductId(productId));
+            bookings = bookingRepository.findActiveIntervalsByProductId(productId, now, horizon);
         }
-        return unavailablePeriods;    // Gebe Liste verfügbarer Zeiträume des Produkts für die benötigte Quantität zurück
+
+        return AvailabilityTimeline.build(totalItems, bookings, now, horizon);
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+-- Indizes fuer die haeufigsten Praedikate.
+-- H2 kennt keine partiellen Indizes: gleiche Schluesselspalten wie in
+-- db/migration/postgresql, die Filter auf deleted_at/return_date greifen beim Lesen
+-- (Ausnahme items: deleted_at als zweite Schluesselspalte).
+
+-- Ueberlappungs-Pruefung und Verfuegbarkeit (findOverlappingBookings, findAvailableByProductId)
+create index if not exists idx_booking_item_period
+   on bookings (item_id, start_date, end_date);
+
+-- Buchungslisten eines Verleihers (findByLenderId, neueste zuerst)
+create index if not exists idx_booking_lender_created
+   on bookings (lender_id, created_at);
+
+-- Buchungslisten eines Users (findByUserId, neueste zuerst)
+create index if not exists idx_booking_user_created
+   on bookings (user_id, created_at);
+
+-- Erinnerungen und Ueberfaelligkeit (findDueSoon, findOverdue)
+create index if not exists idx_booking_end_date
+   on bookings (end_date);
+
+-- Items eines Products (findByProductId, Verfuegbarkeit)
+create index if not exists idx_item_product
+   on items (product_id, deleted_at);
+
+-- Offene Tokens einer Buchung (findValidToken, invalidatePreviousTokens)
+create index if not exists idx_transaction_booking_type
+   on booking_transactions (booking_id, transaction_type);
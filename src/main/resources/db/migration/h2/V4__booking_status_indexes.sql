@@ -0,0 +1,20 @@
+-- Gleiche Schluessel wie db/migration/postgresql/V4. H2 kennt keine partiellen Indizes:
+-- die Bedingung status = 'PICKED_UP' wird hier zur fuehrenden Schluesselspalte.
+
+create index if not exists idx_booking_lender_status
+   on bookings (lender_id, status);
+
+create index if not exists idx_booking_user_status
+   on bookings (user_id, status);
+
+drop index if exists idx_booking_end_date;
+create index idx_booking_end_date
+   on bookings (status, end_date);
+
+drop index if exists idx_booking_lender_created;
+create index idx_booking_lender_created
+   on bookings (lender_id, created_at, id);
+
+drop index if exists idx_booking_user_created;
+create index idx_booking_user_created
+   on bookings (user_id, created_at, id);
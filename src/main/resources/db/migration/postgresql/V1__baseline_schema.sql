@@ -0,0 +1,271 @@
+-- Ausgangsschema (entspricht dem bisher per ddl-auto=update erzeugten Schema).
+-- Bestehende Datenbanken werden per baseline-on-migrate auf Version 1 gesetzt.
+
+create table if not exists booking_transactions (
+    booking_id bigint not null,
+    created_at timestamp(6) not null,
+    created_by bigint not null,
+    deleted_at timestamp(6),
+    expires_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    token varchar(8) not null unique,
+    updated_at timestamp(6),
+    used_at timestamp(6),
+    transaction_type varchar(255) not null check (transaction_type in ('PICKUP','RETURN')),
+    primary key (id)
+);
+
+create table if not exists bookings (
+    confirmed_pickup timestamp(6),
+    created_at timestamp(6) not null,
+    deleted_at timestamp(6),
+    distribution_date timestamp(6),
+    end_date timestamp(6),
+    group_id bigint,
+    id bigint generated by default as identity,
+    item_id bigint not null,
+    lender_id bigint,
+    location_id bigint,
+    proposal_by bigint,
+    return_date timestamp(6),
+    start_date timestamp(6),
+    updated_at timestamp(6),
+    user_id bigint not null,
+    message TEXT,
+    proposed_pickups TEXT,
+    status varchar(255),
+    primary key (id)
+);
+
+create table if not exists categories (
+    created_at timestamp(6) not null,
+    deleted_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    icon varchar(50),
+    name varchar(255) not null,
+    primary key (id)
+);
+
+create table if not exists insy_import_items (
+    created_at timestamp(6) not null,
+    deleted_at timestamp(6),
+    id bigint generated by default as identity,
+    imported_item_id bigint,
+    imported_product_id bigint,
+    insy_id bigint not null unique,
+    updated_at timestamp(6),
+    status varchar(20) not null check (status in ('PENDING','IMPORTED','REJECTED','UPDATED')),
+    admin_note TEXT,
+    description TEXT,
+    inv_number varchar(255),
+    location varchar(255),
+    name varchar(255) not null,
+    owner varchar(255),
+    primary key (id)
+);
+
+create table if not exists item_relations (
+    item_id bigint not null,
+    related_item_id bigint not null
+);
+
+create table if not exists items (
+    created_at timestamp(6) not null,
+    deleted_at timestamp(6),
+    id bigint generated by default as identity,
+    insy_id bigint,
+    lender_id bigint,
+    location_id bigint,
+    product_id bigint not null,
+    updated_at timestamp(6),
+    invnumber varchar(255) unique,
+    owner varchar(255),
+    primary key (id)
+);
+
+create table if not exists locations (
+    created_at timestamp(6) not null,
+    deleted_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    room_nr varchar(255) not null,
+    primary key (id)
+);
+
+create table if not exists products (
+    expiry_date integer,
+    is_active boolean,
+    price numeric(10,2),
+    category_id bigint,
+    created_at timestamp(6) not null,
+    deleted_at timestamp(6),
+    id bigint generated by default as identity,
+    insy_id bigint,
+    location_id bigint,
+    updated_at timestamp(6),
+    accessories TEXT,
+    description TEXT,
+    image_url varchar(255),
+    name varchar(255) not null,
+    primary key (id)
+);
+
+create table if not exists sets (
+    created_at timestamp(6) not null,
+    deleted_at timestamp(6),
+    id_product bigint not null,
+    id_product_child bigint not null,
+    updated_at timestamp(6),
+    type varchar(20) check (type in ('REQUIRED','RECOMMENDED')),
+    primary key (id_product, id_product_child)
+);
+
+create table if not exists student_group_members (
+    group_id bigint not null,
+    user_id bigint not null,
+    primary key (group_id, user_id)
+);
+
+create table if not exists student_groups (
+    budget numeric(10,2),
+    created_at timestamp(6) not null,
+    created_by bigint not null,
+    deleted_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    description TEXT,
+    name varchar(255) not null,
+    primary key (id)
+);
+
+create table if not exists users (
+    budget numeric(10,2),
+    created_at timestamp(6) not null,
+    deleted_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    email varchar(255),
+    name varchar(255),
+    unique_id varchar(255) unique,
+    primary key (id)
+);
+
+create index if not exists idx_token_expiry
+   on booking_transactions (token, expires_at);
+
+create index if not exists idx_booking_lender_status
+   on bookings (lender_id, status);
+
+create index if not exists idx_booking_user_status
+   on bookings (user_id, status);
+
+alter table if exists booking_transactions
+   add constraint fk_booking_transactions_booking_id
+   foreign key (booking_id)
+   references bookings;
+
+alter table if exists booking_transactions
+   add constraint fk_booking_transactions_created_by
+   foreign key (created_by)
+   references users;
+
+alter table if exists bookings
+   add constraint fk_bookings_item_id
+   foreign key (item_id)
+   references items;
+
+alter table if exists bookings
+   add constraint fk_bookings_lender_id
+   foreign key (lender_id)
+   references users;
+
+alter table if exists bookings
+   add constraint fk_bookings_location_id
+   foreign key (location_id)
+   references locations;
+
+alter table if exists bookings
+   add constraint fk_bookings_proposal_by
+   foreign key (proposal_by)
+   references users;
+
+alter table if exists bookings
+   add constraint fk_bookings_group_id
+   foreign key (group_id)
+   references student_groups;
+
+alter table if exists bookings
+   add constraint fk_bookings_user_id
+   foreign key (user_id)
+   references users;
+
+alter table if exists insy_import_items
+   add constraint fk_insy_import_items_imported_item_id
+   foreign key (imported_item_id)
+   references items;
+
+alter table if exists insy_import_items
+   add constraint fk_insy_import_items_imported_product_id
+   foreign key (imported_product_id)
+   references products;
+
+alter table if exists item_relations
+   add constraint fk_item_relations_related_item_id
+   foreign key (related_item_id)
+   references items;
+
+alter table if exists item_relations
+   add constraint fk_item_relations_item_id
+   foreign key (item_id)
+   references items;
+
+alter table if exists items
+   add constraint fk_items_lender_id
+   foreign key (lender_id)
+   references users;
+
+alter table if exists items
+   add constraint fk_items_location_id
+   foreign key (location_id)
+   references locations;
+
+alter table if exists items
+   add constraint fk_items_product_id
+   foreign key (product_id)
+   references products;
+
+alter table if exists products
+   add constraint fk_products_category_id
+   foreign key (category_id)
+   references categories;
+
+alter table if exists products
+   add constraint fk_products_location_id
+   foreign key (location_id)
+   references locations;
+
+alter table if exists sets
+   add constraint fk_sets_id_product_child
+   foreign key (id_product_child)
+   references products;
+
+alter table if exists sets
+   add constraint fk_sets_id_product
+   foreign key (id_product)
+   references products;
+
+alter table if exists student_group_members
+   add constraint fk_student_group_members_user_id
+   foreign key (user_id)
+   references users;
+
+alter table if exists student_group_members
+   add constraint fk_student_group_members_group_id
+   foreign key (group_id)
+   references student_groups;
+
+alter table if exists student_groups
+   add constraint fk_student_groups_created_by
+   foreign key (created_by)
+   references users;
@@ -0,0 +1,31 @@
+-- Indizes fuer die haeufigsten Praedikate (partiell, nur aktive Zeilen).
+
+-- Ueberlappungs-Pruefung und Verfuegbarkeit (findOverlappingBookings, findAvailableByProductId)
+create index if not exists idx_booking_item_period
+   on bookings (item_id, start_date, end_date)
+   where deleted_at is null and return_date is null;
+
+-- Buchungslisten eines Verleihers (findByLenderId, neueste zuerst)
+create index if not exists idx_booking_lender_created
+   on bookings (lender_id, created_at)
+   where deleted_at is null;
+
+-- Buchungslisten eines Users (findByUserId, neueste zuerst)
+create index if not exists idx_booking_user_created
+   on bookings (user_id, created_at)
+   where deleted_at is null;
+
+-- Erinnerungen und Ueberfaelligkeit (findDueSoon, findOverdue)
+create index if not exists idx_booking_end_date
+   on bookings (end_date)
+   where deleted_at is null and return_date is null;
+
+-- Items eines Products (findByProductId, Verfuegbarkeit)
+create index if not exists idx_item_product
+   on items (product_id)
+   where deleted_at is null;
+
+-- Offene Tokens einer Buchung (findValidToken, invalidatePreviousTokens)
+create index if not exists idx_transaction_booking_type
+   on booking_transactions (booking_id, transaction_type)
+   where used_at is null and deleted_at is null;
@@ -0,0 +1,34 @@
+-- Einmalige Befuellung der status-Spalte fuer Buchungen, die vor Einfuehrung der Status-Pflege
+-- gespeichert wurden. updated_at wird mitgesetzt, damit ETags (MAX(updated_at)) sich aendern.
+-- Bestehende Datenbanken werden bei V1 nur gebaselined: Spalte ggf. hier anlegen.
+
+alter table bookings add column if not exists status varchar(255);
+
+update bookings set status = 'REJECTED', updated_at = current_timestamp
+ where deleted_at is not null
+   and (status is null or status not in ('REJECTED', 'CANCELLED', 'EXPIRED'));
+
+update bookings set status = 'RETURNED', updated_at = current_timestamp
+ where deleted_at is null
+   and return_date is not null
+   and (status is null or status <> 'RETURNED');
+
+update bookings set status = 'PICKED_UP', updated_at = current_timestamp
+ where deleted_at is null
+   and return_date is null
+   and distribution_date is not null
+   and (status is null or status <> 'PICKED_UP');
+
+update bookings set status = 'CONFIRMED', updated_at = current_timestamp
+ where deleted_at is null
+   and return_date is null
+   and distribution_date is null
+   and confirmed_pickup is not null
+   and (status is null or status not in ('CONFIRMED', 'EXPIRED'));
+
+update bookings set status = 'PENDING', updated_at = current_timestamp
+ where deleted_at is null
+   and return_date is null
+   and distribution_date is null
+   and confirmed_pickup is null
+   and status is null;
@@ -0,0 +1,24 @@
+-- Status-Indizes (vorher nur in V1, das auf bestehenden Datenbanken nur gebaselined und nie ausgefuehrt wird)
+-- (findUpcomingByLenderId, findActiveByLenderId, findOverdueByLenderId, Status-Listen je User)
+create index if not exists idx_booking_lender_status
+   on bookings (lender_id, status);
+
+create index if not exists idx_booking_user_status
+   on bookings (user_id, status);
+
+-- Erinnerungen und Ueberfaelligkeit: findDueSoon/findOverdue filtern seit der Status-Spalte
+-- nur noch auf status = 'PICKED_UP', der alte Filter (deleted_at/return_date) passte nicht mehr
+drop index if exists idx_booking_end_date;
+create index idx_booking_end_date
+   on bookings (end_date)
+   where status = 'PICKED_UP';
+
+-- Buchungslisten (findByLenderId/findByUserId, Keyset-Seiten inkl. geloeschter, ORDER BY created_at, id):
+-- ohne Teilbedingung, da die Seiten-Abfragen geloeschte Buchungen optional einschliessen
+drop index if exists idx_booking_lender_created;
+create index idx_booking_lender_created
+   on bookings (lender_id, created_at, id);
+
+drop index if exists idx_booking_user_created;
+create index idx_booking_user_created
+   on bookings (user_id, created_at, id);
@@ -5,8 +5,11 @@ import com.hse.leihsy.config.TestSecurityConfig;
 import com.hse.leihsy.config.UserSyncFilter;
 import com.hse.leihsy.exception.ResourceNotFoundException;
 import com.hse.leihsy.model.dto.BookingDTO;
+import com.hse.leihsy.model.dto.CartBookingRequestDTO;
 import com.hse.leihsy.model.entity.User;
+import com.hse.leihsy.service.BookingExportService;
 import com.hse.leihsy.service.BookingService;
+import com.hse.leihsy.service.ChangeVersionService;
 import com.hse.leihsy.service.UserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletRequest;
@@ -17,21 +20,31 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -54,6 +67,12 @@ class BookingControllerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private BookingExportService bookingExportService;
+
+    @MockitoBean
+    private ChangeVersionService changeVersionService;
+
     @MockitoBean
     private UserSyncFilter userSyncFilter;
 
@@ -114,6 +133,44 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].status").value("PENDING"));
     }
 
+    @Test
+    @DisplayName("POST /api/bookings/cart - Sollte 201 Created mit allen Buchungen liefern")
+    void createCartBooking_Valid_ShouldReturn201() throws Exception {
+        CartBookingRequestDTO request = CartBookingRequestDTO.builder()
+                .lines(List.of(new CartBookingRequestDTO.Line(10L, 1), new CartBookingRequestDTO.Line(11L, 2)))
+                .startDate(LocalDateTime.now().plusDays(1))
+                .endDate(LocalDateTime.now().plusDays(5))
+                .build();
+        BookingDTO responseDTO = new BookingDTO();
+        responseDTO.setId(100L);
+
+        when(userService.getCurrentUser()).thenReturn(mockUser);
+        when(bookingService.createCartBooking(eq(1L), any(CartBookingRequestDTO.class)))
+                .thenReturn(List.of(responseDTO, responseDTO, responseDTO));
+
+        mockMvc.perform(post("/api/bookings/cart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(3));
+    }
+
+    @Test
+    @DisplayName("POST /api/bookings/cart - Sollte 400 bei leerem Warenkorb liefern")
+    void createCartBooking_EmptyLines_ShouldReturn400() throws Exception {
+        CartBookingRequestDTO request = CartBookingRequestDTO.builder()
+                .lines(List.of())
+                .startDate(LocalDateTime.now().plusDays(1))
+                .endDate(LocalDateTime.now().plusDays(5))
+                .build();
+
+        mockMvc.perform(post("/api/bookings/cart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, never()).createCartBooking(any(), any());
+    }
+
     @Test
     @DisplayName("GET /api/bookings - Sollte 200 OK und Liste liefern (Admin)")
     void getAllBookings_ShouldReturnList() throws Exception {
@@ -151,4 +208,93 @@ class BookingControllerTest {
         mockMvc.perform(get("/api/bookings/999"))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("GET /api/bookings?limit - Sollte Seite und Cursor-Header liefern")
+    void getAllBookings_WithLimit_ShouldReturnPageWithCursorHeader() throws Exception {
+        // Arrange
+        BookingDTO dto = new BookingDTO();
+        dto.setId(7L);
+        when(bookingService.getAllBookingsPage(null, null, 1))
+                .thenReturn(new BookingService.BookingPage(List.of(dto), "next-cursor"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/bookings").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, "next-cursor"))
+                .andExpect(jsonPath("$[0].id").value(7));
+    }
+
+    @Test
+    @DisplayName("GET /api/bookings?cursor - Sollte letzte Seite ohne Cursor-Header liefern")
+    void getAllBookings_LastPage_ShouldOmitCursorHeader() throws Exception {
+        // Arrange
+        when(bookingService.getAllBookingsPage(eq("returned"), eq("abc"), eq(BookingService.DEFAULT_PAGE_SIZE)))
+                .thenReturn(new BookingService.BookingPage(Collections.emptyList(), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/bookings").param("status", "returned").param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    @DisplayName("GET /api/bookings/export - Sollte CSV als Attachment streamen")
+    void exportBookings_ShouldStreamCsv() throws Exception {
+        // Arrange
+        when(bookingExportService.exportBookings(eq(BookingExportService.Format.CSV), any()))
+                .thenAnswer(invocation -> {
+                    OutputStream out = invocation.getArgument(1);
+                    out.write("id,status\n1,PENDING\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/bookings/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.csv\""))
+                .andExpect(content().string("id,status\n1,PENDING\n"));
+    }
+
+    @Test
+    @DisplayName("GET /api/bookings/export?format=xml - Sollte 400 liefern")
+    void exportBookings_InvalidFormat_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/bookings/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/bookings/groups/{id} - Sollte 304 liefern wenn Gruppen-ETag unveraendert")
+    void getBookingsByGroupId_NotModified_ShouldReturn304() throws Exception {
+        // Arrange
+        ChangeVersionService.Version version = new ChangeVersionService.Version("W/\"group-5-abc\"", 0L);
+        when(changeVersionService.forGroup(5L)).thenReturn(version);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/bookings/groups/5").header(HttpHeaders.IF_NONE_MATCH, version.etag()))
+                .andExpect(status().isNotModified());
+
+        verify(bookingService, never()).getBookingsByGroupId(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/bookings/groups/{id} - Sollte 200 mit ETag liefern wenn geaendert")
+    void getBookingsByGroupId_Modified_ShouldReturnListWithEtag() throws Exception {
+        // Arrange
+        ChangeVersionService.Version version = new ChangeVersionService.Version("W/\"group-5-def\"", 0L);
+        when(changeVersionService.forGroup(5L)).thenReturn(version);
+        when(bookingService.getBookingsByGroupId(5L)).thenReturn(Collections.emptyList());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/bookings/groups/5").header(HttpHeaders.IF_NONE_MATCH, "W/\"group-5-abc\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, version.etag()));
+    }
+}
@@ -4,6 +4,7 @@ import com.hse.leihsy.config.SecurityConfig;
 import com.hse.leihsy.config.UserSyncFilter;
 import com.hse.leihsy.mapper.ItemMapper;
 import com.hse.leihsy.mapper.ProductMapper;
+import com.hse.leihsy.service.ChangeVersionService;
 import com.hse.leihsy.service.ItemService;
 import com.hse.leihsy.service.ProductService;
 import jakarta.servlet.FilterChain;
@@ -16,6 +17,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.test.context.ActiveProfiles;
@@ -63,6 +65,9 @@ class ControllerSecurityTest {
     @MockitoBean
     private ItemMapper itemMapper;
 
+    @MockitoBean
+    private ChangeVersionService changeVersionService;
+
     @BeforeEach
     void setUp() throws ServletException, IOException {
         // WICHTIG: Der UserSyncFilter Mock muss die Chain weiterführen!
@@ -75,8 +80,9 @@ class ControllerSecurityTest {
         }).when(userSyncFilter).doFilter(any(), any(), any());
 
         // Standard-Stubs für GET Requests
-        when(productService.getAllProducts()).thenReturn(Collections.emptyList());
-        when(productMapper.toDTOList(any())).thenReturn(Collections.emptyList());
+        when(productService.findProducts(any(), any(), any(), any())).thenReturn(new SliceImpl<>(Collections.emptyList()));
+        when(productMapper.toDTOList(any(), any())).thenReturn(Collections.emptyList());
+        when(changeVersionService.forCatalog()).thenReturn(new ChangeVersionService.Version("W/\"catalog-1\"", 0L));
     }
 
     @Test
@@ -0,0 +1,189 @@
+package com.hse.leihsy.controller;
+
+import com.hse.leihsy.service.ImageCache;
+import com.hse.leihsy.service.ImageService;
+import com.hse.leihsy.service.ImageVariantService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Auslieferung der Bilder mit echtem ImageService auf einem Temp-Verzeichnis
+ */
+@DisplayName("ImageController Functional Tests")
+class ImageControllerTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageService imageService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        imageService = new ImageService(uploadDir.toString(), new ImageVariantService(1, 10, 50_000_000L),
+                new ImageCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(64), DataSize.ofKilobytes(64)));
+        mockMvc = MockMvcBuilders.standaloneSetup(new ImageController(imageService)).build();
+    }
+
+    private byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private String store(byte[] content) {
+        return imageService.saveImage(new MockMultipartFile("file", "bild.jpg", "image/jpeg", content));
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{hash} - Sollte starkes ETag und unbegrenztes Caching liefern")
+    void getImage_Hashed_ShouldBeImmutable() throws Exception {
+        byte[] content = randomBytes(1024);
+        String filename = store(content);
+
+        mockMvc.perform(get("/api/images/" + filename))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + filename.substring(0, 64) + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().bytes(content));
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{hash} - Sollte 304 ohne Body bei passendem If-None-Match liefern")
+    void getImage_NotModified_ShouldReturn304() throws Exception {
+        String filename = store(randomBytes(1024));
+
+        MvcResult result = mockMvc.perform(get("/api/images/" + filename)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + filename.substring(0, 64) + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andReturn();
+
+        assertThat(result.getResponse().getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{hash} - Sollte bei Revalidierung mit erhaltenem ETag keine Bytes erneut uebertragen")
+    void getImage_Revalidated_ShouldTransferOnlyOnce() throws Exception {
+        byte[] content = randomBytes(8192);
+        String filename = store(content);
+
+        MvcResult first = mockMvc.perform(get("/api/images/" + filename))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult second = mockMvc.perform(get("/api/images/" + filename)
+                        .header(HttpHeaders.IF_NONE_MATCH, first.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified())
+                .andReturn();
+
+        assertThat(first.getResponse().getContentAsByteArray()).hasSize(content.length);
+        assertThat(second.getResponse().getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{legacy} - Sollte alte Dateinamen mit Revalidierung liefern")
+    void getImage_Legacy_ShouldRequireRevalidation() throws Exception {
+        Files.write(uploadDir.resolve("meta-quest-3.jpg"), randomBytes(512));
+
+        MvcResult result = mockMvc.perform(get("/api/images/meta-quest-3.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("no-cache")))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+
+        mockMvc.perform(get("/api/images/meta-quest-3.jpg")
+                        .header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{hash} - Sollte Range-Anfragen mit 206 beantworten")
+    void getImage_Range_ShouldReturnPartialContent() throws Exception {
+        byte[] content = randomBytes(4096);
+        String filename = store(content);
+
+        MvcResult result = mockMvc.perform(get("/api/images/" + filename).header(HttpHeaders.RANGE, "bytes=100-199"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/4096"))
+                .andReturn();
+
+        byte[] expected = new byte[100];
+        System.arraycopy(content, 100, expected, 0, 100);
+        assertThat(result.getResponse().getContentAsByteArray()).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{hash} - Sollte grosse Bilder per Sendfile uebergeben, wenn der Connector es unterstuetzt")
+    void getImage_Large_ShouldUseSendfile() throws Exception {
+        String filename = store(randomBytes(100 * 1024));
+
+        MvcResult result = mockMvc.perform(get("/api/images/" + filename)
+                        .requestAttr(ImageController.SENDFILE_SUPPORTED_ATTR, true))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 100 * 1024))
+                .andReturn();
+
+        assertThat(result.getResponse().getContentAsByteArray()).isEmpty();
+        assertThat((String) result.getRequest().getAttribute(ImageController.SENDFILE_FILENAME_ATTR))
+                .endsWith(filename);
+        assertThat(result.getRequest().getAttribute(ImageController.SENDFILE_END_ATTR)).isEqualTo(100L * 1024);
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{hash}?w= - Sollte naechstgroessere Variante mit eigenem ETag liefern")
+    void getImage_WithWidth_ShouldServeVariant() throws Exception {
+        String filename = store(randomBytes(1024));
+        Path original = uploadDir.resolve(filename.substring(0, 2)).resolve(filename);
+        Files.write(ImageVariantService.variantPath(original, 200), new byte[]{1, 2, 3});
+
+        mockMvc.perform(get("/api/images/" + filename).param("w", "150"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + filename.substring(0, 64) + "-w200\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andExpect(content().bytes(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{hash}?w= - Sollte ohne Variante das Original mit Revalidierung liefern")
+    void getImage_WithWidthWithoutVariant_ShouldServeOriginalNoCache() throws Exception {
+        byte[] content = randomBytes(1024);
+        String filename = store(content);
+
+        mockMvc.perform(get("/api/images/" + filename).param("w", "200"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("no-cache")))
+                .andExpect(content().bytes(content));
+        mockMvc.perform(get("/api/images/" + filename).param("w", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{name} - Sollte 404 fuer unbekannte oder ungueltige Namen liefern")
+    void getImage_Unknown_ShouldReturn404() throws Exception {
+        mockMvc.perform(get("/api/images/unbekannt.jpg"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/images/..secret"))
+                .andExpect(status().isNotFound());
+    }
+}
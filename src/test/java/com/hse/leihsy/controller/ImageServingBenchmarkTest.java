@@ -0,0 +1,106 @@
+package com.hse.leihsy.controller;
+
+import com.hse.leihsy.service.ImageCache;
+import com.hse.leihsy.service.ImageService;
+import com.hse.leihsy.service.ImageVariantService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Vergleicht wiederholte Katalog-Aufrufe mit 24 Produktbildern:
+ * bisher ohne Validatoren (jedes Bild wird bei jedem Aufruf komplett geladen)
+ * gegen Revalidierung per ETag (ab dem zweiten Aufruf nur 304 ohne Body).
+ *
+ * Bewertet werden die uebertragenen Bytes (deterministisch), Durchsatz wird nur geloggt.
+ * Browser fragen Hash-Namen wegen "immutable" gar nicht erneut an; gemessen wird hier der Worst Case.
+ * Laeuft nur mit -Pbenchmark, das Verhalten selbst deckt ImageControllerTest ab.
+ */
+@Slf4j
+@Tag("benchmark")
+@DisplayName("Image Serving Benchmark Tests")
+class ImageServingBenchmarkTest {
+
+    private static final int IMAGE_COUNT = 24;
+    private static final int IMAGE_SIZE = 64 * 1024;
+    private static final int PAGE_LOADS = 20;
+
+    @TempDir
+    Path uploadDir;
+
+    private MockMvc mockMvc;
+    private final List<String> filenames = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ImageService imageService = new ImageService(uploadDir.toString(), new ImageVariantService(1, 10, 50_000_000L),
+                new ImageCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(64), DataSize.ofMegabytes(1)));
+        mockMvc = MockMvcBuilders.standaloneSetup(new ImageController(imageService)).build();
+
+        Random random = new Random(42);
+        for (int i = 0; i < IMAGE_COUNT; i++) {
+            byte[] content = new byte[IMAGE_SIZE];
+            random.nextBytes(content);
+            filenames.add(imageService.saveImage(new MockMultipartFile("file", "bild.jpg", "image/jpeg", content)));
+        }
+    }
+
+    private long loadPages(boolean revalidate) throws Exception {
+        Map<String, String> etags = new HashMap<>();
+        long bytes = 0;
+        for (int page = 0; page < PAGE_LOADS; page++) {
+            for (String filename : filenames) {
+                var request = get("/api/images/" + filename);
+                if (revalidate && etags.containsKey(filename)) {
+                    request.header(HttpHeaders.IF_NONE_MATCH, etags.get(filename));
+                }
+                MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+                etags.put(filename, response.getHeader(HttpHeaders.ETAG));
+                bytes += response.getContentAsByteArray().length;
+            }
+        }
+        return bytes;
+    }
+
+    @Test
+    @DisplayName("Sollte bei wiederholten Katalog-Aufrufen nur den ersten Aufruf komplett uebertragen")
+    void shouldTransferImagesOnlyOnce() throws Exception {
+        long beforeStart = System.nanoTime();
+        long beforeBytes = loadPages(false);
+        long beforeNanos = System.nanoTime() - beforeStart;
+
+        long afterStart = System.nanoTime();
+        long afterBytes = loadPages(true);
+        long afterNanos = System.nanoTime() - afterStart;
+
+        int requests = PAGE_LOADS * IMAGE_COUNT;
+        log.info("Image serving benchmark ({} page loads x {} images x {} KB): " +
+                        "without validators {} MB in {} ms ({} req/s), with ETag revalidation {} MB in {} ms ({} req/s)",
+                PAGE_LOADS, IMAGE_COUNT, IMAGE_SIZE / 1024,
+                beforeBytes / (1024 * 1024), beforeNanos / 1_000_000, requests * 1_000_000_000L / beforeNanos,
+                afterBytes / (1024 * 1024), afterNanos / 1_000_000, requests * 1_000_000_000L / afterNanos);
+
+        assertThat(beforeBytes).isEqualTo((long) PAGE_LOADS * IMAGE_COUNT * IMAGE_SIZE);
+        assertThat(afterBytes).isEqualTo((long) IMAGE_COUNT * IMAGE_SIZE);
+    }
+}
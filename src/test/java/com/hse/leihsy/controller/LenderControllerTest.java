@@ -0,0 +1,103 @@
+package com.hse.leihsy.controller;
+
+import com.hse.leihsy.config.TestSecurityConfig;
+import com.hse.leihsy.config.UserSyncFilter;
+import com.hse.leihsy.service.BookingService;
+import com.hse.leihsy.service.ChangeVersionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = LenderController.class)
+@Import(TestSecurityConfig.class)
+@ActiveProfiles("test")
+@DisplayName("LenderController Functional Tests")
+class LenderControllerTest {
+
+    private static final ChangeVersionService.Version VERSION =
+            new ChangeVersionService.Version("W/\"lender-1\"", 0L);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private BookingService bookingService;
+
+    @MockitoBean
+    private ChangeVersionService changeVersionService;
+
+    @MockitoBean
+    private UserSyncFilter userSyncFilter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        doAnswer(invocation -> {
+            ServletRequest request = invocation.getArgument(0);
+            ServletResponse response = invocation.getArgument(1);
+            FilterChain chain = invocation.getArgument(2);
+            chain.doFilter(request, response);
+            return null;
+        }).when(userSyncFilter).doFilter(any(), any(), any());
+
+        when(changeVersionService.forLender(1L)).thenReturn(VERSION);
+    }
+
+    @Test
+    @DisplayName("GET /api/lenders/{id}/bookings - Sollte Seite als Array mit Cursor im Header liefern")
+    void getLenderBookings_Paged_ShouldReturnCursorHeader() throws Exception {
+        when(bookingService.getBookingsByLenderIdPage(1L, false, null, 20))
+                .thenReturn(new BookingService.BookingPage(List.of(), "abc"));
+
+        mockMvc.perform(get("/api/lenders/1/bookings").param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, "abc"))
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    @DisplayName("GET /api/lenders/{id}/bookings - Sollte 400 bei status=pending mit cursor/limit liefern")
+    void getLenderBookings_PendingPaged_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/lenders/1/bookings").param("status", "pending").param("limit", "20"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    @DisplayName("GET /api/lenders/{id}/bookings - Sollte unbekannten Status wie bisher ignorieren")
+    void getLenderBookings_UnknownStatus_ShouldBeIgnored() throws Exception {
+        when(bookingService.getBookingsByLenderId(1L, false)).thenReturn(List.of());
+        when(bookingService.getBookingsByLenderIdPage(1L, false, "x", BookingService.DEFAULT_PAGE_SIZE))
+                .thenReturn(new BookingService.BookingPage(List.of(), null));
+
+        mockMvc.perform(get("/api/lenders/1/bookings").param("status", "confirmed"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/lenders/1/bookings").param("status", "confirmed").param("cursor", "x"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+
+        verify(bookingService).getBookingsByLenderId(1L, false);
+        verify(bookingService).getBookingsByLenderIdPage(1L, false, "x", BookingService.DEFAULT_PAGE_SIZE);
+    }
+}
@@ -6,9 +6,12 @@ import com.hse.leihsy.config.UserSyncFilter;
 import com.hse.leihsy.exception.ResourceNotFoundException;
 import com.hse.leihsy.mapper.ItemMapper;
 import com.hse.leihsy.mapper.ProductMapper;
+import com.hse.leihsy.model.dto.NextAvailableSlotDTO;
 import com.hse.leihsy.model.dto.ProductCreateDTO;
 import com.hse.leihsy.model.dto.ProductDTO;
+import com.hse.leihsy.model.dto.ProductFilter;
 import com.hse.leihsy.model.entity.Product;
+import com.hse.leihsy.service.ChangeVersionService;
 import com.hse.leihsy.service.ItemService;
 import com.hse.leihsy.service.ProductService;
 import jakarta.servlet.FilterChain;
@@ -21,6 +24,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
@@ -28,14 +34,19 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -45,6 +56,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @DisplayName("ProductController Functional Tests")
 class ProductControllerTest {
 
+    private static final ChangeVersionService.Version CATALOG_VERSION =
+            new ChangeVersionService.Version("W/\"catalog-abc\"", 0L);
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -63,6 +77,9 @@ class ProductControllerTest {
     @MockitoBean
     private ItemMapper itemMapper;
 
+    @MockitoBean
+    private ChangeVersionService changeVersionService;
+
     @MockitoBean
     private UserSyncFilter userSyncFilter;
 
@@ -75,6 +92,73 @@ class ProductControllerTest {
             chain.doFilter(request, response);
             return null;
         }).when(userSyncFilter).doFilter(any(), any(), any());
+
+        when(changeVersionService.forCatalog()).thenReturn(CATALOG_VERSION);
+    }
+
+    @Test
+    @DisplayName("GET /api/products - Sollte ETag liefern")
+    void getAllProducts_ShouldReturnEtag() throws Exception {
+        // Arrange
+        when(productService.findProducts(any(), any(), any(), any())).thenReturn(new SliceImpl<>(List.of()));
+        when(productMapper.toDTOList(any(), any())).thenReturn(List.of());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, CATALOG_VERSION.etag()));
+    }
+
+    @Test
+    @DisplayName("GET /api/products - Sollte alle Filter kombinieren und naechste Seite im Header liefern")
+    void getAllProducts_WithFiltersAndPage_ShouldReturnNextPageHeader() throws Exception {
+        // Arrange
+        ProductFilter filter = new ProductFilter("kamera", 2L, 3L, true, true);
+        when(productService.findProducts(filter, 1, 20, "name,desc"))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(1, 20), true));
+        when(productMapper.toDTOList(any(), any())).thenReturn(List.of());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products")
+                        .param("search", "kamera")
+                        .param("categoryId", "2")
+                        .param("locationId", "3")
+                        .param("available", "true")
+                        .param("active", "true")
+                        .param("page", "1")
+                        .param("size", "20")
+                        .param("sort", "name,desc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ProductController.NEXT_PAGE_HEADER, "2"));
+    }
+
+    @Test
+    @DisplayName("GET /api/products - Sollte 304 ohne Laden der Produkte liefern wenn ETag passt")
+    void getAllProducts_NotModified_ShouldReturn304() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, CATALOG_VERSION.etag()))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(productService, productMapper);
+    }
+
+    @Test
+    @DisplayName("GET /api/products/next-available - Sollte Slots fuer Product-IDs mit ISO-Dauer liefern")
+    void getNextAvailableSlots_ShouldReturnSlots() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2025, 12, 10, 9, 0);
+        when(productService.resolveProductIds(List.of(1L, 2L), null)).thenReturn(List.of(1L, 2L));
+        when(productService.getNextAvailableSlots(List.of(1L, 2L), 2, Duration.ofDays(3))).thenReturn(List.of(
+                new NextAvailableSlotDTO(1L, from, null),
+                new NextAvailableSlotDTO(2L, null, null)));
+
+        mockMvc.perform(get("/api/products/next-available")
+                        .param("productIds", "1,2")
+                        .param("requiredQuantity", "2")
+                        .param("duration", "P3D"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId").value(1))
+                .andExpect(jsonPath("$[0].availableFrom").value("2025-12-10T09:00:00"))
+                .andExpect(jsonPath("$[1].availableFrom").doesNotExist());
     }
 
     @Test
@@ -86,7 +170,7 @@ class ProductControllerTest {
         productDTO.setName("Test Product");
 
         when(productService.getProductById(1L)).thenReturn(new Product());
-        when(productMapper.toDTO(any())).thenReturn(productDTO);
+        when(productMapper.toDTO(any(), any())).thenReturn(productDTO);
 
         // Act & Assert
         mockMvc.perform(get("/api/products/1"))
@@ -110,6 +110,59 @@ class BookingEntityTest {
         }
     }
 
+    @Nested
+    @DisplayName("Status-Uebergaenge Tests")
+    class StatusTransitionTests {
+
+        @Test
+        @DisplayName("Sollte CANCELLED behalten wenn automatisch storniert")
+        void shouldKeepCancelledAfterMarkCancelled() {
+            Booking booking = new Booking();
+            booking.setCreatedAt(LocalDateTime.now().minusHours(25));
+
+            booking.markCancelled();
+
+            assertThat(booking.getDeletedAt()).isNotNull();
+            assertThat(booking.calculateStatus()).isEqualTo(BookingStatus.CANCELLED);
+            assertThat(booking.getEffectiveStatus()).isEqualTo(BookingStatus.CANCELLED);
+        }
+
+        @Test
+        @DisplayName("Sollte EXPIRED behalten wenn automatisch abgelaufen")
+        void shouldKeepExpiredAfterMarkExpired() {
+            Booking booking = new Booking();
+            booking.setCreatedAt(LocalDateTime.now().minusDays(3));
+            booking.setConfirmedPickup(LocalDateTime.now().minusHours(25));
+
+            booking.markExpired();
+
+            assertThat(booking.calculateStatus()).isEqualTo(BookingStatus.EXPIRED);
+            assertThat(booking.getEffectiveStatus()).isEqualTo(BookingStatus.EXPIRED);
+        }
+
+        @Test
+        @DisplayName("Sollte zeitabhaengigen Status neu berechnen wenn gespeichert PENDING")
+        void shouldRecalculateTimeDependentStatus() {
+            Booking booking = new Booking();
+            booking.setCreatedAt(LocalDateTime.now().minusHours(25));
+            booking.setStatus(BookingStatus.PENDING.name());
+
+            assertThat(booking.getEffectiveStatus()).isEqualTo(BookingStatus.CANCELLED);
+        }
+
+        @Test
+        @DisplayName("Sollte gespeicherten Endstatus ohne Neuberechnung liefern")
+        void shouldReturnPersistedTerminalStatus() {
+            Booking booking = new Booking();
+            booking.setCreatedAt(LocalDateTime.now());
+            booking.setReturnDate(LocalDateTime.now());
+            booking.updateStatus();
+
+            assertThat(booking.getStatus()).isEqualTo(BookingStatus.RETURNED.name());
+            assertThat(booking.getEffectiveStatus()).isEqualTo(BookingStatus.RETURNED);
+        }
+    }
+
     @Nested
     @DisplayName("Constructor & Helper Tests")
     class ConstructorAndHelperTests {
@@ -0,0 +1,198 @@
+package com.hse.leihsy.repository;
+
+import com.hse.leihsy.model.dto.timePeriodDTO;
+import com.hse.leihsy.model.entity.*;
+import com.hse.leihsy.service.AvailabilityTimeline;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vergleicht die Verfuegbarkeits-Berechnung ueber Item.getBookings() (Lazy Loading je Item)
+ * mit der Intervall-Abfrage + AvailabilityTimeline auf einem Produkt mit 50 Items x 200 Buchungen.
+ *
+ * Bewertet werden die SQL-Statements (deterministisch), Laufzeiten werden nur geloggt.
+ * Laeuft nur mit -Pbenchmark, die Statement-Anzahl auf kleinem Bestand prueft BookingRepositoryTest.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DisplayName("Availability Benchmark Tests")
+class AvailabilityBenchmarkTest {
+
+    private static final int ITEM_COUNT = 50;
+    private static final int BOOKINGS_PER_ITEM = 200;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Product product;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+
+        User user = new User();
+        user.setUniqueId("bench-user");
+        user.setName("Bench User");
+        user.setEmail("bench@example.com");
+        user.setBudget(BigDecimal.ZERO);
+        entityManager.persist(user);
+
+        product = new Product();
+        product.setName("Bench Product");
+        product.setDescription("Benchmark");
+        entityManager.persist(product);
+
+        // Je Item: Haelfte Historie, Rest Zukunft; jede 10. Buchung storniert, jede 7. zurueckgegeben
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            Item item = new Item();
+            item.setProduct(product);
+            item.setLender(user);
+            item.setInvNumber("BENCH-" + i);
+            entityManager.persist(item);
+
+            for (int b = 0; b < BOOKINGS_PER_ITEM; b++) {
+                LocalDateTime start = now.plusDays((b - BOOKINGS_PER_ITEM / 2) * 3L + i % 3).plusHours(1);
+                Booking booking = new Booking();
+                booking.setUser(user);
+                booking.setLender(user);
+                booking.setItem(item);
+                booking.setStartDate(start);
+                booking.setEndDate(start.plusDays(2));
+                if (b % 10 == 0) {
+                    booking.setDeletedAt(now);
+                } else if (b % 7 == 0) {
+                    booking.setReturnDate(now);
+                }
+                entityManager.persist(booking);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    // Bisherige Berechnung aus ProductService: alle Items laden, je Item die Buchungen nachladen
+    private List<timePeriodDTO> legacyUnavailablePeriods(Long productId, int requiredQuantity) {
+        List<Item> items = itemRepository.findByProductId(productId);
+        int totalItems = items.size();
+
+        record BookingEvent(LocalDateTime date, int change) {
+        }
+        List<BookingEvent> events = new ArrayList<>();
+        for (Item item : items) {
+            for (Booking booking : item.getBookings()) {
+                if (booking.getEndDate().isAfter(now)) {
+                    events.add(new BookingEvent(booking.getStartDate(), +1));
+                    events.add(new BookingEvent(booking.getEndDate(), -1));
+                }
+            }
+        }
+        events.sort(Comparator.comparing(BookingEvent::date));
+
+        List<timePeriodDTO> periods = new ArrayList<>();
+        int lended = 0;
+        LocalDateTime unavailableStart = null;
+        for (BookingEvent event : events) {
+            boolean wasAvailable = totalItems - lended >= requiredQuantity;
+            lended += event.change();
+            boolean isAvailable = totalItems - lended >= requiredQuantity;
+            if (wasAvailable && !isAvailable) {
+                unavailableStart = event.date();
+            }
+            if (!wasAvailable && isAvailable) {
+                periods.add(new timePeriodDTO(unavailableStart, event.date()));
+            }
+        }
+        return periods;
+    }
+
+    private List<timePeriodDTO> timelineUnavailablePeriods(Long productId, int requiredQuantity) {
+        LocalDateTime horizon = now.plusYears(1);
+        int totalItems = Math.toIntExact(itemRepository.countByProductId(productId));
+        List<timePeriodDTO> intervals = bookingRepository.findActiveIntervalsByProductId(productId, now, horizon);
+        return AvailabilityTimeline.build(totalItems, intervals, now, horizon).unavailablePeriods(requiredQuantity);
+    }
+
+    @Test
+    @DisplayName("Sollte Verfuegbarkeit mit 2 statt 1 + n Statements berechnen")
+    void shouldUseConstantNumberOfStatements() {
+        Statistics statistics = statistics();
+        long legacyStart = System.nanoTime();
+        List<timePeriodDTO> legacy = legacyUnavailablePeriods(product.getId(), 25);
+        long legacyNanos = System.nanoTime() - legacyStart;
+        long legacyStatements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+
+        statistics = statistics();
+        long timelineStart = System.nanoTime();
+        List<timePeriodDTO> timeline = timelineUnavailablePeriods(product.getId(), 25);
+        long timelineNanos = System.nanoTime() - timelineStart;
+        long timelineStatements = statistics.getPrepareStatementCount();
+
+        log.info("Availability benchmark ({} items x {} bookings): legacy {} ms / {} statements / {} periods, " +
+                        "timeline {} ms / {} statements / {} periods",
+                ITEM_COUNT, BOOKINGS_PER_ITEM,
+                legacyNanos / 1_000_000, legacyStatements, legacy.size(),
+                timelineNanos / 1_000_000, timelineStatements, timeline.size());
+
+        assertThat(legacyStatements).isGreaterThanOrEqualTo(1 + ITEM_COUNT);
+        assertThat(timelineStatements).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Sollte stornierte und zurueckgegebene Buchungen nicht als Belegung zaehlen")
+    void shouldIgnoreCancelledAndReturnedBookings() {
+        List<timePeriodDTO> intervals = bookingRepository.findActiveIntervalsByProductId(
+                product.getId(), now, now.plusYears(1));
+
+        // Erwartete Anzahl aus derselben Seed-Logik: aktiv und im Fenster (endDate > now, startDate < Horizont)
+        long expected = 0;
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            for (int b = 0; b < BOOKINGS_PER_ITEM; b++) {
+                LocalDateTime start = now.plusDays((b - BOOKINGS_PER_ITEM / 2) * 3L + i % 3).plusHours(1);
+                boolean active = b % 10 != 0 && b % 7 != 0;
+                if (active && start.plusDays(2).isAfter(now) && start.isBefore(now.plusYears(1))) {
+                    expected++;
+                }
+            }
+        }
+
+        assertThat(intervals).hasSize((int) expected);
+        assertThat(intervals).allMatch(interval -> interval.getEndDate().isAfter(now));
+    }
+}
@@ -1,6 +1,18 @@
 package com.hse.leihsy.repository;
 
+import com.hse.leihsy.mapper.BookingMapper;
+import com.hse.leihsy.mapper.BookingMapperImpl;
+import com.hse.leihsy.model.dto.BookingDTO;
+import com.hse.leihsy.model.dto.BookingInterval;
+import com.hse.leihsy.model.dto.ChangeVersion;
+import com.hse.leihsy.model.dto.ItemGap;
+import com.hse.leihsy.model.dto.ProductBookingInterval;
+import com.hse.leihsy.model.dto.ProductItemCounts;
+import com.hse.leihsy.model.dto.timePeriodDTO;
 import com.hse.leihsy.model.entity.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -8,15 +20,23 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(BookingMapperImpl.class)
 @ActiveProfiles("test")
 @DisplayName("BookingRepository Tests")
 class BookingRepositoryTest {
@@ -27,6 +47,15 @@ class BookingRepositoryTest {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingMapper bookingMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private User testUser;
     private User testLender;
     private Item testItem;
@@ -132,6 +161,380 @@ class BookingRepositoryTest {
         }
     }
 
+    @Nested
+    @DisplayName("IncludingDeleted Tests")
+    class IncludingDeletedTests {
+
+        @Test
+        @DisplayName("Sollte Bookings eines Users inkl. gelöschter finden")
+        void shouldFindUserBookingsIncludingDeleted() {
+            Booking deleted = createBooking(BookingStatus.PENDING);
+            deleted.setDeletedAt(LocalDateTime.now());
+            entityManager.flush();
+
+            List<Booking> result = bookingRepository.findByUserIdIncludingDeleted(testUser.getId());
+
+            assertThat(result).hasSize(2);
+            assertThat(bookingRepository.findByUserIdIncludingDeleted(testLender.getId())).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Sollte Bookings eines Verleihers inkl. gelöschter finden")
+        void shouldFindLenderBookingsIncludingDeleted() {
+            Booking deleted = createBooking(BookingStatus.CONFIRMED);
+            deleted.setDeletedAt(LocalDateTime.now());
+            entityManager.flush();
+
+            List<Booking> result = bookingRepository.findByLenderIdIncludingDeleted(testLender.getId());
+
+            assertThat(result).hasSize(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Pending-Status Tests")
+    class PendingStatusTests {
+
+        @Test
+        @DisplayName("Sollte nur PENDING Bookings eines Verleihers finden")
+        void shouldFindCalculatedPendingByLender() {
+            createBooking(BookingStatus.CONFIRMED);
+            createBooking(BookingStatus.RETURNED);
+            Booking deleted = createBooking(BookingStatus.PENDING);
+            deleted.setDeletedAt(LocalDateTime.now());
+            entityManager.flush();
+
+            List<Booking> result = bookingRepository.findAllPendingByLenderId(
+                    testLender.getId(), LocalDateTime.now().minusHours(24));
+
+            assertThat(result).hasSize(1);
+            assertThat(result).allMatch(b -> b.calculateStatus() == BookingStatus.PENDING);
+        }
+
+        @Test
+        @DisplayName("Sollte status-Spalte bei Update mit Timestamps synchronisieren")
+        void shouldSyncPersistedStatusOnUpdate() {
+            Booking booking = createBooking(BookingStatus.PENDING);
+            booking.setStatus(BookingStatus.RETURNED.name());
+            entityManager.flush();
+            assertThat(booking.getStatus()).isEqualTo(BookingStatus.PENDING.name());
+
+            booking.setConfirmedPickup(LocalDateTime.now());
+            booking.setDistributionDate(LocalDateTime.now());
+            entityManager.flush();
+            entityManager.clear();
+
+            assertThat(bookingRepository.findAllPickedUp()).extracting(Booking::getId)
+                    .containsExactly(booking.getId());
+            assertThat(bookingRepository.findAllPending(LocalDateTime.now().minusHours(24)))
+                    .extracting(Booking::getId)
+                    .doesNotContain(booking.getId());
+        }
+
+        @Test
+        @DisplayName("Sollte automatisch stornierte Bookings als CANCELLED statt REJECTED finden")
+        void shouldKeepCancelledStatus() {
+            Booking cancelled = createBooking(BookingStatus.PENDING);
+            cancelled.markCancelled();
+            Booking rejected = createBooking(BookingStatus.PENDING);
+            rejected.setDeletedAt(LocalDateTime.now());
+            entityManager.flush();
+            entityManager.clear();
+
+            LocalDateTime threshold = LocalDateTime.now().minusHours(24);
+            assertThat(bookingRepository.findAllCancelled(threshold)).extracting(Booking::getId)
+                    .containsExactly(cancelled.getId());
+            assertThat(bookingRepository.getReferenceById(rejected.getId()).getEffectiveStatus())
+                    .isEqualTo(BookingStatus.REJECTED);
+        }
+
+        @Test
+        @DisplayName("Sollte unter rejected wie bisher alle geloeschten Bookings liefern (inkl. storniert/abgelaufen)")
+        void shouldListAllDeletedAsRejected() {
+            Booking rejected = createBooking(BookingStatus.PENDING);
+            rejected.setDeletedAt(LocalDateTime.now());
+            Booking cancelled = createBooking(BookingStatus.PENDING);
+            cancelled.markCancelled();
+            Booking expired = createBooking(BookingStatus.CONFIRMED);
+            expired.markExpired();
+            Booking returned = createBooking(BookingStatus.RETURNED);
+            entityManager.flush();
+            entityManager.clear();
+
+            List<Long> deletedIds = List.of(rejected.getId(), cancelled.getId(), expired.getId());
+            assertThat(bookingRepository.findAllRejected()).extracting(Booking::getId)
+                    .containsExactlyInAnyOrderElementsOf(deletedIds)
+                    .doesNotContain(returned.getId());
+            assertThat(bookingRepository.findAllRejectedPage(
+                    LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE, Limit.of(10)))
+                    .extracting(Booking::getId)
+                    .containsExactlyInAnyOrderElementsOf(deletedIds);
+        }
+
+        @Test
+        @DisplayName("Sollte Bestandsdaten ohne gepflegten Status per Migration V3 befuellen")
+        void shouldBackfillStaleStatus() throws Exception {
+            Booking pickedUp = createBooking(BookingStatus.PICKED_UP);
+            Booking rejected = createBooking(BookingStatus.PENDING);
+            rejected.setDeletedAt(LocalDateTime.now());
+            entityManager.flush();
+            // Altbestand simulieren: status-Spalte am Entity vorbei leeren
+            entityManager.getEntityManager()
+                    .createNativeQuery("UPDATE bookings SET status = NULL, updated_at = NULL")
+                    .executeUpdate();
+
+            String migration = new ClassPathResource("db/migration/h2/V3__backfill_booking_status.sql")
+                    .getContentAsString(StandardCharsets.UTF_8);
+            int updated = 0;
+            for (String statement : migration.replaceAll("(?m)^--.*$", "").split(";")) {
+                if (!statement.isBlank()) {
+                    updated += entityManager.getEntityManager().createNativeQuery(statement).executeUpdate();
+                }
+            }
+            entityManager.clear();
+
+            assertThat(updated).isEqualTo(3);
+            assertThat(bookingRepository.findById(pickedUp.getId()).orElseThrow().getUpdatedAt()).isNotNull();
+            assertThat(bookingRepository.findAllPickedUp()).extracting(Booking::getId)
+                    .containsExactly(pickedUp.getId());
+            assertThat(bookingRepository.findAllRejected()).extracting(Booking::getId)
+                    .containsExactly(rejected.getId());
+            assertThat(bookingRepository.findAllPending(LocalDateTime.now().minusHours(24)))
+                    .hasSize(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("findOpenByLenderId Tests")
+    class FindOpenByLenderIdTests {
+
+        @Test
+        @DisplayName("Sollte offene Bookings eines Verleihers ohne abgeschlossene finden")
+        void shouldFindOpenBookingsOnly() {
+            Booking confirmed = createBooking(BookingStatus.CONFIRMED);
+            confirmed.setProposedPickups("[]");
+            Booking pickedUp = createBooking(BookingStatus.PICKED_UP);
+            pickedUp.setProposedPickups("[]");
+            Booking returned = createBooking(BookingStatus.RETURNED);
+            returned.setProposedPickups("[]");
+            Booking deleted = createBooking(BookingStatus.PENDING);
+            deleted.setDeletedAt(LocalDateTime.now());
+            entityManager.flush();
+
+            List<Booking> result = bookingRepository.findOpenByLenderId(testLender.getId());
+
+            // PENDING aus setUp + CONFIRMED + PICKED_UP
+            assertThat(result).hasSize(3)
+                    .extracting(Booking::getId)
+                    .contains(confirmed.getId(), pickedUp.getId())
+                    .doesNotContain(returned.getId(), deleted.getId());
+        }
+    }
+
+    @Nested
+    @DisplayName("findAllActiveIntervals Tests")
+    class FindAllActiveIntervalsTests {
+
+        @Test
+        @DisplayName("Sollte nur nicht stornierte und nicht zurueckgegebene Buchungen liefern")
+        void shouldReturnOnlyActiveIntervals() {
+            Booking confirmed = createBooking(BookingStatus.CONFIRMED);
+            createBooking(BookingStatus.RETURNED);
+            Booking cancelled = createBooking(BookingStatus.PENDING);
+            cancelled.setDeletedAt(LocalDateTime.now());
+            entityManager.flush();
+
+            List<BookingInterval> result = bookingRepository.findAllActiveIntervals();
+
+            // PENDING aus setUp + CONFIRMED
+            assertThat(result).hasSize(2)
+                    .extracting(BookingInterval::bookingId)
+                    .contains(confirmed.getId())
+                    .doesNotContain(cancelled.getId());
+            assertThat(result).allMatch(interval -> interval.itemId().equals(testItem.getId()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Verfuegbarkeits-Intervalle je Product Tests")
+    class FindActiveIntervalsByProductTests {
+
+        private final LocalDateTime now = LocalDateTime.now();
+
+        /**
+         * Je Product zwei Items mit je einer aktiven, einer stornierten und einer zurueckgegebenen Buchung
+         */
+        private List<Long> createProducts(int count) {
+            List<Long> productIds = new ArrayList<>();
+            for (int p = 0; p < count; p++) {
+                Product product = new Product("Produkt " + p, "Beschreibung");
+                entityManager.persist(product);
+                productIds.add(product.getId());
+
+                for (int i = 0; i < 2; i++) {
+                    Item item = new Item();
+                    item.setProduct(product);
+                    item.setLender(testLender);
+                    item.setInvNumber("INV-AV-" + p + "-" + i);
+                    entityManager.persist(item);
+
+                    for (int b = 0; b < 3; b++) {
+                        Booking booking = new Booking();
+                        booking.setUser(testUser);
+                        booking.setLender(testLender);
+                        booking.setItem(item);
+                        booking.setStartDate(now.plusDays(1 + b));
+                        booking.setEndDate(now.plusDays(2 + b));
+                        if (b == 1) {
+                            booking.setDeletedAt(now);
+                        } else if (b == 2) {
+                            booking.setReturnDate(now);
+                        }
+                        entityManager.persist(booking);
+                    }
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return productIds;
+        }
+
+        private Statistics statistics() {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+            return statistics;
+        }
+
+        @Test
+        @DisplayName("Sollte stornierte und zurueckgegebene Buchungen nicht als Belegung zaehlen")
+        void shouldIgnoreCancelledAndReturnedBookings() {
+            Long productId = createProducts(1).getFirst();
+
+            List<timePeriodDTO> intervals = bookingRepository.findActiveIntervalsByProductId(
+                    productId, now, now.plusYears(1));
+
+            // Je Item nur die aktive Buchung
+            assertThat(intervals).hasSize(2)
+                    .allMatch(interval -> interval.getEndDate().isBefore(now.plusDays(2).plusSeconds(1)));
+        }
+
+        @Test
+        @DisplayName("Sollte Item-Anzahlen und Intervalle mehrerer Products mit 2 Statements laden")
+        void shouldLoadSeveralProductsWithTwoStatements() {
+            List<Long> productIds = createProducts(3);
+            Statistics statistics = statistics();
+
+            List<ProductItemCounts> counts = itemRepository.countItemsByProductIds(productIds);
+            List<ProductBookingInterval> intervals = bookingRepository.findActiveIntervalsByProductIds(
+                    productIds, now, now.plusYears(1));
+
+            assertThat(counts).extracting(ProductItemCounts::totalItems).containsOnly(2L);
+            assertThat(intervals).hasSize(6)
+                    .extracting(ProductBookingInterval::productId)
+                    .containsOnlyElementsOf(productIds);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("findGapsAround Tests")
+    class FindGapsAroundTests {
+
+        private Booking createBooking(BookingStatus status, LocalDateTime start, LocalDateTime end) {
+            Booking booking = BookingRepositoryTest.this.createBooking(status);
+            booking.setStartDate(start);
+            booking.setEndDate(end);
+            return booking;
+        }
+
+        @Test
+        @DisplayName("Sollte naechste aktive Buchung vor und nach dem Zeitraum je Item liefern")
+        void shouldReturnAdjacentActiveBookings() {
+            LocalDateTime base = LocalDateTime.now().withNano(0);
+            // setUp-Buchung endet an Tag 7; Tag 8-9 aktiv, Tag 9 storniert, danach ab Tag 15 und Tag 20
+            createBooking(BookingStatus.CONFIRMED, base.plusDays(8), base.plusDays(9));
+            createBooking(BookingStatus.PENDING, base.plusDays(9), base.plusDays(9).plusHours(6))
+                    .setDeletedAt(LocalDateTime.now());
+            createBooking(BookingStatus.PENDING, base.plusDays(20), base.plusDays(21));
+            createBooking(BookingStatus.PENDING, base.plusDays(15), base.plusDays(16));
+            entityManager.flush();
+
+            List<ItemGap> result = bookingRepository.findGapsAround(
+                    List.of(testItem.getId()), base.plusDays(10), base.plusDays(12));
+
+            assertThat(result).containsExactly(
+                    new ItemGap(testItem.getId(), base.plusDays(9), base.plusDays(15)));
+        }
+
+        @Test
+        @DisplayName("Sollte offene Seiten als null liefern")
+        void shouldReturnNullForOpenSides() {
+            LocalDateTime start = LocalDateTime.now().plusDays(30);
+
+            List<ItemGap> result = bookingRepository.findGapsAround(List.of(testItem.getId()), start, start.plusDays(1));
+
+            assertThat(result).hasSize(1);
+            assertThat(result.get(0).previousEnd()).isNotNull();
+            assertThat(result.get(0).nextStart()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("ChangeVersion Tests")
+    class ChangeVersionTests {
+
+        @Test
+        @DisplayName("Sollte Anzahl und juengstes updatedAt eines Verleihers aggregieren")
+        void shouldAggregateLenderChangeVersion() {
+            Booking booking = createBooking(BookingStatus.CONFIRMED);
+            entityManager.flush();
+
+            ChangeVersion before = bookingRepository.findChangeVersionByLenderId(testLender.getId());
+
+            booking.setDeletedAt(LocalDateTime.now());
+            entityManager.flush();
+            ChangeVersion after = bookingRepository.findChangeVersionByLenderId(testLender.getId());
+
+            assertThat(before.count()).isEqualTo(2);
+            assertThat(after.count()).isEqualTo(2);
+            assertThat(after.lastModified()).isAfterOrEqualTo(before.lastModified());
+            assertThat(after).isNotEqualTo(before);
+        }
+
+        @Test
+        @DisplayName("Sollte leeren Stand fuer unbekannten Verleiher liefern")
+        void shouldReturnEmptyVersionForUnknownLender() {
+            ChangeVersion version = bookingRepository.findChangeVersionByLenderId(-1L);
+
+            assertThat(version.count()).isZero();
+            assertThat(version.lastModified()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("streamAllForExport Tests")
+    class StreamAllForExportTests {
+
+        @Test
+        @DisplayName("Sollte alle Bookings inkl. gelöschter nach ID streamen")
+        void shouldStreamAllBookingsOrderedById() {
+            Booking returned = createBooking(BookingStatus.RETURNED);
+            Booking deleted = createBooking(BookingStatus.PENDING);
+            deleted.setDeletedAt(LocalDateTime.now());
+            entityManager.flush();
+            entityManager.clear();
+
+            List<Long> ids;
+            try (Stream<Booking> stream = bookingRepository.streamAllForExport()) {
+                ids = stream.map(Booking::getId).toList();
+            }
+
+            assertThat(ids).hasSize(3)
+                    .isSorted()
+                    .contains(returned.getId(), deleted.getId());
+        }
+    }
+
     @Nested
     @DisplayName("findByLenderId Tests")
     class FindByLenderIdTests {
@@ -255,4 +658,141 @@ class BookingRepositoryTest {
             assertThat(result).hasSize(1);
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Keyset-Pagination Tests")
+    class KeysetPaginationTests {
+
+        private final LocalDateTime firstCursor = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+        @Test
+        @DisplayName("Sollte alle Bookings seitenweise ohne Duplikate liefern")
+        void shouldPageThroughAllBookingsWithoutDuplicates() {
+            for (int i = 0; i < 6; i++) {
+                createBooking(BookingStatus.PENDING);
+            }
+            entityManager.flush();
+            // Cursor stammen in der Praxis aus frisch geladenen Entities (DB-Praezision der Timestamps)
+            entityManager.clear();
+
+            List<Booking> collected = new ArrayList<>();
+            LocalDateTime cursorCreatedAt = firstCursor;
+            Long cursorId = Long.MAX_VALUE;
+            List<Booking> page;
+            do {
+                page = bookingRepository.findAllActivePage(cursorCreatedAt, cursorId, Limit.of(3));
+                collected.addAll(page);
+                if (!page.isEmpty()) {
+                    cursorCreatedAt = page.getLast().getCreatedAt();
+                    cursorId = page.getLast().getId();
+                }
+            } while (page.size() == 3);
+
+            assertThat(collected).hasSize(7);
+            assertThat(collected).extracting(Booking::getId).doesNotHaveDuplicates();
+            assertThat(collected).isSortedAccordingTo(Comparator.comparing(Booking::getCreatedAt)
+                    .thenComparing(Booking::getId).reversed());
+        }
+
+        @Test
+        @DisplayName("Sollte geloeschte Bookings eines Users nur auf Wunsch liefern")
+        void shouldRespectIncludeDeletedFlag() {
+            Booking deleted = createBooking(BookingStatus.PENDING);
+            deleted.setDeletedAt(LocalDateTime.now());
+            entityManager.flush();
+
+            List<Booking> withoutDeleted = bookingRepository.findByUserIdPage(
+                    testUser.getId(), false, firstCursor, Long.MAX_VALUE, Limit.of(10));
+            List<Booking> withDeleted = bookingRepository.findByUserIdPage(
+                    testUser.getId(), true, firstCursor, Long.MAX_VALUE, Limit.of(10));
+
+            assertThat(withoutDeleted).hasSize(1);
+            assertThat(withDeleted).hasSize(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Fetch-Plan Tests")
+    class FetchPlanTests {
+
+        /**
+         * Legt Bookings mit jeweils eigenem User, Item, Product, Location und Gruppe an,
+         * damit jede Lazy-Relation ohne Fetch-Plan eine eigene Query ausloesen wuerde.
+         */
+        private void createBookingsWithDistinctRelations(int count) {
+            for (int i = 0; i < count; i++) {
+                Location location = new Location();
+                location.setRoomNr("Raum " + i);
+                entityManager.persist(location);
+
+                User student = new User("student-" + i, "Student " + i);
+                entityManager.persist(student);
+
+                Product product = new Product("Produkt " + i, "Beschreibung");
+                product.setLocation(location);
+                entityManager.persist(product);
+
+                Item item = new Item();
+                item.setProduct(product);
+                item.setLender(testLender);
+                item.setLocation(location);
+                item.setInvNumber("INV-FP-" + i);
+                entityManager.persist(item);
+
+                StudentGroup group = StudentGroup.builder()
+                        .name("Gruppe " + i)
+                        .createdBy(student)
+                        .build();
+                group.addMember(student);
+                group.addMember(testUser);
+                entityManager.persist(group);
+
+                Booking booking = new Booking();
+                booking.setUser(student);
+                booking.setLender(testLender);
+                booking.setProposalBy(testLender);
+                booking.setItem(item);
+                booking.setStudentGroup(group);
+                booking.setStartDate(LocalDateTime.now().plusDays(1));
+                booking.setEndDate(LocalDateTime.now().plusDays(3));
+                booking.setStatus(BookingStatus.PENDING.name());
+                entityManager.persist(booking);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        private Statistics statistics() {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+            return statistics;
+        }
+
+        @Test
+        @DisplayName("Sollte Verleiher-Liste inkl. Mapping mit konstanter Anzahl Statements laden")
+        void shouldLoadAndMapLenderBookingsWithConstantStatementCount() {
+            createBookingsWithDistinctRelations(10);
+            Statistics statistics = statistics();
+
+            List<BookingDTO> result = bookingMapper.toDTOList(bookingRepository.findByLenderId(testLender.getId()));
+
+            assertThat(result).hasSize(11);
+            assertThat(result).allSatisfy(dto -> assertThat(dto.getProductName()).isNotNull());
+            // 1x Booking-Query mit Joins + 1x Batch fuer Gruppenmitglieder
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Sollte Anzahl Statements unabhaengig von der Anzahl Bookings halten")
+        void shouldNotScaleStatementCountWithRows() {
+            createBookingsWithDistinctRelations(20);
+            Statistics statistics = statistics();
+
+            List<BookingDTO> result = bookingMapper.toDTOList(bookingRepository.findAllActive());
+
+            assertThat(result).hasSize(21);
+            assertThat(result).allSatisfy(dto -> assertThat(dto.getRoomNr()).isNotNull());
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.hse.leihsy.repository;
+
+import com.hse.leihsy.model.dto.ProductItemCounts;
+import com.hse.leihsy.model.dto.timePeriodDTO;
+import com.hse.leihsy.model.entity.*;
+import com.hse.leihsy.service.AvailabilityTimeline;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vergleicht "verfuegbar ab" fuer den ganzen Katalog: je Product eine Zeitraum-Abfrage
+ * (wie bisher ueber /api/products/{id}/periods) gegen die Sammel-Abfrage mit einem Durchlauf.
+ *
+ * Bewertet werden die SQL-Statements (deterministisch), Laufzeiten werden nur geloggt.
+ * Laeuft nur mit -Pbenchmark, die Statement-Anzahl auf kleinem Bestand prueft BookingRepositoryTest.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DisplayName("Catalog Availability Benchmark Tests")
+class CatalogAvailabilityBenchmarkTest {
+
+    private static final int PRODUCT_COUNT = 100;
+    private static final int ITEMS_PER_PRODUCT = 3;
+    private static final int BOOKINGS_PER_ITEM = 10;
+    private static final Duration DURATION = Duration.ofDays(2);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private LocalDateTime now;
+    private LocalDateTime horizon;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+        horizon = now.plusYears(1);
+
+        User user = new User();
+        user.setUniqueId("catalog-bench-user");
+        user.setName("Bench User");
+        user.setEmail("catalog-bench@example.com");
+        user.setBudget(BigDecimal.ZERO);
+        entityManager.persist(user);
+
+        // Je Item aufeinanderfolgende 1-3-Tages-Buchungen mit Luecken, versetzt je Product
+        for (int p = 0; p < PRODUCT_COUNT; p++) {
+            Product product = new Product();
+            product.setName("Bench Product " + p);
+            product.setDescription("Benchmark");
+            entityManager.persist(product);
+
+            for (int i = 0; i < ITEMS_PER_PRODUCT; i++) {
+                Item item = new Item();
+                item.setProduct(product);
+                item.setLender(user);
+                item.setInvNumber("CAT-" + p + "-" + i);
+                entityManager.persist(item);
+
+                LocalDateTime start = now.plusHours(1 + (p % 5) * 12L);
+                for (int b = 0; b < BOOKINGS_PER_ITEM; b++) {
+                    Booking booking = new Booking();
+                    booking.setUser(user);
+                    booking.setLender(user);
+                    booking.setItem(item);
+                    booking.setStartDate(start);
+                    booking.setEndDate(start.plusDays(1 + (b + i) % 3));
+                    entityManager.persist(booking);
+                    start = booking.getEndDate().plusHours(6L * ((b + p) % 4) + 1);
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private LocalDateTime availableFrom(List<timePeriodDTO> availablePeriods) {
+        timePeriodDTO window = AvailabilityTimeline.earliestWindow(availablePeriods, DURATION);
+        return window != null ? window.getStartDate() : null;
+    }
+
+    // Bisher: je Product Item-Anzahl + Intervalle laden
+    private Map<Long, LocalDateTime> perProduct(List<Long> productIds) {
+        Map<Long, LocalDateTime> result = new HashMap<>();
+        for (Long productId : productIds) {
+            int totalItems = Math.toIntExact(itemRepository.countByProductId(productId));
+            List<timePeriodDTO> intervals = bookingRepository.findActiveIntervalsByProductId(productId, now, horizon);
+            result.put(productId, availableFrom(
+                    AvailabilityTimeline.build(totalItems, intervals, now, horizon).availablePeriods(1)));
+        }
+        return result;
+    }
+
+    // Neu: Item-Anzahlen und Intervalle aller Products in je einer Query, ein Durchlauf
+    private Map<Long, LocalDateTime> bulk(List<Long> productIds) {
+        Map<Long, Integer> totalItems = new HashMap<>();
+        for (ProductItemCounts counts : itemRepository.countItemsByProductIds(productIds)) {
+            totalItems.put(counts.productId(), Math.toIntExact(counts.totalItems()));
+        }
+        Map<Long, AvailabilityTimeline> timelines = AvailabilityTimeline.buildAll(totalItems,
+                bookingRepository.findActiveIntervalsByProductIds(productIds, now, horizon), now, horizon);
+
+        Map<Long, LocalDateTime> result = new HashMap<>();
+        timelines.forEach((productId, timeline) -> result.put(productId, availableFrom(timeline.availablePeriods(1))));
+        return result;
+    }
+
+    @Test
+    @DisplayName("Sollte 'verfuegbar ab' fuer den ganzen Katalog mit 2 statt 2n Statements berechnen")
+    void shouldUseConstantNumberOfStatements() {
+        List<Long> productIds = productRepository.findActiveIds(null);
+        assertThat(productIds).hasSize(PRODUCT_COUNT);
+
+        Statistics statistics = statistics();
+        long perProductStart = System.nanoTime();
+        Map<Long, LocalDateTime> perProduct = perProduct(productIds);
+        long perProductNanos = System.nanoTime() - perProductStart;
+        long perProductStatements = statistics.getPrepareStatementCount();
+
+        statistics = statistics();
+        long bulkStart = System.nanoTime();
+        Map<Long, LocalDateTime> bulk = bulk(productIds);
+        long bulkNanos = System.nanoTime() - bulkStart;
+        long bulkStatements = statistics.getPrepareStatementCount();
+
+        log.info("Catalog availability benchmark ({} products x {} items x {} bookings): " +
+                        "per product {} ms / {} statements, bulk {} ms / {} statements",
+                PRODUCT_COUNT, ITEMS_PER_PRODUCT, BOOKINGS_PER_ITEM,
+                perProductNanos / 1_000_000, perProductStatements,
+                bulkNanos / 1_000_000, bulkStatements);
+
+        assertThat(bulk).isEqualTo(perProduct);
+        assertThat(bulk.values()).allMatch(from -> from != null && !from.isBefore(now));
+        assertThat(perProductStatements).isEqualTo(2L * PRODUCT_COUNT);
+        assertThat(bulkStatements).isEqualTo(2);
+    }
+}
@@ -0,0 +1,207 @@
+package com.hse.leihsy.repository;
+
+import com.hse.leihsy.model.dto.GroupCount;
+import com.hse.leihsy.model.dto.ProductItemCounts;
+import com.hse.leihsy.model.entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("ItemRepository Tests")
+class ItemRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private User testUser;
+    private User testLender;
+    private Product testProduct;
+    private Item item1;
+    private Item item2;
+    private Item item3;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(10);
+    private final LocalDateTime end = LocalDateTime.now().plusDays(15);
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setUniqueId("user-123");
+        testUser.setName("Test User");
+        testUser.setBudget(BigDecimal.ZERO);
+        entityManager.persist(testUser);
+
+        testLender = new User();
+        testLender.setUniqueId("lender-456");
+        testLender.setName("Test Lender");
+        testLender.setBudget(BigDecimal.ZERO);
+        entityManager.persist(testLender);
+
+        testProduct = new Product();
+        testProduct.setName("Meta Quest 3");
+        entityManager.persist(testProduct);
+
+        item1 = createItem("VR-001");
+        item2 = createItem("VR-002");
+        item3 = createItem("VR-003");
+
+        entityManager.flush();
+    }
+
+    private Item createItem(String invNumber) {
+        Item item = new Item();
+        item.setProduct(testProduct);
+        item.setLender(testLender);
+        item.setInvNumber(invNumber);
+        return entityManager.persist(item);
+    }
+
+    private Booking createBooking(Item item, LocalDateTime startDate, LocalDateTime endDate) {
+        Booking booking = new Booking();
+        booking.setUser(testUser);
+        booking.setLender(testLender);
+        booking.setItem(item);
+        booking.setStartDate(startDate);
+        booking.setEndDate(endDate);
+        booking.setStatus(BookingStatus.PENDING.name());
+        return entityManager.persist(booking);
+    }
+
+    @Nested
+    @DisplayName("findAvailableByProductId Tests")
+    class FindAvailableByProductIdTests {
+
+        @Test
+        @DisplayName("Sollte alle Items liefern wenn keine Buchungen existieren")
+        void shouldReturnAllItemsWithoutBookings() {
+            List<Item> result = itemRepository.findAvailableByProductId(
+                    testProduct.getId(), start, end, Limit.of(10));
+
+            assertThat(result).extracting(Item::getInvNumber)
+                    .containsExactly("VR-001", "VR-002", "VR-003");
+        }
+
+        @Test
+        @DisplayName("Sollte Items mit ueberlappender Buchung ausschliessen")
+        void shouldExcludeItemsWithOverlappingBooking() {
+            createBooking(item1, start.minusDays(2), start.plusDays(1));
+            createBooking(item2, end.plusDays(1), end.plusDays(3));
+            entityManager.flush();
+
+            List<Item> result = itemRepository.findAvailableByProductId(
+                    testProduct.getId(), start, end, Limit.of(10));
+
+            assertThat(result).extracting(Item::getInvNumber)
+                    .containsExactly("VR-002", "VR-003");
+        }
+
+        @Test
+        @DisplayName("Sollte stornierte und zurueckgegebene Buchungen ignorieren")
+        void shouldIgnoreDeletedAndReturnedBookings() {
+            Booking cancelled = createBooking(item1, start, end);
+            cancelled.setDeletedAt(LocalDateTime.now());
+            Booking returned = createBooking(item2, start, end);
+            returned.setReturnDate(LocalDateTime.now());
+            entityManager.flush();
+
+            List<Item> result = itemRepository.findAvailableByProductId(
+                    testProduct.getId(), start, end, Limit.of(10));
+
+            assertThat(result).hasSize(3);
+        }
+
+        @Test
+        @DisplayName("Sollte Ergebnis auf angefragte Anzahl begrenzen")
+        void shouldRespectLimit() {
+            item3.setDeletedAt(LocalDateTime.now());
+            entityManager.flush();
+
+            List<Item> result = itemRepository.findAvailableByProductId(
+                    testProduct.getId(), start, end, Limit.of(1));
+
+            assertThat(result).extracting(Item::getInvNumber).containsExactly("VR-001");
+        }
+    }
+
+    @Nested
+    @DisplayName("countItemsByProductIds Tests")
+    class CountItemsByProductIdsTests {
+
+        @Test
+        @DisplayName("Sollte Gesamt- und verfuegbare Items je Product gruppiert zaehlen")
+        void shouldCountTotalAndAvailableItems() {
+            Product other = new Product();
+            other.setName("Stativ");
+            entityManager.persist(other);
+            Item otherItem = new Item();
+            otherItem.setProduct(other);
+            otherItem.setInvNumber("ST-001");
+            entityManager.persist(otherItem);
+
+            // item1 zweimal aktiv gebucht (zaehlt einmal), item2 nur stornierte/zurueckgegebene Buchungen
+            createBooking(item1, start, end);
+            createBooking(item1, end.plusDays(1), end.plusDays(2));
+            createBooking(item2, start, end).setDeletedAt(LocalDateTime.now());
+            createBooking(item2, start, end).setReturnDate(LocalDateTime.now());
+            item3.setDeletedAt(LocalDateTime.now());
+            entityManager.flush();
+
+            List<ProductItemCounts> result = itemRepository.countItemsByProductIds(
+                    List.of(testProduct.getId(), other.getId(), -1L));
+
+            assertThat(result).containsExactlyInAnyOrder(
+                    new ProductItemCounts(testProduct.getId(), 2, 1),
+                    new ProductItemCounts(other.getId(), 1, 1));
+        }
+    }
+
+    @Nested
+    @DisplayName("countActiveGroupedByLocation Tests")
+    class CountActiveGroupedByLocationTests {
+
+        @Test
+        @DisplayName("Sollte aktive Items aller Locations gruppiert zaehlen")
+        void shouldCountGroupedByLocation() {
+            Location room = new Location();
+            room.setRoomNr("F01.402");
+            entityManager.persist(room);
+            Location otherRoom = new Location();
+            otherRoom.setRoomNr("F01.403");
+            entityManager.persist(otherRoom);
+            testProduct.setLocation(room);
+
+            Product other = new Product();
+            other.setName("Stativ");
+            other.setLocation(otherRoom);
+            entityManager.persist(other);
+            Item otherItem = new Item();
+            otherItem.setProduct(other);
+            otherItem.setInvNumber("ST-001");
+            entityManager.persist(otherItem);
+
+            item3.setDeletedAt(LocalDateTime.now());
+            entityManager.flush();
+
+            assertThat(itemRepository.countActiveGroupedByLocation()).containsExactlyInAnyOrder(
+                    new GroupCount(room.getId(), 2),
+                    new GroupCount(otherRoom.getId(), 1));
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package com.hse.leihsy.repository;
 
-import com.hse.leihsy.model.entity.Category;
-import com.hse.leihsy.model.entity.Location;
-import com.hse.leihsy.model.entity.Product;
+import com.hse.leihsy.mapper.ProductMapper;
+import com.hse.leihsy.mapper.ProductMapperImpl;
+import com.hse.leihsy.model.dto.GroupCount;
+import com.hse.leihsy.model.dto.ProductDTO;
+import com.hse.leihsy.model.dto.ProductItemCounts;
+import com.hse.leihsy.model.entity.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -10,14 +16,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ProductMapperImpl.class)
 @ActiveProfiles("test")
 @DisplayName("ProductRepository Tests")
 class ProductRepositoryTest {
@@ -28,6 +44,15 @@ class ProductRepositoryTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Category testCategory;
     private Location testLocation;
     private Product testProduct;
@@ -188,5 +213,254 @@ class ProductRepositoryTest {
 
             assertThat(count).isZero();
         }
+
+        @Test
+        @DisplayName("Sollte aktive Produkte aller Kategorien gruppiert zaehlen")
+        void shouldCountGroupedByCategory() {
+            Category otherCategory = new Category();
+            otherCategory.setName("Kameras");
+            entityManager.persist(otherCategory);
+            for (String name : List.of("Canon EOS", "Sony A7", "Nikon Z6")) {
+                Product product = new Product(name, null);
+                product.setCategory(otherCategory);
+                entityManager.persist(product);
+            }
+            Product deleted = new Product("Alte Kamera", null);
+            deleted.setCategory(otherCategory);
+            deleted.softDelete();
+            entityManager.persist(deleted);
+            entityManager.persist(new Product("Ohne Kategorie", null));
+            entityManager.flush();
+
+            assertThat(productRepository.countActiveGroupedByCategory()).containsExactlyInAnyOrder(
+                    new GroupCount(testCategory.getId(), 1),
+                    new GroupCount(otherCategory.getId(), 3));
+        }
+    }
+
+    @Nested
+    @DisplayName("Katalog Fetch-Plan Tests")
+    class CatalogFetchPlanTests {
+
+        /**
+         * Products mit je eigener Kategorie/Raum, 3 Items, teils aktiv gebucht, und Empfehlung auf das naechste Product
+         */
+        private void createCatalog(int count) {
+            User lender = new User("catalog-lender", "Lender");
+            lender.setBudget(BigDecimal.ZERO);
+            entityManager.persist(lender);
+
+            Product previous = null;
+            for (int i = 0; i < count; i++) {
+                Category category = new Category();
+                category.setName("Kategorie " + i);
+                entityManager.persist(category);
+                Location location = new Location();
+                location.setRoomNr("Raum " + i);
+                entityManager.persist(location);
+
+                Product product = new Product("Produkt " + i, "Beschreibung");
+                product.setCategory(category);
+                product.setLocation(location);
+                entityManager.persist(product);
+
+                for (int j = 0; j < 3; j++) {
+                    Item item = new Item();
+                    item.setProduct(product);
+                    item.setInvNumber("CAT-" + i + "-" + j);
+                    entityManager.persist(item);
+
+                    if (j < i % 4) {
+                        Booking booking = new Booking();
+                        booking.setUser(lender);
+                        booking.setLender(lender);
+                        booking.setItem(item);
+                        booking.setStartDate(LocalDateTime.now().plusDays(1));
+                        booking.setEndDate(LocalDateTime.now().plusDays(3));
+                        entityManager.persist(booking);
+                    }
+                }
+                if (previous != null) {
+                    entityManager.persist(new ProductSet(previous, product, ProductRelationType.RECOMMENDED));
+                }
+                previous = product;
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        private Statistics statistics() {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+            return statistics;
+        }
+
+        @Test
+        @DisplayName("Sollte Katalog inkl. Item-Zaehlern mit konstanter Anzahl Statements laden")
+        void shouldLoadCatalogWithConstantStatementCount() {
+            createCatalog(20);
+            Statistics statistics = statistics();
+
+            List<Product> products = productRepository.findAllActive();
+            Map<Long, ProductItemCounts> counts = itemRepository
+                    .countItemsByProductIds(products.stream().map(Product::getId).toList()).stream()
+                    .collect(Collectors.toMap(ProductItemCounts::productId, Function.identity()));
+            List<ProductDTO> result = productMapper.toDTOList(products, counts);
+
+            assertThat(result).hasSize(21);
+            assertThat(result).allSatisfy(dto -> assertThat(dto.getTotalItems()).isNotNull());
+            // Products mit Kategorie/Raum, Item-Zaehler, Empfehlungen (Batch)
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Sollte dieselben Zaehler wie Product.getAvailableItemCount() liefern")
+        void shouldMatchEntityBasedCounts() {
+            createCatalog(8);
+
+            List<Product> products = productRepository.findAllActive();
+            Map<Long, ProductItemCounts> counts = itemRepository
+                    .countItemsByProductIds(products.stream().map(Product::getId).toList()).stream()
+                    .collect(Collectors.toMap(ProductItemCounts::productId, Function.identity()));
+
+            assertThat(products).allSatisfy(product -> {
+                ProductItemCounts productCounts = counts.getOrDefault(product.getId(), ProductItemCounts.empty(product.getId()));
+                assertThat(productCounts.totalItems()).isEqualTo(product.getTotalItemCount());
+                assertThat(productCounts.availableItems()).isEqualTo(product.getAvailableItemCount());
+            });
+        }
+    }
+
+    @Nested
+    @DisplayName("Specification Tests")
+    class SpecificationTests {
+
+        private Product otherProduct;
+
+        @BeforeEach
+        void setUpCatalog() {
+            User lender = new User("spec-lender", "Lender");
+            lender.setBudget(BigDecimal.ZERO);
+            entityManager.persist(lender);
+
+            // Meta Quest 3: einziges Item aktiv gebucht
+            Item bookedItem = new Item();
+            bookedItem.setProduct(testProduct);
+            bookedItem.setInvNumber("SPEC-1");
+            entityManager.persist(bookedItem);
+            Booking booking = new Booking();
+            booking.setUser(lender);
+            booking.setLender(lender);
+            booking.setItem(bookedItem);
+            booking.setStartDate(LocalDateTime.now().plusDays(1));
+            booking.setEndDate(LocalDateTime.now().plusDays(3));
+            entityManager.persist(booking);
+
+            otherProduct = new Product("Pico 4", "VR-Brille ohne Kabel");
+            otherProduct.setCategory(testCategory);
+            otherProduct.setLocation(testLocation);
+            entityManager.persist(otherProduct);
+            Item freeItem = new Item();
+            freeItem.setProduct(otherProduct);
+            freeItem.setInvNumber("SPEC-2");
+            entityManager.persist(freeItem);
+
+            Product inactive = new Product("Oculus Rift", "VR-Brille, ausgemustert");
+            inactive.setCategory(testCategory);
+            inactive.setIsActive(false);
+            entityManager.persist(inactive);
+
+            Product otherCategory = new Product("Stativ", "Stativ fuer VR-Tracking");
+            otherCategory.setLocation(testLocation);
+            entityManager.persist(otherCategory);
+
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        private List<String> names(Specification<Product> spec, Sort sort) {
+            return productRepository.findBy(spec, query -> query.sortBy(sort).all()).stream()
+                    .map(Product::getName)
+                    .toList();
+        }
+
+        @Test
+        @DisplayName("Sollte alle Filter per AND kombinieren")
+        void shouldCombineFilters() {
+            Specification<Product> spec = ProductSpecifications.notDeleted()
+                    .and(ProductSpecifications.nameOrDescriptionContains("vr-brille"))
+                    .and(ProductSpecifications.inCategory(testCategory.getId()))
+                    .and(ProductSpecifications.atLocation(testLocation.getId()))
+                    .and(ProductSpecifications.hasActiveFlag(true));
+
+            assertThat(names(spec, Sort.by("name"))).containsExactly("Meta Quest 3", "Pico 4");
+            assertThat(names(ProductSpecifications.notDeleted().and(ProductSpecifications.hasActiveFlag(false)),
+                    Sort.by("id"))).containsExactly("Oculus Rift");
+        }
+
+        @Test
+        @DisplayName("Sollte nur Products mit aktuell verfuegbarem Item liefern")
+        void shouldFilterAvailable() {
+            Specification<Product> spec = ProductSpecifications.notDeleted()
+                    .and(ProductSpecifications.hasAvailableItem());
+
+            assertThat(names(spec, Sort.by("id"))).containsExactly("Pico 4");
+        }
+
+        @Test
+        @DisplayName("Sollte auf die Suchtreffer einschraenken")
+        void shouldRestrictToSearchHits() {
+            Specification<Product> spec = ProductSpecifications.notDeleted()
+                    .and(ProductSpecifications.idIn(List.of(otherProduct.getId())));
+
+            assertThat(names(spec, Sort.by("name"))).containsExactly("Pico 4");
+        }
+
+        @Test
+        @DisplayName("Sollte eine Seite inkl. Kategorie und Raum mit einem Statement laden")
+        void shouldLoadPageWithSingleStatement() {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+
+            Slice<Product> page = productRepository.findBy(ProductSpecifications.notDeleted(), query -> query
+                    .project("category", "location")
+                    .sortBy(Sort.by("id"))
+                    .slice(PageRequest.of(0, 2)));
+            page.getContent().forEach(product -> {
+                if (product.getCategory() != null) {
+                    product.getCategory().getName();
+                }
+                if (product.getLocation() != null) {
+                    product.getLocation().getRoomNr();
+                }
+            });
+
+            assertThat(page.getContent()).extracting(Product::getName).containsExactly("Meta Quest 3", "Pico 4");
+            assertThat(page.hasNext()).isTrue();
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Bild-Referenzen Tests")
+    class ImageReferenceTests {
+
+        @Test
+        @DisplayName("Sollte referenzierte Bild-URLs aktiver Products ohne Duplikate liefern")
+        void shouldFindReferencedImageUrls() {
+            testProduct.setImageUrl("/api/images/a.jpg");
+            Product shared = new Product();
+            shared.setName("Meta Quest 3 (2)");
+            shared.setImageUrl("/api/images/a.jpg");
+            entityManager.persist(shared);
+            Product deleted = new Product();
+            deleted.setName("Alt");
+            deleted.setImageUrl("/api/images/b.jpg");
+            deleted.softDelete();
+            entityManager.persist(deleted);
+            entityManager.flush();
+
+            assertThat(productRepository.findReferencedImageUrls()).containsExactly("/api/images/a.jpg");
+        }
     }
 }
@@ -0,0 +1,189 @@
+package com.hse.leihsy.repository;
+
+import com.hse.leihsy.model.entity.TransactionType;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueft per EXPLAIN, dass die Flyway-Migrationen die Indizes fuer die haeufigsten Praedikate anlegen
+ * und der Optimizer sie fuer das tatsaechlich von Hibernate erzeugte SQL der Repository-Abfragen verwendet.
+ *
+ * Laeuft auf H2 (gleiche Schluesselspalten, keine partiellen Indizes); die Teilbedingungen der
+ * PostgreSQL-Indizes entsprechen den WHERE-Klauseln dieser Abfragen. Fuer die created_at-Indizes
+ * waehlt H2 auf leeren Tabellen den gleichwertigen FK-Index, dort werden nur Schluesselspalten und
+ * Sortierung der Abfrage gegen den Index geprueft.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.hse.leihsy.repository.SchemaIndexTest$SqlCapture")
+@ActiveProfiles("test")
+@DisplayName("Schema Index Tests")
+class SchemaIndexTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final LocalDateTime UNTIL = LocalDateTime.of(2030, 1, 10, 0, 0);
+
+    /**
+     * Merkt sich das zuletzt von Hibernate ausgefuehrte SQL
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingTransactionRepository bookingTransactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        SqlCapture.STATEMENTS.clear();
+    }
+
+    private String lastStatement() {
+        return SqlCapture.STATEMENTS.get(SqlCapture.STATEMENTS.size() - 1);
+    }
+
+    /**
+     * EXPLAIN des zuletzt erzeugten SQL, Parameter in Reihenfolge der Platzhalter
+     */
+    private String explainLast(Object... parameters) throws SQLException {
+        String sql = lastStatement();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1).toLowerCase();
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Schluesselspalten eines Index in ihrer Reihenfolge (klein geschrieben)
+     */
+    private List<String> indexColumns(String indexName) throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT column_name FROM information_schema.index_columns " +
+                        "WHERE index_name = ? ORDER BY ordinal_position")) {
+            statement.setString(1, indexName.toUpperCase());
+            List<String> columns = new ArrayList<>();
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    columns.add(result.getString(1).toLowerCase());
+                }
+            }
+            return columns;
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    @Nested
+    @DisplayName("bookings Tests")
+    class BookingIndexTests {
+
+        @Test
+        @DisplayName("Sollte findOverlappingBookings ueber idx_booking_item_period ausfuehren")
+        void shouldUseItemPeriodIndexForOverlap() throws SQLException {
+            bookingRepository.findOverlappingBookings(1L, FROM, UNTIL);
+
+            assertThat(explainLast(1L, UNTIL, FROM)).contains("idx_booking_item_period");
+        }
+
+        @Test
+        @DisplayName("Sollte idx_booking_lender_created mit den Sortierschluesseln von findByLenderId anlegen")
+        void shouldIndexLenderCreated() throws SQLException {
+            bookingRepository.findByLenderId(1L);
+
+            assertThat(lastStatement()).contains("lender_id").containsPattern("order by \\w+\\.created_at desc");
+            assertThat(indexColumns("idx_booking_lender_created")).containsExactly("lender_id", "created_at", "id");
+        }
+
+        @Test
+        @DisplayName("Sollte idx_booking_user_created mit den Keyset-Schluesseln von findByUserIdPage anlegen")
+        void shouldIndexUserCreatedForPage() throws SQLException {
+            bookingRepository.findByUserIdPage(1L, true, UNTIL, 100L, Limit.of(20));
+
+            assertThat(lastStatement()).contains("user_id")
+                    .containsPattern("order by \\w+\\.created_at desc,\\s*\\w+\\.id desc");
+            assertThat(indexColumns("idx_booking_user_created")).containsExactly("user_id", "created_at", "id");
+        }
+
+        @Test
+        @DisplayName("Sollte findActiveByLenderId ueber idx_booking_lender_status ausfuehren")
+        void shouldUseLenderStatusIndex() throws SQLException {
+            bookingRepository.findActiveByLenderId(1L);
+
+            assertThat(explainLast(1L)).contains("idx_booking_lender_status");
+        }
+
+        @Test
+        @DisplayName("Sollte findOverdue und findDueSoon ueber idx_booking_end_date ausfuehren")
+        void shouldUseEndDateIndex() throws SQLException {
+            bookingRepository.findOverdue(FROM);
+            assertThat(explainLast(FROM)).contains("idx_booking_end_date");
+
+            bookingRepository.findDueSoon(FROM, UNTIL);
+            assertThat(explainLast(FROM, UNTIL)).contains("idx_booking_end_date");
+        }
+    }
+
+    @Nested
+    @DisplayName("items und booking_transactions Tests")
+    class ItemAndTransactionIndexTests {
+
+        @Test
+        @DisplayName("Sollte findByProductId ueber idx_item_product ausfuehren")
+        void shouldUseItemProductIndex() throws SQLException {
+            itemRepository.findByProductId(1L);
+
+            assertThat(explainLast(1L)).contains("idx_item_product");
+        }
+
+        @Test
+        @DisplayName("Sollte findValidToken ueber idx_transaction_booking_type ausfuehren")
+        void shouldUseTransactionBookingTypeIndex() throws SQLException {
+            bookingTransactionRepository.findValidToken(1L, TransactionType.PICKUP);
+
+            assertThat(explainLast(1L, TransactionType.PICKUP.name())).contains("idx_transaction_booking_type");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.dto.timePeriodDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AvailabilityCache Tests")
+class AvailabilityCacheTest {
+
+    private static final Period HORIZON = Period.ofYears(1);
+
+    private SimpleMeterRegistry meterRegistry;
+    private AvailabilityCache availabilityCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        availabilityCache = new AvailabilityCache(meterRegistry, 100, Duration.ofMinutes(5));
+        loads = new AtomicInteger();
+    }
+
+    private AvailabilityCache.Key key(Long productId, int quantity) {
+        return new AvailabilityCache.Key(productId, quantity, true, HORIZON);
+    }
+
+    private List<timePeriodDTO> load() {
+        loads.incrementAndGet();
+        return List.of(new timePeriodDTO(LocalDateTime.now(), null));
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", AvailabilityCache.CACHE_NAME)
+                .tag("result", result)
+                .functionCounter().count();
+    }
+
+    @Nested
+    @DisplayName("get() Tests")
+    class GetTests {
+
+        @Test
+        @DisplayName("Sollte Ergebnis nur einmal berechnen und Hits/Misses zaehlen")
+        void shouldCacheAndRecordStats() {
+            List<timePeriodDTO> first = availabilityCache.get(key(1L, 1), AvailabilityCacheTest.this::load);
+            List<timePeriodDTO> second = availabilityCache.get(key(1L, 1), AvailabilityCacheTest.this::load);
+
+            assertThat(second).isSameAs(first);
+            assertThat(loads).hasValue(1);
+            assertThat(gets("hit")).isEqualTo(1);
+            assertThat(gets("miss")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Sollte Menge und Art der Zeitraeume getrennt cachen")
+        void shouldSeparateKeys() {
+            availabilityCache.get(key(1L, 1), AvailabilityCacheTest.this::load);
+            availabilityCache.get(key(1L, 2), AvailabilityCacheTest.this::load);
+            availabilityCache.get(new AvailabilityCache.Key(1L, 1, false, HORIZON), AvailabilityCacheTest.this::load);
+
+            assertThat(loads).hasValue(3);
+        }
+
+        @Test
+        @DisplayName("Sollte bei getAll nur fehlende Eintraege gemeinsam berechnen")
+        void shouldLoadOnlyMissingKeysInBulk() {
+            availabilityCache.get(key(1L, 1), AvailabilityCacheTest.this::load);
+            List<Set<AvailabilityCache.Key>> batches = new ArrayList<>();
+
+            Map<AvailabilityCache.Key, List<timePeriodDTO>> result = availabilityCache.getAll(
+                    List.of(key(1L, 1), key(2L, 1), key(3L, 1)),
+                    missing -> {
+                        batches.add(Set.copyOf(missing));
+                        return missing.stream().collect(Collectors.toMap(Function.identity(), k -> load()));
+                    });
+
+            assertThat(result).containsOnlyKeys(key(1L, 1), key(2L, 1), key(3L, 1));
+            assertThat(batches).containsExactly(Set.of(key(2L, 1), key(3L, 1)));
+            assertThat(availabilityCache.size()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Sollte waehrend einer Invalidierung berechnetes Ergebnis nicht ablegen")
+        void shouldNotStoreStaleResult() {
+            availabilityCache.get(key(1L, 1), () -> {
+                // Buchung wird committet, waehrend die alte Belegung noch berechnet wird
+                availabilityCache.invalidateProduct(1L);
+                return load();
+            });
+
+            assertThat(availabilityCache.size()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalidierung Tests")
+    class InvalidationTests {
+
+        @Test
+        @DisplayName("Sollte nur Eintraege des betroffenen Products entfernen")
+        void shouldInvalidateSingleProduct() {
+            availabilityCache.get(key(1L, 1), AvailabilityCacheTest.this::load);
+            availabilityCache.get(key(1L, 2), AvailabilityCacheTest.this::load);
+            availabilityCache.get(key(2L, 1), AvailabilityCacheTest.this::load);
+
+            availabilityCache.invalidateProduct(1L);
+
+            assertThat(availabilityCache.size()).isEqualTo(1);
+            availabilityCache.get(key(2L, 1), AvailabilityCacheTest.this::load);
+            assertThat(loads).hasValue(3);
+        }
+
+        @Test
+        @DisplayName("Sollte bei unbekanntem Product alles entfernen")
+        void shouldInvalidateAll() {
+            availabilityCache.get(key(1L, 1), AvailabilityCacheTest.this::load);
+            availabilityCache.get(key(2L, 1), AvailabilityCacheTest.this::load);
+
+            availabilityCache.invalidateAll();
+
+            assertThat(availabilityCache.size()).isZero();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.dto.BookingInterval;
+import com.hse.leihsy.model.dto.ItemAssignment;
+import com.hse.leihsy.model.dto.timePeriodDTO;
+import com.hse.leihsy.model.entity.Booking;
+import com.hse.leihsy.model.entity.Item;
+import com.hse.leihsy.model.entity.Product;
+import com.hse.leihsy.repository.BookingRepository;
+import com.hse.leihsy.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AvailabilityIndex Tests")
+class AvailabilityIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 3, 10, 0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private AvailabilityIndex availabilityIndex;
+
+    private LocalDateTime day(int offset) {
+        return BASE.plusDays(offset);
+    }
+
+    private Booking createBooking(Long id, Long itemId, int startDay, int endDay) {
+        Item item = new Item();
+        item.setId(itemId);
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setItem(item);
+        booking.setStartDate(day(startDay));
+        booking.setEndDate(day(endDay));
+        return booking;
+    }
+
+    private Item createItem(Long id, Long productId) {
+        Product product = new Product();
+        product.setId(productId);
+        Item item = new Item();
+        item.setId(id);
+        item.setProduct(product);
+        return item;
+    }
+
+    @BeforeEach
+    void setUp() {
+        availabilityIndex = new AvailabilityIndex(bookingRepository, itemRepository, true);
+
+        // Product 1: Items 10 und 11, Product 2: Item 20 (ohne Buchungen)
+        when(itemRepository.findAllActiveAssignments()).thenReturn(List.of(
+                new ItemAssignment(10L, 1L),
+                new ItemAssignment(11L, 1L),
+                new ItemAssignment(20L, 2L)));
+        when(bookingRepository.findAllActiveIntervals()).thenReturn(List.of(
+                new BookingInterval(100L, 10L, day(2), day(5)),
+                new BookingInterval(101L, 10L, day(8), day(9)),
+                new BookingInterval(102L, 11L, day(4), day(6))));
+
+        availabilityIndex.load();
+    }
+
+    @Nested
+    @DisplayName("Abfrage Tests")
+    class QueryTests {
+
+        @Test
+        @DisplayName("Sollte nach dem Laden bereit sein und Items je Product zaehlen")
+        void shouldCountItemsPerProduct() {
+            assertThat(availabilityIndex.isReady()).isTrue();
+            assertThat(availabilityIndex.countItems(1L)).isEqualTo(2);
+            assertThat(availabilityIndex.countItems(2L)).isEqualTo(1);
+            assertThat(availabilityIndex.countItems(99L)).isZero();
+        }
+
+        @Test
+        @DisplayName("Sollte Ueberlappung wie findOverlappingBookings mit inklusiven Grenzen pruefen")
+        void shouldCheckOverlapInclusive() {
+            assertThat(availabilityIndex.isItemAvailable(10L, day(0), day(1))).isTrue();
+            assertThat(availabilityIndex.isItemAvailable(10L, day(0), day(2))).isFalse();
+            assertThat(availabilityIndex.isItemAvailable(10L, day(5), day(6))).isFalse();
+            assertThat(availabilityIndex.isItemAvailable(10L, day(6), day(7))).isTrue();
+            assertThat(availabilityIndex.isItemAvailable(10L, day(10), day(12))).isTrue();
+        }
+
+        @Test
+        @DisplayName("Sollte auch bei ueberlappenden Altdaten lange Buchungen erkennen")
+        void shouldDetectLongIntervalBehindShorterOnes() {
+            when(bookingRepository.findAllActiveIntervals()).thenReturn(List.of(
+                    new BookingInterval(200L, 10L, day(0), day(30)),
+                    new BookingInterval(201L, 10L, day(3), day(4))));
+            availabilityIndex.verify();
+
+            assertThat(availabilityIndex.isItemAvailable(10L, day(20), day(21))).isFalse();
+            assertThat(availabilityIndex.isItemAvailable(10L, day(31), day(32))).isTrue();
+        }
+
+        @Test
+        @DisplayName("Sollte freie Items eines Products im Zeitraum zaehlen")
+        void shouldCountAvailableItems() {
+            assertThat(availabilityIndex.countAvailableItems(1L, day(0), day(1))).isEqualTo(2);
+            assertThat(availabilityIndex.countAvailableItems(1L, day(3), day(3))).isEqualTo(1);
+            assertThat(availabilityIndex.countAvailableItems(1L, day(4), day(5))).isZero();
+            assertThat(availabilityIndex.countAvailableItems(2L, day(4), day(5))).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Sollte nur Intervalle im Zeitfenster fuer die Timeline liefern")
+        void shouldFindActiveIntervalsInWindow() {
+            List<timePeriodDTO> intervals = availabilityIndex.findActiveIntervals(1L, day(5), day(8));
+
+            // 100 endet genau bei from, 101 beginnt genau bei until -> beide ausserhalb
+            assertThat(intervals).containsExactly(new timePeriodDTO(day(4), day(6)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Aktualisierung Tests")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Sollte neue Buchung aufnehmen und stornierte entfernen")
+        void shouldApplyBookingChanges() {
+            Booking booking = createBooking(300L, 20L, 1, 3);
+            availabilityIndex.bookingChanged(booking, false);
+            assertThat(availabilityIndex.isItemAvailable(20L, day(2), day(2))).isFalse();
+
+            booking.setDeletedAt(LocalDateTime.now());
+            availabilityIndex.bookingChanged(booking, false);
+            assertThat(availabilityIndex.isItemAvailable(20L, day(2), day(2))).isTrue();
+        }
+
+        @Test
+        @DisplayName("Sollte zurueckgegebene und geloeschte Buchungen entfernen")
+        void shouldRemoveReturnedAndDeletedBookings() {
+            Booking returned = createBooking(100L, 10L, 2, 5);
+            returned.setReturnDate(LocalDateTime.now());
+            availabilityIndex.bookingChanged(returned, false);
+            availabilityIndex.bookingChanged(createBooking(102L, 11L, 4, 6), true);
+
+            assertThat(availabilityIndex.countAvailableItems(1L, day(4), day(5))).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Sollte verschobene Buchung nur am neuen Zeitraum fuehren")
+        void shouldMoveChangedBooking() {
+            availabilityIndex.bookingChanged(createBooking(101L, 10L, 20, 22), false);
+
+            assertThat(availabilityIndex.isItemAvailable(10L, day(8), day(9))).isTrue();
+            assertThat(availabilityIndex.isItemAvailable(10L, day(21), day(21))).isFalse();
+        }
+
+        @Test
+        @DisplayName("Sollte neue Items aufnehmen und geloeschte entfernen")
+        void shouldApplyItemChanges() {
+            availabilityIndex.itemChanged(createItem(12L, 1L), false);
+            assertThat(availabilityIndex.countItems(1L)).isEqualTo(3);
+
+            Item deleted = createItem(10L, 1L);
+            deleted.softDelete();
+            availabilityIndex.itemChanged(deleted, false);
+
+            assertThat(availabilityIndex.countItems(1L)).isEqualTo(2);
+            assertThat(availabilityIndex.findActiveIntervals(1L, day(0), day(30)))
+                    .containsExactly(new timePeriodDTO(day(4), day(6)));
+        }
+
+        @Test
+        @DisplayName("Sollte Buchungen beim Product-Wechsel eines Items mitnehmen")
+        void shouldKeepBookingsWhenItemMovesProduct() {
+            availabilityIndex.itemChanged(createItem(11L, 2L), false);
+
+            assertThat(availabilityIndex.countItems(1L)).isEqualTo(1);
+            assertThat(availabilityIndex.countAvailableItems(2L, day(4), day(5))).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("verify Tests")
+    class VerifyTests {
+
+        @Test
+        @DisplayName("Sollte uebereinstimmenden Index bestaetigen")
+        void shouldConfirmConsistentIndex() {
+            assertThat(availabilityIndex.verify()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Sollte abweichenden Index aus der Datenbank neu aufbauen")
+        void shouldRebuildOutOfSyncIndex() {
+            // Aenderung, die am Index vorbei geschrieben wurde
+            when(bookingRepository.findAllActiveIntervals()).thenReturn(List.of(
+                    new BookingInterval(100L, 10L, day(2), day(5))));
+
+            assertThat(availabilityIndex.verify()).isFalse();
+            assertThat(availabilityIndex.isItemAvailable(11L, day(4), day(5))).isTrue();
+            assertThat(availabilityIndex.verify()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Sollte Aenderungen waehrend des Ladens ohne Warten uebernehmen")
+        void shouldKeepChangesCommittedDuringLoad() {
+            List<BookingInterval> snapshot = bookingRepository.findAllActiveIntervals();
+            when(bookingRepository.findAllActiveIntervals()).thenAnswer(invocation -> {
+                // Commit einer anderen Transaktion, waehrend der Abgleich die Datenbank liest
+                Thread commit = new Thread(() ->
+                        availabilityIndex.bookingChanged(createBooking(300L, 20L, 1, 3), false));
+                commit.start();
+                commit.join(5000);
+                assertThat(commit.isAlive()).isFalse();
+                return snapshot;
+            });
+
+            assertThat(availabilityIndex.verify()).isTrue();
+            assertThat(availabilityIndex.isItemAvailable(20L, day(2), day(2))).isFalse();
+        }
+
+        @Test
+        @DisplayName("Sollte deaktiviert nie bereit sein")
+        void shouldStayUnreadyWhenDisabled() {
+            AvailabilityIndex disabled = new AvailabilityIndex(bookingRepository, itemRepository, false);
+            disabled.load();
+            disabled.bookingChanged(createBooking(300L, 20L, 1, 3), false);
+
+            assertThat(disabled.isReady()).isFalse();
+            assertThat(disabled.verify()).isTrue();
+            verify(itemRepository, times(1)).findAllActiveAssignments();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.dto.ProductBookingInterval;
+import com.hse.leihsy.model.dto.timePeriodDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AvailabilityTimeline Tests")
+class AvailabilityTimelineTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 11, 3, 10, 0);
+    private static final LocalDateTime HORIZON = NOW.plusYears(1);
+
+    private timePeriodDTO period(int startDay, int endDay) {
+        return new timePeriodDTO(NOW.plusDays(startDay), NOW.plusDays(endDay));
+    }
+
+    private AvailabilityTimeline timeline(int totalItems, timePeriodDTO... bookings) {
+        return AvailabilityTimeline.build(totalItems, List.of(bookings), NOW, HORIZON);
+    }
+
+    @Nested
+    @DisplayName("availablePeriods() Tests")
+    class AvailablePeriodsTests {
+
+        @Test
+        @DisplayName("Sollte ohne Buchungen ab jetzt unbegrenzt verfuegbar sein")
+        void shouldBeAvailableForeverWithoutBookings() {
+            assertThat(timeline(2).availablePeriods(1))
+                    .containsExactly(new timePeriodDTO(NOW, null));
+        }
+
+        @Test
+        @DisplayName("Sollte Luecke nur dort liefern, wo zu wenige Items frei sind")
+        void shouldSplitAroundFullyBookedRange() {
+            // 2 Items: Tag 2-6 und Tag 4-8 belegt -> Tag 4-6 kein Item frei
+            AvailabilityTimeline timeline = timeline(2, period(2, 6), period(4, 8));
+
+            assertThat(timeline.availablePeriods(1)).containsExactly(
+                    new timePeriodDTO(NOW, NOW.plusDays(4)),
+                    new timePeriodDTO(NOW.plusDays(6), null));
+            assertThat(timeline.availablePeriods(2)).containsExactly(
+                    new timePeriodDTO(NOW, NOW.plusDays(2)),
+                    new timePeriodDTO(NOW.plusDays(8), null));
+        }
+
+        @Test
+        @DisplayName("Sollte leere Liste liefern wenn mehr Items angefragt als vorhanden")
+        void shouldReturnEmptyWhenQuantityExceedsItems() {
+            assertThat(timeline(1).availablePeriods(2)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("unavailablePeriods() Tests")
+    class UnavailablePeriodsTests {
+
+        @Test
+        @DisplayName("Sollte Komplement der verfuegbaren Zeitraeume liefern")
+        void shouldReturnComplementOfAvailable() {
+            AvailabilityTimeline timeline = timeline(2, period(2, 6), period(4, 8));
+
+            assertThat(timeline.unavailablePeriods(1))
+                    .containsExactly(new timePeriodDTO(NOW.plusDays(4), NOW.plusDays(6)));
+            assertThat(timeline.unavailablePeriods(2))
+                    .containsExactly(new timePeriodDTO(NOW.plusDays(2), NOW.plusDays(8)));
+        }
+
+        @Test
+        @DisplayName("Sollte laufende Buchungen ab jetzt beruecksichtigen")
+        void shouldClampRunningBookingsToNow() {
+            AvailabilityTimeline timeline = timeline(1, period(-3, 2));
+
+            assertThat(timeline.unavailablePeriods(1))
+                    .containsExactly(new timePeriodDTO(NOW, NOW.plusDays(2)));
+        }
+
+        @Test
+        @DisplayName("Sollte direkt aufeinanderfolgende Buchungen zu einem Zeitraum zusammenfassen")
+        void shouldMergeAdjacentBookings() {
+            AvailabilityTimeline timeline = timeline(1, period(1, 3), period(3, 5));
+
+            assertThat(timeline.unavailablePeriods(1))
+                    .containsExactly(new timePeriodDTO(NOW.plusDays(1), NOW.plusDays(5)));
+        }
+
+        @Test
+        @DisplayName("Sollte ganzen Horizont liefern wenn mehr Items angefragt als vorhanden")
+        void shouldReturnWholeHorizonWhenQuantityExceedsItems() {
+            assertThat(timeline(1).unavailablePeriods(2))
+                    .containsExactly(new timePeriodDTO(NOW, HORIZON));
+        }
+    }
+
+    @Nested
+    @DisplayName("earliestWindow() / buildAll() Tests")
+    class EarliestWindowTests {
+
+        @Test
+        @DisplayName("Sollte ersten ausreichend langen Zeitraum liefern")
+        void shouldSkipTooShortGaps() {
+            // Frei: jetzt bis Tag 1, Tag 2-6, ab Tag 10
+            List<timePeriodDTO> available = timeline(1, period(1, 2), period(6, 10)).availablePeriods(1);
+
+            assertThat(AvailabilityTimeline.earliestWindow(available, Duration.ofHours(12)))
+                    .isEqualTo(new timePeriodDTO(NOW, NOW.plusDays(1)));
+            assertThat(AvailabilityTimeline.earliestWindow(available, Duration.ofDays(4)))
+                    .isEqualTo(period(2, 6));
+            assertThat(AvailabilityTimeline.earliestWindow(available, Duration.ofDays(30)))
+                    .isEqualTo(new timePeriodDTO(NOW.plusDays(10), null));
+        }
+
+        @Test
+        @DisplayName("Sollte null liefern wenn kein Zeitraum existiert")
+        void shouldReturnNullWithoutAvailablePeriods() {
+            assertThat(AvailabilityTimeline.earliestWindow(timeline(1).availablePeriods(2), Duration.ofDays(1))).isNull();
+        }
+
+        @Test
+        @DisplayName("Sollte Zeitstrahlen mehrerer Products in einem Durchlauf bauen")
+        void shouldBuildTimelinesPerProduct() {
+            Map<Long, AvailabilityTimeline> timelines = AvailabilityTimeline.buildAll(
+                    Map.of(1L, 1, 2L, 2, 3L, 0),
+                    List.of(new ProductBookingInterval(1L, NOW.plusDays(1), NOW.plusDays(3)),
+                            new ProductBookingInterval(2L, NOW.plusDays(1), NOW.plusDays(3)),
+                            new ProductBookingInterval(2L, NOW.plusDays(2), NOW.plusDays(4))),
+                    NOW, HORIZON);
+
+            assertThat(timelines.get(1L).unavailablePeriods(1)).containsExactly(period(1, 3));
+            assertThat(timelines.get(2L).unavailablePeriods(1)).containsExactly(period(2, 3));
+            assertThat(timelines.get(3L).availablePeriods(1)).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.hse.leihsy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.hse.leihsy.exception.ValidationException;
+import com.hse.leihsy.mapper.BookingMapper;
+import com.hse.leihsy.model.dto.BookingDTO;
+import com.hse.leihsy.model.entity.Booking;
+import com.hse.leihsy.repository.BookingRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BookingExportService Tests")
+class BookingExportServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingMapper bookingMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @InjectMocks
+    private BookingExportService bookingExportService;
+
+    private BookingDTO createDTO(Long id, String productName) {
+        BookingDTO dto = new BookingDTO();
+        dto.setId(id);
+        dto.setStatus("RETURNED");
+        dto.setProductName(productName);
+        dto.setStartDate(LocalDateTime.of(2025, 10, 1, 9, 0));
+        return dto;
+    }
+
+    @Nested
+    @DisplayName("exportBookings Tests")
+    class ExportBookingsTests {
+
+        @Test
+        @DisplayName("Sollte CSV mit Header und escapten Feldern schreiben")
+        void shouldWriteCsvWithHeader() {
+            Booking booking = new Booking();
+            when(bookingRepository.streamAllForExport()).thenReturn(Stream.of(booking));
+            when(bookingMapper.toDTO(booking)).thenReturn(createDTO(1L, "Kamera \"Pro\", 4K"));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            long count = bookingExportService.exportBookings(BookingExportService.Format.CSV, out);
+
+            String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+            assertThat(count).isEqualTo(1);
+            assertThat(lines).hasSize(2);
+            assertThat(lines[0]).startsWith("id,status,userId");
+            assertThat(lines[1]).startsWith("1,RETURNED,")
+                    .contains("\"Kamera \"\"Pro\"\", 4K\"")
+                    .contains("2025-10-01T09:00");
+        }
+
+        @Test
+        @DisplayName("Sollte NDJSON mit einem Objekt pro Zeile schreiben")
+        void shouldWriteNdjson() {
+            Booking first = new Booking();
+            Booking second = new Booking();
+            when(bookingRepository.streamAllForExport()).thenReturn(Stream.of(first, second));
+            when(bookingMapper.toDTO(first)).thenReturn(createDTO(1L, "Kamera"));
+            when(bookingMapper.toDTO(second)).thenReturn(createDTO(2L, "Stativ"));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            bookingExportService.exportBookings(BookingExportService.Format.NDJSON, out);
+
+            String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+            assertThat(lines).hasSize(2);
+            assertThat(lines[0]).startsWith("{").contains("\"id\":1").contains("\"productName\":\"Kamera\"");
+            assertThat(lines[1]).contains("\"id\":2");
+        }
+
+        @Test
+        @DisplayName("Sollte Persistence Context waehrend des Exports regelmaessig leeren")
+        void shouldClearPersistenceContextPeriodically() {
+            when(bookingRepository.streamAllForExport())
+                    .thenReturn(IntStream.range(0, 1200).mapToObj(i -> new Booking()));
+            when(bookingMapper.toDTO(any())).thenReturn(createDTO(1L, "Kamera"));
+
+            long count = bookingExportService.exportBookings(
+                    BookingExportService.Format.CSV, new ByteArrayOutputStream());
+
+            assertThat(count).isEqualTo(1200);
+            verify(entityManager, times(2)).clear();
+        }
+    }
+
+    @Nested
+    @DisplayName("Format Tests")
+    class FormatTests {
+
+        @Test
+        @DisplayName("Sollte CSV als Standard verwenden und Gross-/Kleinschreibung ignorieren")
+        void shouldParseFormat() {
+            assertThat(BookingExportService.Format.from(null)).isEqualTo(BookingExportService.Format.CSV);
+            assertThat(BookingExportService.Format.from("ndjson")).isEqualTo(BookingExportService.Format.NDJSON);
+        }
+
+        @Test
+        @DisplayName("Sollte ValidationException bei unbekanntem Format werfen")
+        void shouldRejectUnknownFormat() {
+            assertThatThrownBy(() -> BookingExportService.Format.from("xml"))
+                    .isInstanceOf(ValidationException.class)
+                    .hasMessageContaining("xml");
+        }
+    }
+}
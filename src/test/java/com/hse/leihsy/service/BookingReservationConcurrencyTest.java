@@ -0,0 +1,242 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.config.TestSecurityConfig;
+import com.hse.leihsy.model.dto.CartBookingRequestDTO;
+import com.hse.leihsy.model.entity.Booking;
+import com.hse.leihsy.model.entity.Item;
+import com.hse.leihsy.model.entity.Product;
+import com.hse.leihsy.model.entity.User;
+import com.hse.leihsy.repository.BookingRepository;
+import com.hse.leihsy.repository.ItemRepository;
+import com.hse.leihsy.repository.ProductRepository;
+import com.hse.leihsy.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = {
+                "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.resource.servlet.OAuth2ResourceServerAutoConfiguration"
+        }
+)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+@DisplayName("BookingReservation Concurrency Tests")
+class BookingReservationConcurrencyTest {
+
+    private static final int ITEM_COUNT = 3;
+    private static final int REQUEST_COUNT = 200;
+    private static final int THREAD_COUNT = 32;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User student;
+    private User lender;
+    private Product product;
+    private Product tripod;
+    private final List<Item> items = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        student = new User("concurrency-student", "Student");
+        student.setBudget(BigDecimal.ZERO);
+        student = userRepository.save(student);
+
+        lender = new User("concurrency-lender", "Lender");
+        lender.setBudget(BigDecimal.ZERO);
+        lender = userRepository.save(lender);
+
+        product = productRepository.save(new Product("Meta Quest 3", "VR-Brille"));
+
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(itemRepository.save(Item.builder()
+                    .invNumber("CONC-VR-" + i)
+                    .product(product)
+                    .lender(lender)
+                    .build()));
+        }
+
+        // Zubehoer fuer Warenkorb-Buchungen: nur ein Item
+        tripod = productRepository.save(new Product("Stativ", "Zubehoer"));
+        items.add(itemRepository.save(Item.builder()
+                .invNumber("CONC-TRIPOD-0")
+                .product(tripod)
+                .lender(lender)
+                .build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll(bookingRepository.findAll().stream()
+                .filter(b -> b.getUser().getId().equals(student.getId()))
+                .toList());
+        itemRepository.deleteAll(items);
+        productRepository.deleteAll(List.of(product, tripod));
+        userRepository.deleteAll(List.of(student, lender));
+    }
+
+    @Test
+    @DisplayName("Sollte bei parallelen Buchungen kein Item doppelt vergeben")
+    void shouldNotDoubleBookUnderConcurrentLoad() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(3).withNano(0);
+        LocalDateTime end = start.plusDays(2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+        AtomicLong maxLatencyNanos = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            futures.add(executor.submit(() -> {
+                startSignal.await();
+                long begin = System.nanoTime();
+                try {
+                    bookingService.createBooking(student.getId(), product.getId(), start, end, null, 1);
+                    successes.incrementAndGet();
+                } catch (RuntimeException e) {
+                    assertThat(e.getMessage()).contains("Not enough items available");
+                    rejections.incrementAndGet();
+                } finally {
+                    maxLatencyNanos.accumulateAndGet(System.nanoTime() - begin, Math::max);
+                }
+                return null;
+            }));
+        }
+
+        startSignal.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(successes.get()).isEqualTo(ITEM_COUNT);
+        assertThat(rejections.get()).isEqualTo(REQUEST_COUNT - ITEM_COUNT);
+        assertThat(Duration.ofNanos(maxLatencyNanos.get())).isLessThan(Duration.ofSeconds(10));
+
+        Map<Long, Long> bookingsPerItem = bookingRepository.findAll().stream()
+                .filter(b -> b.getUser().getId().equals(student.getId()))
+                .collect(Collectors.groupingBy(b -> b.getItem().getId(), Collectors.counting()));
+
+        assertThat(bookingsPerItem).hasSize(ITEM_COUNT);
+        assertThat(bookingsPerItem.values()).allMatch(count -> count == 1L);
+    }
+
+    @Test
+    @DisplayName("Sollte Mehrfachbuchungen mit quantity > 1 atomar vergeben")
+    void shouldAllocateMultiItemBookingsAtomically() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(10).withNano(0);
+        LocalDateTime end = start.plusDays(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(() -> {
+                try {
+                    bookingService.createBooking(student.getId(), product.getId(), start, end, null, 2);
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            });
+        }
+
+        long successCount = executor.invokeAll(tasks).stream()
+                .filter(f -> {
+                    try {
+                        return f.get();
+                    } catch (Exception e) {
+                        return false;
+                    }
+                })
+                .count();
+        executor.shutdown();
+
+        // 3 Items, je Anfrage 2 -> genau eine Anfrage kann erfolgreich sein
+        assertThat(successCount).isEqualTo(1);
+
+        List<Booking> saved = bookingRepository.findAll().stream()
+                .filter(b -> b.getUser().getId().equals(student.getId()))
+                .toList();
+        assertThat(saved).hasSize(2);
+        assertThat(saved).extracting(b -> b.getItem().getId()).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Sollte Warenkorb-Buchungen parallel alles oder nichts vergeben")
+    void shouldBookCartsAllOrNothing() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(20).withNano(0);
+        LocalDateTime end = start.plusDays(1);
+        CartBookingRequestDTO cart = CartBookingRequestDTO.builder()
+                .lines(List.of(new CartBookingRequestDTO.Line(product.getId(), 1),
+                        new CartBookingRequestDTO.Line(tripod.getId(), 1)))
+                .startDate(start)
+                .endDate(end)
+                .build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            tasks.add(() -> {
+                try {
+                    bookingService.createCartBooking(student.getId(), cart);
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            });
+        }
+
+        long successCount = 0;
+        for (Future<Boolean> future : executor.invokeAll(tasks)) {
+            if (future.get(60, TimeUnit.SECONDS)) {
+                successCount++;
+            }
+        }
+        executor.shutdown();
+
+        // Nur ein Stativ -> genau ein Warenkorb, die uebrigen Kameras bleiben frei
+        assertThat(successCount).isEqualTo(1);
+        List<Booking> saved = bookingRepository.findAll().stream()
+                .filter(b -> b.getUser().getId().equals(student.getId()))
+                .toList();
+        assertThat(saved).hasSize(2);
+        assertThat(saved).extracting(b -> b.getItem().getProduct().getId())
+                .containsExactlyInAnyOrder(product.getId(), tripod.getId());
+    }
+}
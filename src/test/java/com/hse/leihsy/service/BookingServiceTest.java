@@ -5,8 +5,11 @@ import com.hse.leihsy.exception.ConflictException;
 import com.hse.leihsy.exception.ValidationException;
 import com.hse.leihsy.mapper.BookingMapper;
 import com.hse.leihsy.model.dto.BookingDTO;
+import com.hse.leihsy.model.dto.CartBookingRequestDTO;
+import com.hse.leihsy.model.dto.LenderDashboardDTO;
 import com.hse.leihsy.model.entity.*;
 import com.hse.leihsy.repository.BookingRepository;
+import com.hse.leihsy.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -18,11 +21,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +37,12 @@ class BookingServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private BookingReservationService reservationService;
+
+    @Mock
+    private UserRepository userRepository;
+
     @Mock
     private ObjectMapper objectMapper;
 
@@ -87,6 +98,37 @@ class BookingServiceTest {
             assertThat(result).hasSize(1);
             verify(bookingRepository).findAll();
         }
+
+        @Test
+        @DisplayName("Sollte Admin-Filter pending per Query laden")
+        void shouldLoadAllPendingWithoutFindAll() {
+            when(bookingRepository.findAllPending(any())).thenReturn(List.of(testBooking));
+
+            bookingService.getAllBookings("pending");
+
+            verify(bookingRepository).findAllPending(any());
+            verify(bookingRepository, never()).findAll();
+        }
+
+        @Test
+        @DisplayName("Sollte cursor/limit fuer zeitlich begrenzte Status ablehnen statt die ganze Liste zu liefern")
+        void shouldRejectPagingForUnpagedStatus() {
+            assertThatThrownBy(() -> bookingService.getAllBookingsPage("confirmed", null, 20))
+                    .isInstanceOf(ValidationException.class)
+                    .hasMessageContaining("cursor/limit");
+            verifyNoInteractions(bookingRepository);
+        }
+
+        @Test
+        @DisplayName("Sollte returned per Keyset-Query paginieren")
+        void shouldPageReturnedBookings() {
+            when(bookingRepository.findAllReturnedPage(any(), any(), any())).thenReturn(List.of(testBooking));
+
+            bookingService.getAllBookingsPage("returned", null, 20);
+
+            verify(bookingRepository).findAllReturnedPage(any(), any(), any());
+            verify(bookingRepository, never()).findAllReturned();
+        }
     }
 
     @Nested
@@ -104,6 +146,203 @@ class BookingServiceTest {
             assertThat(result).hasSize(1);
             verify(bookingRepository).findByUserId(1L);
         }
+
+        @Test
+        @DisplayName("Sollte gelöschte Bookings per Query statt findAll() laden")
+        void shouldLoadIncludingDeletedWithoutFindAll() {
+            when(bookingRepository.findByUserIdIncludingDeleted(1L)).thenReturn(List.of(testBooking));
+            when(bookingMapper.toDTOList(any())).thenReturn(List.of(new BookingDTO()));
+
+            List<BookingDTO> result = bookingService.getBookingsByUserId(1L, true);
+
+            assertThat(result).hasSize(1);
+            verify(bookingRepository, never()).findAll();
+        }
+    }
+
+    @Nested
+    @DisplayName("getBookingsByLenderId Tests")
+    class GetBookingsByLenderIdTests {
+
+        @Test
+        @DisplayName("Sollte Bookings inkl. gelöschter per Query laden")
+        void shouldLoadIncludingDeletedWithoutFindAll() {
+            when(bookingRepository.findByLenderIdIncludingDeleted(2L)).thenReturn(List.of(testBooking));
+
+            bookingService.getBookingsByLenderId(2L, true);
+
+            verify(bookingRepository).findByLenderIdIncludingDeleted(2L);
+            verify(bookingRepository, never()).findAll();
+        }
+
+        @Test
+        @DisplayName("Sollte PENDING Bookings inkl. gelöschter per Query laden")
+        void shouldLoadPendingIncludingDeletedWithoutFindAll() {
+            when(bookingRepository.findAllPendingByLenderId(eq(2L), any())).thenReturn(List.of(testBooking));
+
+            bookingService.getPendingBookingsByLenderId(2L, true);
+
+            verify(bookingRepository).findAllPendingByLenderId(eq(2L), any());
+            verify(bookingRepository, never()).findAll();
+        }
+    }
+
+    @Nested
+    @DisplayName("getLenderDashboard Tests")
+    class GetLenderDashboardTests {
+
+        private Booking booking(long id, BookingStatus status, String proposedPickups, LocalDateTime endDate) {
+            Booking booking = new Booking();
+            booking.setId(id);
+            booking.setStatus(status.name());
+            booking.setProposedPickups(proposedPickups);
+            booking.setCreatedAt(LocalDateTime.now().minusHours(id));
+            booking.setConfirmedPickup(LocalDateTime.now().plusDays(id));
+            booking.setEndDate(endDate);
+            return booking;
+        }
+
+        @Test
+        @DisplayName("Sollte offene Bookings mit einer Query in Phasen aufteilen")
+        void shouldPartitionOpenBookingsInOneQuery() {
+            LocalDateTime now = LocalDateTime.now();
+            Booking pending = booking(1L, BookingStatus.PENDING, null, now.plusDays(5));
+            Booking proposed = booking(2L, BookingStatus.PENDING, "[]", now.plusDays(5));
+            Booking upcoming = booking(3L, BookingStatus.CONFIRMED, "[]", now.plusDays(5));
+            Booking active = booking(4L, BookingStatus.PICKED_UP, "[]", now.plusDays(2));
+            Booking overdue = booking(5L, BookingStatus.PICKED_UP, "[]", now.minusDays(1));
+            when(bookingRepository.findOpenByLenderId(2L))
+                    .thenReturn(List.of(pending, proposed, upcoming, active, overdue));
+            when(bookingMapper.toDTOList(any())).thenAnswer(invocation -> {
+                List<Booking> bookings = invocation.getArgument(0);
+                return bookings.stream()
+                        .map(b -> BookingDTO.builder().id(b.getId()).build())
+                        .toList();
+            });
+
+            LenderDashboardDTO result = bookingService.getLenderDashboard(2L);
+
+            assertThat(result.getPendingCount()).isEqualTo(1);
+            assertThat(result.getUpcomingCount()).isEqualTo(1);
+            assertThat(result.getActiveCount()).isEqualTo(2);
+            assertThat(result.getOverdueCount()).isEqualTo(1);
+            assertThat(result.getPending()).extracting(BookingDTO::getId).containsExactly(1L);
+            assertThat(result.getUpcoming()).extracting(BookingDTO::getId).containsExactly(3L);
+            // Rueckgabe naechste zuerst
+            assertThat(result.getActive()).extracting(BookingDTO::getId).containsExactly(5L, 4L);
+            assertThat(result.getOverdueIds()).containsExactly(5L);
+            verify(bookingRepository).findOpenByLenderId(2L);
+            verifyNoMoreInteractions(bookingRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("createBooking Tests")
+    class CreateBookingTests {
+
+        @Test
+        @DisplayName("Sollte freie Items ueber die Reservierung ermitteln und buchen")
+        void shouldAllocateAvailableItemsWithSingleQuery() {
+            LocalDateTime start = testBooking.getStartDate();
+            LocalDateTime end = testBooking.getEndDate();
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testBooking.getUser()));
+            when(reservationService.reserveItems(1L, start, end, 1))
+                    .thenReturn(List.of(testBooking.getItem()));
+            when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(bookingMapper.toDTOList(any())).thenReturn(List.of(new BookingDTO()));
+
+            List<BookingDTO> result = bookingService.createBooking(1L, 1L, start, end, "Projekt", 1);
+
+            assertThat(result).hasSize(1);
+            verify(bookingRepository, never()).findOverlappingBookings(any(), any(), any());
+            verify(bookingRepository).save(any(Booking.class));
+        }
+
+        @Test
+        @DisplayName("Sollte Fehler werfen wenn nicht genug Items frei sind")
+        void shouldThrowWhenNotEnoughItemsAvailable() {
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testBooking.getUser()));
+            when(reservationService.reserveItems(eq(1L), any(), any(), eq(2)))
+                    .thenReturn(List.of(testBooking.getItem()));
+
+            assertThatThrownBy(() -> bookingService.createBooking(1L, 1L,
+                    testBooking.getStartDate(), testBooking.getEndDate(), null, 2))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessageContaining("Not enough items available");
+            verify(bookingRepository, never()).save(any(Booking.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("createCartBooking Tests")
+    class CreateCartBookingTests {
+
+        private CartBookingRequestDTO cart(CartBookingRequestDTO.Line... lines) {
+            return CartBookingRequestDTO.builder()
+                    .lines(List.of(lines))
+                    .startDate(testBooking.getStartDate())
+                    .endDate(testBooking.getEndDate())
+                    .message("Dreh")
+                    .build();
+        }
+
+        private Item item(Long id, Long productId) {
+            Product product = new Product();
+            product.setId(productId);
+            Item item = new Item();
+            item.setId(id);
+            item.setProduct(product);
+            item.setLender(testBooking.getLender());
+            return item;
+        }
+
+        @Test
+        @DisplayName("Sollte alle Positionen mit einer Reservierung und einem saveAll buchen")
+        void shouldBookAllLinesAtOnce() {
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testBooking.getUser()));
+            when(reservationService.reserveItems(eq(Map.of(1L, 2, 2L, 1)), any(), any())).thenReturn(Map.of(
+                    1L, List.of(item(10L, 1L), item(11L, 1L)),
+                    2L, List.of(item(20L, 2L))));
+            when(bookingRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(bookingMapper.toDTOList(any())).thenAnswer(invocation ->
+                    ((List<?>) invocation.getArgument(0)).stream().map(b -> new BookingDTO()).toList());
+
+            // Doppelte Positionen desselben Products werden zusammengefasst
+            List<BookingDTO> result = bookingService.createCartBooking(1L, cart(
+                    new CartBookingRequestDTO.Line(1L, 1),
+                    new CartBookingRequestDTO.Line(2L, 1),
+                    new CartBookingRequestDTO.Line(1L, 1)));
+
+            assertThat(result).hasSize(3);
+            verify(reservationService, times(1)).reserveItems(any(), any(), any());
+            verify(bookingRepository, never()).save(any(Booking.class));
+        }
+
+        @Test
+        @DisplayName("Sollte nichts buchen wenn eine Position nicht verfuegbar ist")
+        void shouldBookNothingWhenOneLineIsShort() {
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testBooking.getUser()));
+            when(reservationService.reserveItems(any(), any(), any())).thenReturn(Map.of(
+                    1L, List.of(item(10L, 1L))));
+
+            assertThatThrownBy(() -> bookingService.createCartBooking(1L, cart(
+                    new CartBookingRequestDTO.Line(1L, 1),
+                    new CartBookingRequestDTO.Line(2L, 1))))
+                    .isInstanceOf(ConflictException.class)
+                    .hasMessageContaining("[2]");
+            verify(bookingRepository, never()).saveAll(any());
+        }
+
+        @Test
+        @DisplayName("Sollte Zeitraum mit Ende vor Beginn ablehnen")
+        void shouldRejectInvalidPeriod() {
+            CartBookingRequestDTO request = cart(new CartBookingRequestDTO.Line(1L, 1));
+            request.setEndDate(request.getStartDate().minusDays(1));
+
+            assertThatThrownBy(() -> bookingService.createCartBooking(1L, request))
+                    .isInstanceOf(ValidationException.class);
+            verifyNoInteractions(reservationService, bookingRepository);
+        }
     }
 
     @Nested
@@ -0,0 +1,128 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.dto.ChangeVersion;
+import com.hse.leihsy.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChangeVersionService Tests")
+class ChangeVersionServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-03T10:15:30Z");
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private StudentGroupRepository studentGroupRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private LocationRepository locationRepository;
+
+    @Mock
+    private ProductSetRepository productSetRepository;
+
+    @InjectMocks
+    private ChangeVersionService changeVersionService;
+
+    private final LocalDateTime updatedAt = LocalDateTime.of(2025, 11, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        changeVersionService.setClock(Clock.fixed(NOW, ZoneId.systemDefault()));
+    }
+
+    @Nested
+    @DisplayName("forLender Tests")
+    class ForLenderTests {
+
+        @Test
+        @DisplayName("Sollte gleichen ETag bei unveraendertem Stand liefern")
+        void shouldReturnStableEtag() {
+            when(bookingRepository.findChangeVersionByLenderId(2L)).thenReturn(new ChangeVersion(updatedAt, 3));
+
+            ChangeVersionService.Version first = changeVersionService.forLender(2L);
+            ChangeVersionService.Version second = changeVersionService.forLender(2L);
+
+            assertThat(first).isEqualTo(second);
+            assertThat(first.etag()).startsWith("W/\"lender-2-").endsWith("\"");
+        }
+
+        @Test
+        @DisplayName("Sollte neuen ETag bei Update oder geaenderter Anzahl liefern")
+        void shouldChangeEtagOnUpdateOrCount() {
+            when(bookingRepository.findChangeVersionByLenderId(2L))
+                    .thenReturn(new ChangeVersion(updatedAt, 3))
+                    .thenReturn(new ChangeVersion(updatedAt.plusSeconds(1), 3))
+                    .thenReturn(new ChangeVersion(updatedAt, 2));
+
+            String original = changeVersionService.forLender(2L).etag();
+            String updated = changeVersionService.forLender(2L).etag();
+            String deleted = changeVersionService.forLender(2L).etag();
+
+            assertThat(updated).isNotEqualTo(original);
+            assertThat(deleted).isNotEqualTo(original).isNotEqualTo(updated);
+        }
+
+        @Test
+        @DisplayName("Sollte ETag nach Ablauf des Zeit-Intervalls wechseln (zeitabhaengiger Status)")
+        void shouldChangeEtagWithTimeBucket() {
+            when(bookingRepository.findChangeVersionByLenderId(2L)).thenReturn(new ChangeVersion(updatedAt, 3));
+
+            ChangeVersionService.Version before = changeVersionService.forLender(2L);
+            changeVersionService.setClock(Clock.fixed(
+                    NOW.plus(ChangeVersionService.BOOKING_TIME_BUCKET), ZoneId.systemDefault()));
+            ChangeVersionService.Version after = changeVersionService.forLender(2L);
+
+            assertThat(after.etag()).isNotEqualTo(before.etag());
+            assertThat(after.lastModified()).isGreaterThan(before.lastModified());
+        }
+    }
+
+    @Nested
+    @DisplayName("forCatalog Tests")
+    class ForCatalogTests {
+
+        @Test
+        @DisplayName("Sollte juengstes updatedAt aller Katalog-Tabellen als Last-Modified liefern")
+        void shouldUseLatestUpdateAsLastModified() {
+            LocalDateTime latest = updatedAt.plusDays(1);
+            when(productRepository.findChangeVersion()).thenReturn(new ChangeVersion(updatedAt, 10));
+            when(itemRepository.findChangeVersion()).thenReturn(new ChangeVersion(updatedAt, 20));
+            when(bookingRepository.findChangeVersion()).thenReturn(new ChangeVersion(latest, 5));
+            when(categoryRepository.findChangeVersion()).thenReturn(new ChangeVersion(updatedAt, 3));
+            when(locationRepository.findChangeVersion()).thenReturn(new ChangeVersion(null, 0));
+            when(productSetRepository.findChangeVersion()).thenReturn(new ChangeVersion(null, 0));
+
+            ChangeVersionService.Version version = changeVersionService.forCatalog();
+
+            assertThat(version.etag()).startsWith("W/\"catalog-");
+            assertThat(version.lastModified())
+                    .isEqualTo(latest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+}
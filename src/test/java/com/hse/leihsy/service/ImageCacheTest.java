@@ -0,0 +1,108 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.exception.FileStorageException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ImageCache Tests")
+class ImageCacheTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ImageCache imageCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        imageCache = new ImageCache(meterRegistry, DataSize.ofKilobytes(10), DataSize.ofKilobytes(4));
+    }
+
+    private Path file(String name, int size) throws Exception {
+        Path file = uploadDir.resolve(name);
+        Files.write(file, new byte[size]);
+        return file;
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", ImageCache.CACHE_NAME)
+                .tag("result", result)
+                .functionCounter().count();
+    }
+
+    @Nested
+    @DisplayName("get() Tests")
+    class GetTests {
+
+        @Test
+        @DisplayName("Sollte Treffer ohne Dateizugriff liefern und Metriken fuehren")
+        void shouldServeHitsFromMemory() throws Exception {
+            Path file = file("a.jpg", 1024);
+
+            Resource first = imageCache.get(file);
+            Files.delete(file);
+            Resource second = imageCache.get(file);
+
+            assertThat(second).isSameAs(first);
+            assertThat(second.contentLength()).isEqualTo(1024);
+            assertThat(second.getFilename()).isEqualTo("a.jpg");
+            assertThat(gets("hit")).isEqualTo(1);
+            assertThat(gets("miss")).isEqualTo(1);
+            assertThat(meterRegistry.get("leihsy.images.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+            assertThat(meterRegistry.get("leihsy.images.cache.resident").gauge().value()).isEqualTo(1024);
+        }
+
+        @Test
+        @DisplayName("Sollte zu grosse oder fehlende Dateien nicht cachen")
+        void shouldSkipLargeAndMissingFiles() throws Exception {
+            assertThat(imageCache.get(file("gross.jpg", 8 * 1024))).isNull();
+            assertThat(imageCache.get(uploadDir.resolve("fehlt.jpg"))).isNull();
+            assertThat(imageCache.residentBytes()).isZero();
+        }
+
+        @Test
+        @DisplayName("Sollte nach Bytes begrenzen statt nach Eintraegen")
+        void shouldBoundByBytes() throws Exception {
+            for (int i = 0; i < 10; i++) {
+                imageCache.get(file("bild-" + i + ".jpg", 3 * 1024));
+            }
+
+            assertThat(imageCache.residentBytes()).isLessThanOrEqualTo(10 * 1024);
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalidierung durch ImageService")
+    class InvalidationTests {
+
+        @Test
+        @DisplayName("Sollte geloeschte Bilder nicht mehr aus dem Cache liefern")
+        void shouldInvalidateOnDelete() {
+            ImageService imageService = new ImageService(uploadDir.toString(),
+                    new ImageVariantService(Runnable::run), imageCache);
+            String filename = imageService.saveImage(
+                    new MockMultipartFile("file", "a.jpg", "image/jpeg", new byte[]{1, 2, 3}));
+            assertThat(imageService.loadImage(filename)).isInstanceOf(ImageCache.CachedImage.class);
+
+            imageService.deleteImage(filename);
+
+            assertThat(imageCache.residentBytes()).isZero();
+            assertThatThrownBy(() -> imageService.loadImage(filename)).isInstanceOf(FileStorageException.class);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ImageGarbageCollector Tests")
+class ImageGarbageCollectorTest {
+
+    private static final Duration GRACE_PERIOD = Duration.ofHours(24);
+    private static final Instant NOW = Instant.parse("2026-10-17T12:00:00Z");
+
+    @TempDir
+    Path uploadDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductRepository productRepository;
+    private ImageService imageService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productRepository = mock(ProductRepository.class);
+        imageService = new ImageService(uploadDir.toString(), new ImageVariantService(Runnable::run),
+                new ImageCache(meterRegistry, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64)));
+    }
+
+    private ImageGarbageCollector collector(int batchSize) {
+        return new ImageGarbageCollector(imageService, productRepository, meterRegistry, GRACE_PERIOD, batchSize,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private Path store(String content, Duration age) throws Exception {
+        String filename = imageService.saveImage(
+                new MockMultipartFile("file", "bild.jpg", "image/jpeg", content.getBytes()));
+        Path file = imageService.resolve(filename);
+        Files.setLastModifiedTime(file, FileTime.from(NOW.minus(age)));
+        return file;
+    }
+
+    private Path legacy(String name, String content, Duration age) throws Exception {
+        Path file = Files.writeString(uploadDir.resolve(name), content);
+        Files.setLastModifiedTime(file, FileTime.from(NOW.minus(age)));
+        return file;
+    }
+
+    private String urlOf(Path file) {
+        return ImageService.URL_PREFIX + file.getFileName();
+    }
+
+    @Nested
+    @DisplayName("sweep() Tests")
+    class SweepTests {
+
+        @Test
+        @DisplayName("Sollte nur unreferenzierte Bilder nach der Schonfrist loeschen und Bytes melden")
+        void shouldDeleteOnlyExpiredOrphans() throws Exception {
+            Path referenced = store("referenziert", Duration.ofDays(30));
+            Path orphan = store("verwaist", Duration.ofDays(30));
+            Path fresh = store("frisch", Duration.ofHours(1));
+            Path referencedLegacy = legacy("meta-quest-3.jpg", "alt", Duration.ofDays(30));
+            Path orphanLegacy = legacy("pico-4.jpg", "alt-verwaist", Duration.ofDays(30));
+            when(productRepository.findReferencedImageUrls())
+                    .thenReturn(List.of(urlOf(referenced), urlOf(referencedLegacy), "https://example.org/x.jpg"));
+
+            ImageGarbageCollector.SweepResult result = collector(1000).sweep();
+
+            assertThat(referenced).exists();
+            assertThat(fresh).exists();
+            assertThat(referencedLegacy).exists();
+            assertThat(orphan).doesNotExist();
+            assertThat(orphanLegacy).doesNotExist();
+            assertThat(result.deleted()).isEqualTo(2);
+            assertThat(result.reclaimedBytes()).isEqualTo("verwaist".length() + "alt-verwaist".length());
+            assertThat(meterRegistry.get("leihsy.images.gc.reclaimed").counter().count())
+                    .isEqualTo(result.reclaimedBytes());
+        }
+
+        @Test
+        @DisplayName("Sollte Varianten mit dem Original loeschen und bei referenziertem Original behalten")
+        void shouldHandleVariantsWithOriginal() throws Exception {
+            Path referenced = store("referenziert", Duration.ofDays(30));
+            Path orphan = store("verwaist", Duration.ofDays(30));
+            Path referencedVariant = Files.writeString(ImageVariantService.variantPath(referenced, 200), "v");
+            Path orphanVariant = Files.writeString(ImageVariantService.variantPath(orphan, 200), "vv");
+            when(productRepository.findReferencedImageUrls()).thenReturn(List.of(urlOf(referenced)));
+
+            ImageGarbageCollector.SweepResult result = collector(1000).sweep();
+
+            assertThat(referencedVariant).exists();
+            assertThat(orphanVariant).doesNotExist();
+            assertThat(result.deleted()).isEqualTo(1);
+            assertThat(result.reclaimedBytes()).isEqualTo("verwaist".length() + 2);
+        }
+
+        @Test
+        @DisplayName("Sollte abgebrochene Temp-Dateien nach der Schonfrist entfernen")
+        void shouldDeleteStaleTempFiles() throws Exception {
+            Path tempDir = Files.createDirectories(uploadDir.resolve(ImageService.TEMP_DIR));
+            Path stale = Files.writeString(tempDir.resolve("upload-1.jpg"), "halb");
+            Files.setLastModifiedTime(stale, FileTime.from(NOW.minus(Duration.ofDays(2))));
+            Path running = Files.writeString(tempDir.resolve("upload-2.jpg"), "laeuft");
+            Files.setLastModifiedTime(running, FileTime.from(NOW));
+            when(productRepository.findReferencedImageUrls()).thenReturn(List.of());
+
+            collector(1000).sweep();
+
+            assertThat(stale).doesNotExist();
+            assertThat(running).exists();
+        }
+
+        @Test
+        @DisplayName("Sollte inkrementell arbeiten und beim naechsten Lauf fortsetzen")
+        void shouldContinueFromCursor() throws Exception {
+            for (int i = 0; i < 6; i++) {
+                store("verwaist-" + i, Duration.ofDays(30));
+            }
+            when(productRepository.findReferencedImageUrls()).thenReturn(List.of());
+            ImageGarbageCollector collector = collector(2);
+
+            int deleted = 0;
+            int runs = 0;
+            ImageGarbageCollector.SweepResult result;
+            do {
+                result = collector.sweep();
+                assertThat(result.checked()).isLessThanOrEqualTo(3);
+                deleted += result.deleted();
+                runs++;
+            } while (result.deleted() > 0);
+
+            assertThat(deleted).isEqualTo(6);
+            assertThat(runs).isGreaterThan(2);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.exception.FileStorageException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ImageService Tests")
+class ImageServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageService imageService;
+
+    @BeforeEach
+    void setUp() {
+        imageService = new ImageService(uploadDir.toString(), new ImageVariantService(Runnable::run),
+                new ImageCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1), DataSize.ofKilobytes(64)));
+    }
+
+    private MockMultipartFile image(String filename, String content) {
+        return new MockMultipartFile("file", filename, "image/jpeg", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String sha256(String content) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<Path> storedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(uploadDir)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    @Nested
+    @DisplayName("saveImage() Tests")
+    class SaveImageTests {
+
+        @Test
+        @DisplayName("Sollte Bild unter dem SHA-256 des Inhalts speichern")
+        void shouldStoreUnderContentHash() throws Exception {
+            String filename = imageService.saveImage(image("Meta Quest.JPEG", "quest"));
+
+            assertThat(filename).isEqualTo(sha256("quest") + ".jpg");
+            Path stored = uploadDir.resolve(filename.substring(0, 2)).resolve(filename);
+            assertThat(stored).hasContent("quest");
+            assertThat(storedFiles()).containsExactly(stored);
+        }
+
+        @Test
+        @DisplayName("Sollte identische Bilder nur einmal speichern")
+        void shouldDeduplicateIdenticalContent() throws Exception {
+            String first = imageService.saveImage(image("a.jpg", "same"));
+            String second = imageService.saveImage(image("b.jpeg", "same"));
+
+            assertThat(second).isEqualTo(first);
+            assertThat(storedFiles()).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("Sollte verschiedene Bilder mit gleichem Namen nicht ueberschreiben")
+        void shouldNotOverwriteDifferentContent() throws Exception {
+            String first = imageService.saveImage(image("kamera.png", "v1"));
+            String second = imageService.saveImage(image("kamera.png", "v2"));
+
+            assertThat(second).isNotEqualTo(first);
+            assertThat(imageService.loadImage(first).getContentAsString(StandardCharsets.UTF_8)).isEqualTo("v1");
+            assertThat(imageService.loadImage(second).getContentAsString(StandardCharsets.UTF_8)).isEqualTo("v2");
+        }
+
+        @Test
+        @DisplayName("Sollte ungueltige Dateitypen ablehnen")
+        void shouldRejectInvalidType() throws Exception {
+            assertThatThrownBy(() -> imageService.saveImage(image("anim.gif", "gif")))
+                    .isInstanceOf(FileStorageException.class);
+            assertThat(storedFiles()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("loadImage() / deleteImage() Tests")
+    class LoadImageTests {
+
+        @Test
+        @DisplayName("Sollte alte Dateinamen aus dem Upload-Verzeichnis weiterhin liefern")
+        void shouldResolveLegacyFilename() throws Exception {
+            Files.writeString(uploadDir.resolve("meta-quest-3.jpg"), "legacy");
+
+            Resource resource = imageService.loadImage("meta-quest-3.jpg");
+
+            assertThat(resource.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("legacy");
+        }
+
+        @Test
+        @DisplayName("Sollte Pfade ausserhalb des Upload-Verzeichnisses ablehnen")
+        void shouldRejectPathTraversal() {
+            assertThatThrownBy(() -> imageService.loadImage("../application.properties"))
+                    .isInstanceOf(FileStorageException.class);
+            assertThatThrownBy(() -> imageService.deleteImage("sub/x.jpg"))
+                    .isInstanceOf(FileStorageException.class);
+        }
+
+        @Test
+        @DisplayName("Sollte gespeichertes Bild loeschen")
+        void shouldDeleteStoredImage() throws Exception {
+            String filename = imageService.saveImage(image("a.webp", "bye"));
+
+            imageService.deleteImage(filename);
+
+            assertThat(storedFiles()).isEmpty();
+            assertThatThrownBy(() -> imageService.loadImage(filename)).isInstanceOf(FileStorageException.class);
+        }
+    }
+}
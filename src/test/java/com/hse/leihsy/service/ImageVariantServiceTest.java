@@ -0,0 +1,215 @@
+package com.hse.leihsy.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ImageVariantService Tests")
+class ImageVariantServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageVariantService variantService;
+    private ImageService imageService;
+
+    @BeforeEach
+    void setUp() {
+        variantService = new ImageVariantService(Runnable::run);
+        imageService = new ImageService(uploadDir.toString(), variantService, imageCache());
+    }
+
+    private ImageCache imageCache() {
+        return new ImageCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+    }
+
+    private byte[] encode(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private Path store(String name, byte[] content) {
+        String filename = imageService.saveImage(new MockMultipartFile("file", name, "image/jpeg", content));
+        return imageService.resolve(filename);
+    }
+
+    private BufferedImage read(Path file) throws IOException {
+        return ImageIO.read(file.toFile());
+    }
+
+    @Nested
+    @DisplayName("Erzeugung beim Upload")
+    class GenerateTests {
+
+        @Test
+        @DisplayName("Sollte fuer ein grosses JPEG alle Varianten mit Seitenverhaeltnis erzeugen")
+        void shouldGenerateAllWidthsForLargeJpeg() throws Exception {
+            Path original = store("kamera.jpg", encode(1600, 800, "jpg"));
+
+            for (int width : ImageVariantService.WIDTHS) {
+                BufferedImage variant = read(ImageVariantService.variantPath(original, width));
+                assertThat(variant.getWidth()).isEqualTo(width);
+                assertThat(variant.getHeight()).isEqualTo(width / 2);
+            }
+            assertThat(Files.size(ImageVariantService.variantPath(original, 200))).isLessThan(Files.size(original));
+        }
+
+        @Test
+        @DisplayName("Sollte nie hochskalieren")
+        void shouldNotUpscale() throws Exception {
+            Path original = store("klein.png", encode(300, 300, "png"));
+
+            assertThat(read(ImageVariantService.variantPath(original, 200)).getWidth()).isEqualTo(200);
+            assertThat(ImageVariantService.variantPath(original, 400)).doesNotExist();
+            assertThat(ImageVariantService.variantPath(original, 800)).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("Sollte nicht lesbare Formate ohne Fehler ueberspringen")
+        void shouldSkipUnreadableImages() throws Exception {
+            Path original = store("bild.webp", new byte[]{1, 2, 3});
+
+            try (var files = Files.list(original.getParent())) {
+                assertThat(files.toList()).containsExactly(original);
+            }
+        }
+
+        @Test
+        @DisplayName("Sollte bei voller Queue verwerfen statt den Upload zu blockieren")
+        void shouldDropWhenQueueIsFull() throws Exception {
+            variantService = new ImageVariantService(task -> {
+                throw new RejectedExecutionException("voll");
+            });
+            imageService = new ImageService(uploadDir.toString(), variantService, imageCache());
+
+            Path original = store("kamera.jpg", encode(1000, 500, "jpg"));
+
+            assertThat(original).exists();
+            assertThat(ImageVariantService.variantPath(original, 200)).doesNotExist();
+        }
+    }
+
+    @Nested
+    @DisplayName("Auswahl und Backfill")
+    class SelectionTests {
+
+        @Test
+        @DisplayName("Sollte die kleinste Variante waehlen, die mindestens so breit ist")
+        void shouldPickNearestLargerVariant() throws Exception {
+            Path original = store("kamera.jpg", encode(1600, 800, "jpg"));
+
+            assertThat(variantService.findVariant(original, 120)).isEqualTo(ImageVariantService.variantPath(original, 200));
+            assertThat(variantService.findVariant(original, 201)).isEqualTo(ImageVariantService.variantPath(original, 400));
+            assertThat(variantService.findVariant(original, 1200)).isNull();
+        }
+
+        @Test
+        @DisplayName("Sollte aufgeloeste Varianten merken und erst nach dem Loeschen neu pruefen")
+        void shouldRememberResolvedVariants() throws Exception {
+            Path original = store("kamera.jpg", encode(1600, 800, "jpg"));
+            Path variant = ImageVariantService.variantPath(original, 200);
+            assertThat(variantService.findVariant(original, 150)).isEqualTo(variant);
+
+            // Am Service vorbei entfernt: der gemerkte Pfad wird ohne Dateisystem-Zugriff geliefert
+            Files.delete(variant);
+            assertThat(variantService.findVariant(original, 150)).isEqualTo(variant);
+
+            imageService.deleteImage(original.getFileName().toString());
+            assertThat(variantService.findVariant(original, 150)).isNull();
+        }
+
+        @Test
+        @DisplayName("Sollte fehlende Varianten vorhandener Bilder per Backfill erzeugen")
+        void shouldBackfillExistingImages() throws Exception {
+            List<Runnable> queued = new CopyOnWriteArrayList<>();
+            variantService = new ImageVariantService(queued::add);
+            imageService = new ImageService(uploadDir.toString(), variantService, imageCache());
+            Path legacy = uploadDir.resolve("meta-quest-3.jpg");
+            Files.write(legacy, encode(900, 450, "jpg"));
+            Path hashed = store("kamera.jpg", encode(500, 250, "jpg"));
+
+            // Auftrag des Uploads ist noch offen, der Backfill plant ihn nicht doppelt ein
+            Thread backfill = new Thread(() -> variantService.runBackfill(List.of(legacy, hashed)));
+            backfill.start();
+            while (queued.size() < 2 && backfill.isAlive()) {
+                Thread.sleep(10);
+            }
+            List.copyOf(queued).forEach(Runnable::run);
+            backfill.join(5000);
+
+            assertThat(backfill.isAlive()).isFalse();
+            assertThat(queued).hasSize(2);
+            assertThat(ImageVariantService.variantPath(legacy, 800)).exists();
+            assertThat(ImageVariantService.variantPath(hashed, 400)).exists();
+        }
+
+        @Test
+        @DisplayName("Sollte beim Backfill auf freie Plaetze warten statt Bilder zu verwerfen")
+        void shouldBackfillMoreImagesThanQueueCapacity() throws Exception {
+            variantService = new ImageVariantService(1, 1, 50_000_000L);
+            imageService = new ImageService(uploadDir.toString(), variantService, imageCache());
+            byte[] content = encode(500, 250, "jpg");
+            for (int i = 0; i < 8; i++) {
+                Files.write(uploadDir.resolve("bild-" + i + ".jpg"), content);
+            }
+
+            try {
+                variantService.runBackfill(imageService.originals());
+            } finally {
+                variantService.shutdown();
+            }
+
+            for (int i = 0; i < 8; i++) {
+                assertThat(ImageVariantService.variantPath(uploadDir.resolve("bild-" + i + ".jpg"), 400)).exists();
+            }
+        }
+
+        @Test
+        @DisplayName("Sollte Bilder ueber dem Pixel-Limit nicht dekodieren")
+        void shouldSkipImagesAbovePixelLimit() throws Exception {
+            variantService = new ImageVariantService(Runnable::run, 1, 1000 * 1000);
+            imageService = new ImageService(uploadDir.toString(), variantService, imageCache());
+
+            Path original = store("kamera.jpg", encode(1600, 800, "jpg"));
+
+            assertThat(original).exists();
+            assertThat(ImageVariantService.variantPath(original, 200)).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("Sollte Varianten zusammen mit dem Original loeschen")
+        void shouldDeleteVariantsWithOriginal() throws Exception {
+            Path original = store("kamera.jpg", encode(1000, 500, "jpg"));
+
+            imageService.deleteImage(original.getFileName().toString());
+
+            try (var files = Files.list(original.getParent())) {
+                assertThat(files.toList()).isEmpty();
+            }
+        }
+    }
+}
@@ -41,6 +41,9 @@ class InsyImportServiceTest {
     @Mock
     private InsyImportMapper importMapper;
 
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
     @InjectMocks
     private InsyImportService importService;
 
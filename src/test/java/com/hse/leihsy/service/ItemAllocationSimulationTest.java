@@ -0,0 +1,131 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.dto.ItemGap;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Spielt ein Semester synthetischer Buchungsanfragen gegen beide Allokations-Strategien ab
+ * und vergleicht Annahmequote und Auswahl-Laufzeit.
+ *
+ * Belegung wie in BookingReservationService: freie Items (inklusive Grenzen), Luecken ab "jetzt".
+ * Bewertet wird die Annahmequote (deterministisch per Seed), Laufzeiten werden nur geloggt.
+ */
+@Slf4j
+@DisplayName("ItemAllocation Simulation Tests")
+class ItemAllocationSimulationTest {
+
+    private static final LocalDateTime SEMESTER_START = LocalDateTime.of(2025, 10, 1, 8, 0);
+    private static final int SEMESTER_DAYS = 15 * 7;
+    private static final int ITEM_COUNT = 8;
+    private static final int REQUEST_COUNT = 150;
+    private static final long SEED = 42L;
+
+    private record Request(LocalDateTime requestedAt, LocalDateTime startDate, LocalDateTime endDate, int quantity) {
+    }
+
+    private record Result(int accepted, long[] latencies) {
+
+        double acceptanceRate() {
+            return accepted / (double) REQUEST_COUNT;
+        }
+
+        long percentileMicros(double percentile) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            return sorted[(int) Math.min(sorted.length - 1, Math.floor(sorted.length * percentile))] / 1_000;
+        }
+    }
+
+    // Kurze Ausleihen (1-3 Tage) ueberwiegen, dazwischen Projekt-Ausleihen (1-3 Wochen)
+    private List<Request> generateRequests() {
+        Random random = new Random(SEED);
+        List<Request> requests = new ArrayList<>();
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            LocalDateTime requestedAt = SEMESTER_START.plusMinutes(random.nextInt(SEMESTER_DAYS * 24 * 60));
+            LocalDateTime startDate = requestedAt.plusDays(random.nextInt(15)).withHour(8 + random.nextInt(10)).withMinute(0);
+            int days = random.nextDouble() < 0.75 ? 1 + random.nextInt(3) : 7 + random.nextInt(15);
+            int quantity = random.nextDouble() < 0.85 ? 1 : 2;
+            requests.add(new Request(requestedAt, startDate, startDate.plusDays(days), quantity));
+        }
+        requests.sort(Comparator.comparing(Request::requestedAt));
+        return requests;
+    }
+
+    private Result simulate(ItemAllocationStrategy strategy, List<Request> requests) {
+        List<TreeMap<LocalDateTime, LocalDateTime>> bookings = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            bookings.add(new TreeMap<>());
+        }
+
+        int accepted = 0;
+        long[] latencies = new long[requests.size()];
+        for (int r = 0; r < requests.size(); r++) {
+            Request request = requests.get(r);
+            long start = System.nanoTime();
+
+            List<ItemGap> candidates = new ArrayList<>();
+            for (int item = 0; item < ITEM_COUNT; item++) {
+                ItemGap gap = freeGap(item, bookings.get(item), request);
+                if (gap != null) {
+                    candidates.add(BookingReservationService.bookableGap((long) item, gap, request.requestedAt()));
+                }
+            }
+            List<ItemGap> selected = candidates.size() >= request.quantity()
+                    ? strategy.select(candidates, request.startDate(), request.endDate(), request.quantity())
+                    : List.of();
+
+            latencies[r] = System.nanoTime() - start;
+            if (!selected.isEmpty()) {
+                accepted++;
+                selected.forEach(gap -> bookings.get(gap.itemId().intValue()).put(request.startDate(), request.endDate()));
+            }
+        }
+        return new Result(accepted, latencies);
+    }
+
+    // Luecke um den Zeitraum oder null bei Ueberlappung (b.startDate <= endDate AND b.endDate >= startDate)
+    private ItemGap freeGap(int item, TreeMap<LocalDateTime, LocalDateTime> itemBookings, Request request) {
+        Map.Entry<LocalDateTime, LocalDateTime> before = itemBookings.floorEntry(request.endDate());
+        if (before != null && !before.getValue().isBefore(request.startDate())) {
+            return null;
+        }
+        Map.Entry<LocalDateTime, LocalDateTime> after = itemBookings.higherEntry(request.endDate());
+        return new ItemGap((long) item,
+                before != null ? before.getValue() : null,
+                after != null ? after.getKey() : null);
+    }
+
+    @Test
+    @DisplayName("Sollte mit Best-Fit mindestens so viele Anfragen annehmen wie mit First-Fit")
+    void shouldAcceptMoreRequestsWithBestFit() {
+        List<Request> requests = generateRequests();
+
+        Map<ItemAllocationStrategy, Result> results = new EnumMap<>(ItemAllocationStrategy.class);
+        for (ItemAllocationStrategy strategy : ItemAllocationStrategy.values()) {
+            Result result = simulate(strategy, requests);
+            results.put(strategy, result);
+            log.info("Allocation simulation {} ({} items, {} requests): acceptance {}%, latency p50 {} us / p99 {} us",
+                    strategy, ITEM_COUNT, REQUEST_COUNT,
+                    String.format("%.1f", result.acceptanceRate() * 100),
+                    result.percentileMicros(0.5), result.percentileMicros(0.99));
+        }
+
+        assertThat(results.get(ItemAllocationStrategy.FIRST_FIT).acceptanceRate()).isLessThan(1.0);
+        assertThat(results.get(ItemAllocationStrategy.BEST_FIT).accepted())
+                .isGreaterThanOrEqualTo(results.get(ItemAllocationStrategy.FIRST_FIT).accepted());
+    }
+}
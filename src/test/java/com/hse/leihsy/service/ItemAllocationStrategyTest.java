@@ -0,0 +1,69 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.dto.ItemGap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ItemAllocationStrategy Tests")
+class ItemAllocationStrategyTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 11, 3, 10, 0);
+    private static final LocalDateTime START = NOW.plusDays(10);
+    private static final LocalDateTime END = NOW.plusDays(12);
+
+    // Item 1: keine Buchungen, Item 2: Luecke Tag 9-13, Item 3: Luecke Tag 5-20, Item 4: Luecke Tag 9 bis offen
+    private final List<ItemGap> candidates = List.of(
+            new ItemGap(1L, NOW, null),
+            new ItemGap(2L, NOW.plusDays(9), NOW.plusDays(13)),
+            new ItemGap(3L, NOW.plusDays(5), NOW.plusDays(20)),
+            new ItemGap(4L, NOW.plusDays(9), null));
+
+    private List<Long> select(ItemAllocationStrategy strategy, int quantity) {
+        return strategy.select(candidates, START, END, quantity).stream().map(ItemGap::itemId).toList();
+    }
+
+    @Nested
+    @DisplayName("FIRST_FIT Tests")
+    class FirstFitTests {
+
+        @Test
+        @DisplayName("Sollte die ersten freien Items nach ID waehlen")
+        void shouldSelectLowestIds() {
+            assertThat(select(ItemAllocationStrategy.FIRST_FIT, 2)).containsExactly(1L, 2L);
+            assertThat(ItemAllocationStrategy.FIRST_FIT.needsGaps()).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("BEST_FIT Tests")
+    class BestFitTests {
+
+        @Test
+        @DisplayName("Sollte die knappste begrenzte Luecke zuerst waehlen")
+        void shouldSelectTightestGap() {
+            assertThat(select(ItemAllocationStrategy.BEST_FIT, 2)).containsExactly(2L, 3L);
+        }
+
+        @Test
+        @DisplayName("Sollte offene Luecken zuletzt und davon die knappste waehlen")
+        void shouldPreferBoundedOverOpenGaps() {
+            assertThat(select(ItemAllocationStrategy.BEST_FIT, 4)).containsExactly(2L, 3L, 4L, 1L);
+        }
+
+        @Test
+        @DisplayName("Sollte Buchungen vor jetzt nicht als Begrenzung werten")
+        void shouldClampPreviousEndToNow() {
+            ItemGap longAgo = BookingReservationService.bookableGap(5L, new ItemGap(5L, NOW.minusYears(1), null), NOW);
+            ItemGap none = BookingReservationService.bookableGap(6L, null, NOW);
+
+            assertThat(longAgo).isEqualTo(new ItemGap(5L, NOW, null));
+            assertThat(none).isEqualTo(new ItemGap(6L, NOW, null));
+        }
+    }
+}
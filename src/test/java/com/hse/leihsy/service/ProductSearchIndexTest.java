@@ -0,0 +1,176 @@
+package com.hse.leihsy.service;
+
+import com.hse.leihsy.model.entity.Category;
+import com.hse.leihsy.model.entity.Product;
+import com.hse.leihsy.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductSearchIndex Tests")
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSearchIndex searchIndex;
+
+    private Product createProduct(Long id, String name, String description, String category, String accessories) {
+        Product product = new Product(name, description);
+        product.setId(id);
+        product.setAccessories(accessories);
+        if (category != null) {
+            Category c = new Category();
+            c.setName(category);
+            product.setCategory(c);
+        }
+        return product;
+    }
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ProductSearchIndex(productRepository, true);
+
+        when(productRepository.findAllActive()).thenReturn(List.of(
+                createProduct(1L, "Canon EOS 250D", "Spiegelreflexkamera fuer Fotoprojekte", "Kameras", "Akku, Ladegerät"),
+                createProduct(2L, "Manfrotto Stativ", "Stabiles Stativ fuer Kameras", "Zubehoer", null),
+                createProduct(3L, "Meta Quest 3", "VR-Brille mit Controllern", "VR", "Ladekabel"),
+                createProduct(4L, "Rode Mikrofon", "Richtmikrofon fuer Kamera-Aufnahmen", "Audio", "Windschutz")));
+
+        searchIndex.load();
+    }
+
+    @Nested
+    @DisplayName("search() Tests")
+    class SearchTests {
+
+        @Test
+        @DisplayName("Sollte Begriffe als Praefix finden, unabhaengig von Gross-/Kleinschreibung")
+        void shouldMatchPrefixIgnoringCase() {
+            assertThat(searchIndex.search("QUE")).containsExactly(3L);
+            assertThat(searchIndex.search("mikro")).containsExactly(4L);
+        }
+
+        @Test
+        @DisplayName("Sollte Treffer im Namen vor Kategorie und Beschreibung ranken")
+        void shouldRankByFieldWeight() {
+            // Stativ: Name + Beschreibung, sonst nur Beschreibung
+            assertThat(searchIndex.search("stativ")).containsExactly(2L);
+            // Kategorie (1) vor exaktem Treffer "Kamera" in der Beschreibung (4) vor Praefix-Treffer "Kameras" (2)
+            assertThat(searchIndex.search("kamera")).containsExactly(1L, 4L, 2L);
+        }
+
+        @Test
+        @DisplayName("Sollte nur Products liefern, die alle Begriffe enthalten")
+        void shouldRequireAllTerms() {
+            assertThat(searchIndex.search("stativ kamera")).containsExactly(2L);
+            assertThat(searchIndex.search("stativ quest")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Sollte Zubehoer durchsuchen und Umlaute normalisieren")
+        void shouldSearchAccessoriesAndNormalizeUmlauts() {
+            assertThat(searchIndex.search("LADEGERAT")).containsExactly(1L);
+            assertThat(searchIndex.search("lade")).containsExactlyInAnyOrder(1L, 3L);
+        }
+
+        @Test
+        @DisplayName("Sollte leere Liste bei Anfrage ohne Begriffe liefern")
+        void shouldReturnEmptyForBlankQuery() {
+            assertThat(searchIndex.search(" - ")).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Aktualisierung Tests")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Sollte neue und geaenderte Products ohne Transaktion sofort uebernehmen")
+        void shouldApplyChanges() {
+            searchIndex.productChanged(createProduct(5L, "Sony Kamera", null, null, null));
+            searchIndex.productChanged(createProduct(3L, "Pico 4", "VR-Brille", "VR", null));
+
+            assertThat(searchIndex.search("sony")).containsExactly(5L);
+            assertThat(searchIndex.search("quest")).isEmpty();
+            assertThat(searchIndex.search("pico")).containsExactly(3L);
+        }
+
+        @Test
+        @DisplayName("Sollte geloeschte Products entfernen")
+        void shouldRemoveDeletedProducts() {
+            Product deleted = createProduct(2L, "Manfrotto Stativ", null, null, null);
+            deleted.softDelete();
+            searchIndex.productChanged(deleted);
+            searchIndex.productRemoved(4L);
+
+            assertThat(searchIndex.search("stativ")).isEmpty();
+            assertThat(searchIndex.search("kamera")).containsExactly(1L);
+        }
+
+        @Test
+        @DisplayName("Sollte Products einer umbenannten oder geloeschten Kategorie neu indizieren")
+        void shouldReindexOnCategoryChange() {
+            Product renamed = createProduct(3L, "Meta Quest 3", "VR-Brille mit Controllern", "Virtual Reality", null);
+            when(productRepository.findByCategoryId(7L)).thenReturn(List.of(renamed));
+            searchIndex.categoryChanged(7L);
+
+            assertThat(searchIndex.search("virtual")).containsExactly(3L);
+
+            renamed.getCategory().softDelete();
+            searchIndex.categoryChanged(7L);
+
+            assertThat(searchIndex.search("virtual")).isEmpty();
+            assertThat(searchIndex.search("quest")).containsExactly(3L);
+        }
+
+        @Test
+        @DisplayName("Sollte beim Neuladen Products anderer Instanzen uebernehmen")
+        void shouldPickUpForeignProductsOnReload() {
+            when(productRepository.findAllActive()).thenReturn(List.of(
+                    createProduct(1L, "Canon EOS 250D", null, "Kameras", null),
+                    createProduct(6L, "Zoom H6 Recorder", null, "Audio", null)));
+            searchIndex.reload();
+
+            assertThat(searchIndex.search("zoom")).containsExactly(6L);
+            assertThat(searchIndex.search("quest")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Sollte Aenderungen waehrend des Neuladens behalten")
+        void shouldKeepChangesDuringReload() {
+            when(productRepository.findAllActive()).thenAnswer(invocation -> {
+                // Commit einer anderen Transaktion, waehrend der Index die Datenbank liest
+                Thread commit = new Thread(() ->
+                        searchIndex.productChanged(createProduct(5L, "Sony Kamera", null, null, null)));
+                commit.start();
+                commit.join(5000);
+                assertThat(commit.isAlive()).isFalse();
+                return List.of(createProduct(1L, "Canon EOS 250D", null, "Kameras", null));
+            });
+            searchIndex.reload();
+
+            assertThat(searchIndex.search("sony")).containsExactly(5L);
+        }
+
+        @Test
+        @DisplayName("Sollte deaktiviert nie bereit sein")
+        void shouldStayUnreadyWhenDisabled() {
+            ProductSearchIndex disabled = new ProductSearchIndex(productRepository, false);
+            disabled.load();
+
+            assertThat(disabled.isReady()).isFalse();
+            verify(productRepository, times(1)).findAllActive();
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.hse.leihsy.service;
 
 import com.hse.leihsy.exception.ResourceNotFoundException;
+import com.hse.leihsy.exception.ValidationException;
+import com.hse.leihsy.model.dto.NextAvailableSlotDTO;
+import com.hse.leihsy.model.dto.ProductBookingInterval;
+import com.hse.leihsy.model.dto.ProductFilter;
+import com.hse.leihsy.model.dto.ProductItemCounts;
+import com.hse.leihsy.model.dto.timePeriodDTO;
 import com.hse.leihsy.model.entity.Category;
 import com.hse.leihsy.model.entity.Location;
 import com.hse.leihsy.model.entity.Product;
+import com.hse.leihsy.repository.BookingRepository;
 import com.hse.leihsy.repository.CategoryRepository;
+import com.hse.leihsy.repository.ItemRepository;
 import com.hse.leihsy.repository.LocationRepository;
 import com.hse.leihsy.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,9 +23,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -37,6 +58,24 @@ class ProductServiceTest {
     @Mock
     private LocationRepository locationRepository;
 
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private AvailabilityCache availabilityCache;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ImageService imageService;
+
     @InjectMocks
     private ProductService productService;
 
@@ -158,6 +197,107 @@ class ProductServiceTest {
             assertThat(result).hasSize(1);
             verify(productRepository).fullTextSearch("Description");
         }
+
+        @Test
+        @DisplayName("Sollte Treffer des Suchindex in Relevanz-Reihenfolge laden")
+        void shouldUseSearchIndexWhenReady() {
+            Product second = new Product("Stativ", "Zubehoer");
+            second.setId(2L);
+            when(productSearchIndex.isReady()).thenReturn(true);
+            when(productSearchIndex.search("kamera")).thenReturn(List.of(2L, 1L));
+            when(productRepository.findActiveByIds(List.of(2L, 1L))).thenReturn(List.of(testProduct, second));
+
+            List<Product> result = productService.fullTextSearch("kamera");
+
+            assertThat(result).containsExactly(second, testProduct);
+            verify(productRepository, never()).fullTextSearch(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("findProducts Tests")
+    class FindProductsTests {
+
+        @Test
+        @DisplayName("Sollte ohne Query leere Seite liefern, wenn der Suchindex nichts findet")
+        void shouldSkipQueryWithoutSearchHits() {
+            when(productSearchIndex.isReady()).thenReturn(true);
+            when(productSearchIndex.search("xyz")).thenReturn(List.of());
+
+            Slice<Product> result = productService.findProducts(
+                    new ProductFilter("xyz", 1L, null, true, null), 0, 20, null);
+
+            assertThat(result.getContent()).isEmpty();
+            assertThat(result.hasNext()).isFalse();
+            verifyNoInteractions(productRepository);
+        }
+
+        @Test
+        @DisplayName("Sollte Katalog-Query mit allen Filtern ausfuehren")
+        void shouldQueryWithCombinedFilters() {
+            Slice<Product> page = new SliceImpl<>(List.of(testProduct), PageRequest.of(1, 20), true);
+            when(productRepository.findBy(any(Specification.class), any())).thenReturn(page);
+
+            Slice<Product> result = productService.findProducts(
+                    new ProductFilter("Test", 1L, 1L, true, true), 1, 20, "price,desc");
+
+            assertThat(result).isSameAs(page);
+        }
+
+        @Test
+        @DisplayName("Sollte Suchtreffer nach Relevanz ordnen und die Seite im Speicher schneiden")
+        void shouldRankSearchHitsInMemory() {
+            Product first = new Product("Pico 4", null);
+            first.setId(2L);
+            Product second = new Product("Meta Quest 3", null);
+            second.setId(1L);
+            Product third = new Product("Quest Controller", null);
+            third.setId(3L);
+            when(productSearchIndex.isReady()).thenReturn(true);
+            when(productSearchIndex.search("vr")).thenReturn(List.of(2L, 1L, 3L));
+            when(productRepository.findBy(any(Specification.class), any())).thenReturn(List.of(third, second, first));
+
+            Slice<Product> result = productService.findProducts(
+                    new ProductFilter("vr", null, null, null, null), 0, 2, null);
+
+            assertThat(result.getContent()).containsExactly(first, second);
+            assertThat(result.hasNext()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Sollte nur die besten Suchtreffer in die Query geben")
+        void shouldCapSearchHits() {
+            List<Long> hits = LongStream.rangeClosed(1, ProductService.MAX_SEARCH_HITS + 500)
+                    .boxed()
+                    .toList();
+            when(productSearchIndex.isReady()).thenReturn(true);
+            when(productSearchIndex.search("a")).thenReturn(hits);
+            when(productRepository.findActiveByIds(any())).thenReturn(List.of());
+
+            productService.fullTextSearch("a");
+
+            verify(productRepository).findActiveByIds(hits.subList(0, ProductService.MAX_SEARCH_HITS));
+        }
+
+        @Test
+        @DisplayName("Sollte ungueltige Sortierung ablehnen")
+        void shouldRejectInvalidSort() {
+            assertThatThrownBy(() -> productService.findProducts(ProductFilter.none(), null, null, "insyId"))
+                    .isInstanceOf(ValidationException.class);
+            assertThatThrownBy(() -> productService.findProducts(ProductFilter.none(), null, null, "name,up"))
+                    .isInstanceOf(ValidationException.class);
+            verifyNoInteractions(productRepository);
+        }
+
+        @Test
+        @DisplayName("Sollte ungueltige Seitenangaben ablehnen")
+        void shouldRejectInvalidPage() {
+            assertThatThrownBy(() -> productService.findProducts(ProductFilter.none(), -1, null, null))
+                    .isInstanceOf(ValidationException.class);
+            assertThatThrownBy(() -> productService.findProducts(ProductFilter.none(), 0, ProductService.MAX_PAGE_SIZE + 1, null))
+                    .isInstanceOf(ValidationException.class);
+            verifyNoInteractions(productRepository);
+        }
     }
 
     @Nested
@@ -176,6 +316,7 @@ class ProductServiceTest {
 
             assertThat(result).isNotNull();
             verify(productRepository).save(any(Product.class));
+            verify(productSearchIndex).productChanged(newProduct);
         }
 
         @Test
@@ -202,6 +343,204 @@ class ProductServiceTest {
             productService.deleteProduct(1L);
 
             verify(productRepository).save(any(Product.class));
+            verify(productSearchIndex).productRemoved(1L);
+        }
+
+        @Test
+        @DisplayName("Sollte Bild nicht sofort loeschen (geteilte Bilder, Rollback), sondern dem GC ueberlassen")
+        void shouldLeaveImageToGarbageCollector() {
+            testProduct.setImageUrl("/api/images/abc.jpg");
+            when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+            productService.deleteProduct(1L);
+
+            verify(imageService, never()).deleteImage(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("updateProduct Bild Tests")
+    class UpdateProductImageTests {
+
+        @Test
+        @DisplayName("Sollte altes Bild nicht loeschen, wenn das neue denselben Inhalt hat")
+        void shouldKeepImageWhenContentUnchanged() {
+            MockMultipartFile image = new MockMultipartFile("image", "quest.jpg", "image/jpeg", new byte[]{1, 2, 3});
+            testProduct.setImageUrl("/api/images/abc.jpg");
+            when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+            when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(imageService.saveImage(image)).thenReturn("abc.jpg");
+
+            Product result = productService.updateProduct(1L, new Product("Test Product", null), null, null, image, null);
+
+            assertThat(result.getImageUrl()).isEqualTo("/api/images/abc.jpg");
+            verify(imageService, never()).deleteImage(any());
+        }
+
+        @Test
+        @DisplayName("Sollte altes Bild beim Ersetzen liegen lassen")
+        void shouldNotDeleteOldImageInline() {
+            MockMultipartFile image = new MockMultipartFile("image", "quest.jpg", "image/jpeg", new byte[]{1, 2, 3});
+            testProduct.setImageUrl("/api/images/old.jpg");
+            when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+            when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(imageService.saveImage(image)).thenReturn("new.jpg");
+
+            Product result = productService.updateProduct(1L, new Product("Test Product", null), null, null, image, null);
+
+            assertThat(result.getImageUrl()).isEqualTo("/api/images/new.jpg");
+            verify(imageService, never()).deleteImage(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("getItemCounts Tests")
+    class GetItemCountsTests {
+
+        @Test
+        @DisplayName("Sollte Zaehler einer Liste mit einer gruppierten Abfrage laden")
+        void shouldLoadCountsWithSingleQuery() {
+            when(itemRepository.countItemsByProductIds(List.of(1L)))
+                    .thenReturn(List.of(new ProductItemCounts(1L, 3, 2)));
+
+            Map<Long, ProductItemCounts> result = productService.getItemCounts(List.of(testProduct));
+
+            assertThat(result).containsEntry(1L, new ProductItemCounts(1L, 3, 2));
+            verify(itemRepository).countItemsByProductIds(List.of(1L));
+        }
+
+        @Test
+        @DisplayName("Sollte bei leerer Liste keine Abfrage ausfuehren")
+        void shouldSkipQueryForEmptyList() {
+            assertThat(productService.getItemCounts(List.of())).isEmpty();
+            verifyNoInteractions(itemRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("getAvailablePeriods / getUnavailablePeriods Tests")
+    class PeriodTests {
+
+        @BeforeEach
+        @SuppressWarnings("unchecked")
+        void setUpCache() {
+            // Cache-Miss: Berechnung direkt ausfuehren
+            lenient().when(availabilityCache.get(any(), any()))
+                    .thenAnswer(invocation -> ((Supplier<List<timePeriodDTO>>) invocation.getArgument(1)).get());
+        }
+
+        @Test
+        @DisplayName("Sollte Zeitraeume aus einer Intervall-Abfrage im Horizont berechnen")
+        void shouldComputePeriodsFromIntervalQuery() {
+            LocalDateTime start = LocalDateTime.now().plusDays(2);
+            LocalDateTime end = start.plusDays(3);
+            when(itemRepository.countByProductId(1L)).thenReturn(1L);
+            when(bookingRepository.findActiveIntervalsByProductId(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
+                    .thenReturn(List.of(new timePeriodDTO(start, end)));
+
+            List<timePeriodDTO> available = productService.getAvailablePeriods(1L, 1);
+            List<timePeriodDTO> unavailable = productService.getUnavailablePeriods(1L, 1);
+
+            assertThat(available).hasSize(2);
+            assertThat(available.get(0).getEndDate()).isEqualTo(start);
+            assertThat(available.get(1)).isEqualTo(new timePeriodDTO(end, null));
+            assertThat(unavailable).containsExactly(new timePeriodDTO(start, end));
+        }
+
+        @Test
+        @DisplayName("Sollte keine verfuegbaren Zeitraeume liefern wenn zu wenige Items existieren")
+        void shouldReturnEmptyWhenNotEnoughItems() {
+            when(itemRepository.countByProductId(1L)).thenReturn(1L);
+
+            assertThat(productService.getAvailablePeriods(1L, 2)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Sollte Zeitraeume aus dem Verfuegbarkeits-Index ohne Datenbank-Abfrage berechnen")
+        void shouldUseAvailabilityIndexWhenReady() {
+            LocalDateTime start = LocalDateTime.now().plusDays(2);
+            LocalDateTime end = start.plusDays(3);
+            when(availabilityIndex.isReady()).thenReturn(true);
+            when(availabilityIndex.countItems(1L)).thenReturn(1);
+            when(availabilityIndex.findActiveIntervals(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
+                    .thenReturn(List.of(new timePeriodDTO(start, end)));
+
+            List<timePeriodDTO> unavailable = productService.getUnavailablePeriods(1L, 1);
+
+            assertThat(unavailable).containsExactly(new timePeriodDTO(start, end));
+            verifyNoInteractions(itemRepository, bookingRepository);
+        }
+
+        @Test
+        @DisplayName("Sollte gecachte Zeitraeume ohne Berechnung liefern")
+        void shouldReturnCachedPeriods() {
+            List<timePeriodDTO> cached = List.of(new timePeriodDTO(LocalDateTime.now(), null));
+            doReturn(cached).when(availabilityCache)
+                    .get(eq(new AvailabilityCache.Key(1L, 2, true, ProductService.AVAILABILITY_HORIZON)), any());
+
+            assertThat(productService.getAvailablePeriods(1L, 2)).isSameAs(cached);
+            verifyNoInteractions(availabilityIndex, itemRepository, bookingRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("getNextAvailableSlots Tests")
+    class NextAvailableSlotTests {
+
+        @BeforeEach
+        @SuppressWarnings("unchecked")
+        void setUpCache() {
+            // Cache leer: alle Keys ueber den Loader berechnen
+            lenient().when(availabilityCache.getAll(any(), any())).thenAnswer(invocation ->
+                    ((Function<Set<AvailabilityCache.Key>, Map<AvailabilityCache.Key, List<timePeriodDTO>>>) invocation.getArgument(1))
+                            .apply(Set.copyOf((Collection<AvailabilityCache.Key>) invocation.getArgument(0))));
+        }
+
+        @Test
+        @DisplayName("Sollte fruehesten freien Zeitraum aller Products mit zwei Queries berechnen")
+        void shouldComputeSlotsWithTwoQueries() {
+            LocalDateTime start = LocalDateTime.now().plusDays(2);
+            when(itemRepository.countItemsByProductIds(any())).thenReturn(List.of(
+                    new ProductItemCounts(1L, 1, 1), new ProductItemCounts(2L, 1, 1)));
+            when(bookingRepository.findActiveIntervalsByProductIds(any(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                    .thenReturn(List.of(new ProductBookingInterval(1L, LocalDateTime.now().minusDays(1), start)));
+
+            List<NextAvailableSlotDTO> slots = productService.getNextAvailableSlots(List.of(1L, 2L, 3L), 1, Duration.ofDays(1));
+
+            assertThat(slots).extracting(NextAvailableSlotDTO::getProductId).containsExactly(1L, 2L, 3L);
+            assertThat(slots.get(0).getAvailableFrom()).isEqualTo(start);
+            assertThat(slots.get(1).getAvailableFrom()).isBeforeOrEqualTo(LocalDateTime.now());
+            // Product 3 hat keine Items
+            assertThat(slots.get(2).getAvailableFrom()).isNull();
+            verify(itemRepository, times(1)).countItemsByProductIds(any());
+            verify(bookingRepository, times(1)).findActiveIntervalsByProductIds(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Sollte ungueltige Dauer ablehnen")
+        void shouldRejectNonPositiveDuration() {
+            assertThatThrownBy(() -> productService.getNextAvailableSlots(List.of(1L), 1, Duration.ZERO))
+                    .isInstanceOf(ValidationException.class);
+        }
+
+        @Test
+        @DisplayName("Sollte ohne Product-IDs die aktiven Products der Kategorie verwenden")
+        void shouldResolveCategoryProducts() {
+            when(productRepository.findActiveIds(5L)).thenReturn(List.of(7L, 8L));
+
+            assertThat(productService.resolveProductIds(null, 5L)).containsExactly(7L, 8L);
+            assertThat(productService.resolveProductIds(List.of(1L), 5L)).containsExactly(1L);
+        }
+
+        @Test
+        @DisplayName("Sollte doppelte Product-IDs entfernen und zu lange Listen ablehnen")
+        void shouldDeduplicateAndCapProductIds() {
+            assertThat(productService.resolveProductIds(List.of(3L, 1L, 3L), null)).containsExactly(3L, 1L);
+
+            List<Long> tooMany = LongStream.rangeClosed(1, ProductService.MAX_PAGE_SIZE + 1).boxed().toList();
+            assertThatThrownBy(() -> productService.resolveProductIds(tooMany, null))
+                    .isInstanceOf(ValidationException.class);
+            verifyNoInteractions(productRepository);
         }
     }
 }